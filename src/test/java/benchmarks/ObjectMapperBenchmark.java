@@ -0,0 +1,107 @@
+package benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import dto.order.OrderGetResponse;
+import dto.product.ProductCreateRequest;
+import helpers.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static helpers.DataHelper.*;
+
+/**
+ * Бенчмарк стоимости (де)сериализации тела одного запроса:
+ * новый ObjectMapper на каждый запрос (как было в BaseRequests) против общего JsonMapper, с Blackbird и без него.
+ * Запуск: ./gradlew jmh -PjmhInclude=ObjectMapperBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObjectMapperBenchmark {
+
+    /**
+     * Способ получения ObjectMapper: perRequest - новый на каждый запрос, shared - общий, sharedBlackbird - общий с Blackbird
+     */
+    @Param({"perRequest", "shared", "sharedBlackbird"})
+    public String mapper;
+
+    /**
+     * Общий ObjectMapper выбранного варианта
+     */
+    private ObjectMapper sharedMapper;
+
+    /**
+     * Тело запроса создания продукта
+     */
+    private ProductCreateRequest productCreateRequest;
+
+    /**
+     * Тело ответа получения заказа
+     */
+    private byte[] orderGetResponseBody;
+
+    /**
+     * Метод подготовки тел запроса и ответа
+     *
+     * @throws IOException если ошибки сериализации
+     */
+    @Setup
+    public void setup() throws IOException {
+        sharedMapper = "sharedBlackbird".equals(mapper) ? JsonMapper.create(true) : JsonMapper.create(false);
+        productCreateRequest = ProductCreateRequest.builder()
+                .name(getNameProduct())
+                .article(getUUID())
+                .category(getCategoryProduct())
+                .dictionary(getDictionaryProduct())
+                .price(generateRandomPrice())
+                .qty(generateRandomQty())
+                .build();
+        List<OrderGetResponse.Products> products = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            products.add(OrderGetResponse.Products.builder()
+                    .name(getNameProduct())
+                    .id(getUUID())
+                    .price(generateRandomPrice())
+                    .qty(generateRandomQty())
+                    .build());
+        }
+        orderGetResponseBody = sharedMapper.writeValueAsBytes(OrderGetResponse.builder()
+                .orderId(getUUID())
+                .products(products)
+                .totalPrice(BigDecimal.TEN)
+                .build());
+    }
+
+    @Benchmark
+    public byte[] serializeProductCreateRequest() throws IOException {
+        return mapper().writeValueAsBytes(productCreateRequest);
+    }
+
+    @Benchmark
+    public OrderGetResponse deserializeOrderGetResponse() throws IOException {
+        return mapper().readValue(orderGetResponseBody, OrderGetResponse.class);
+    }
+
+    /**
+     * Метод получения ObjectMapper для одного запроса
+     *
+     * @return ObjectMapper
+     */
+    private ObjectMapper mapper() {
+        if ("perRequest".equals(mapper)) {
+            ObjectMapper perRequestMapper = new ObjectMapper();
+            perRequestMapper.registerModule(new JavaTimeModule());
+            return perRequestMapper;
+        }
+        return sharedMapper;
+    }
+}
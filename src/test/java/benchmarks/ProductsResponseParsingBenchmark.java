@@ -0,0 +1,132 @@
+package benchmarks;
+
+import com.sun.net.httpserver.HttpServer;
+import config.BaseConfig;
+import helpers.BaseRequests;
+import helpers.ProductsResponseScanner;
+import io.restassured.specification.RequestSpecification;
+import org.aeonbits.owner.ConfigCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Бенчмарк проверки наличия созданных продуктов в ответе GET products:
+ * JsonPath по буферизованному ответу (как было в GetAllProductsTest) против потокового ProductsResponseScanner
+ * по ответу без буферизации. Оба варианта выполняют настоящий HTTP-запрос через спецификации BaseRequests
+ * к локальному серверу, отдающему тело chunked-ответом, поэтому в замер входят чтение ответа и буферизация RestAssured.
+ * Искомые id находятся в конце массива, то есть досрочная остановка потокового разбора не помогает (худший случай).
+ * Для замера выделений памяти: ./gradlew jmh -PjmhInclude=ProductsResponseParsingBenchmark -PjmhArgs="-prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ProductsResponseParsingBenchmark {
+
+    /**
+     * Количество продуктов в ответе
+     */
+    @Param({"10000", "100000"})
+    public int products;
+
+    /**
+     * Тело ответа в формате GET products
+     */
+    private byte[] body;
+
+    /**
+     * Искомые id
+     */
+    private List<String> wanted;
+
+    /**
+     * Локальный сервер, отдающий тело ответа
+     */
+    private HttpServer server;
+
+    /**
+     * Спецификация с фильтрами, ответ буферизуется целиком
+     */
+    private RequestSpecification bufferedSpecification;
+
+    /**
+     * Спецификация без фильтров, тело ответа читается потоком
+     */
+    private RequestSpecification streamingSpecification;
+
+    /**
+     * Метод генерации тела ответа и запуска сервера
+     *
+     * @throws IOException если сервер не запущен
+     */
+    @Setup
+    public void startServer() throws IOException {
+        StringBuilder json = new StringBuilder(products * 300);
+        String[] lastIds = new String[2];
+        json.append('[');
+        for (int i = 0; i < products; i++) {
+            String id = UUID.randomUUID().toString();
+            if (i >= products - 2) {
+                lastIds[i - (products - 2)] = id;
+            }
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"name\":\"Sunny Honey\",\"article\":\"").append(UUID.randomUUID())
+                    .append("\",\"id\":\"").append(id)
+                    .append("\",\"category\":\"FRUITS\",\"price\":\"123.45\",\"qty\":\"10.00\"")
+                    .append(",\"insertedAt\":\"2025-09-14T16:01:17.923940\",\"last_qty_changed\":\"2025-09-14T16:01:17.923940\"")
+                    .append(",\"currency\":\"USD\"}");
+        }
+        json.append(']');
+        body = json.toString().getBytes(StandardCharsets.UTF_8);
+        wanted = Arrays.asList(lastIds);
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/products", exchange -> {
+            try (exchange; OutputStream out = exchange.getResponseBody()) {
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, 0);
+                out.write(body);
+            }
+        });
+        server.start();
+        String baseUri = "http://" + server.getAddress().getAddress().getHostAddress() + ":" + server.getAddress().getPort();
+        BaseRequests baseRequests = new BaseRequests(ConfigCache.getOrCreate(BaseConfig.class, System.getenv()));
+        bufferedSpecification = given().spec(baseRequests.initRequestSpecification()).baseUri(baseUri);
+        streamingSpecification = given().spec(baseRequests.initStreamingRequestSpecification()).baseUri(baseUri);
+    }
+
+    /**
+     * Метод остановки сервера
+     */
+    @TearDown
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Benchmark
+    public boolean jsonPath() {
+        List<String> ids = given().spec(bufferedSpecification).get("products").jsonPath().getList("id");
+        return ids.containsAll(wanted);
+    }
+
+    @Benchmark
+    public boolean streaming() {
+        return ProductsResponseScanner.findIds(given().spec(streamingSpecification).get("products").asInputStream(), wanted)
+                .containsAll(wanted);
+    }
+}
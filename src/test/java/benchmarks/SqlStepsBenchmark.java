@@ -0,0 +1,138 @@
+package benchmarks;
+
+import config.BaseConfig;
+import database.OrderBDModel;
+import database.OrderSqlSteps;
+import database.ProductBDModel;
+import database.ProductSqlSteps;
+import org.aeonbits.owner.ConfigCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Микробенчмарк задержки одного вызова getProductBDModel и getOrderBDModel.
+ * Базовая линия statement* - те же запросы и тот же разбор строк (ProductSqlSteps.mapProduct, OrderSqlSteps.readOrderRow)
+ * на подключении из пула, но через String.format + Statement: разница с getProductBDModel/getOrderBDModel -
+ * выигрыш PreparedStatement и кэша планов. Справочные referenceDriverManager* дополнительно открывают подключение
+ * через DriverManager на каждый вызов, как прежний код: разница с statement* - выигрыш пула подключений.
+ * Требует поднятой через docker-compose БД с хотя бы одним заказом.
+ * Запуск: ./gradlew jmh -PjmhInclude=SqlStepsBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SqlStepsBenchmark {
+
+    /**
+     * Экземпляр конфигурации
+     */
+    private static final BaseConfig config = ConfigCache.getOrCreate(BaseConfig.class, System.getenv());
+
+    /**
+     * Запросы ProductSqlSteps и OrderSqlSteps, в которые значение подставляется через String.format
+     */
+    private static final String STATEMENT_SELECT_PRODUCT_SQL = "SELECT * FROM product WHERE id = '%s'";
+    private static final String STATEMENT_SELECT_ORDER_SQL = "SELECT o.id, o.customer_id, o.status, o.delivery_address, op.product_id, op.qty, op.price, p.name "
+            + "FROM \"order\" o LEFT JOIN (ordered_product op INNER JOIN product p ON p.id = op.product_id) ON op.order_id = o.id "
+            + "WHERE o.id = '%s'";
+
+    /**
+     * Идентификаторы существующих в БД записей, по которым выполняются запросы
+     */
+    private String productId;
+    private String orderId;
+
+    private final ProductSqlSteps productSqlSteps = new ProductSqlSteps();
+    private final OrderSqlSteps orderSqlSteps = new OrderSqlSteps();
+
+    /**
+     * Метод выбора существующих в БД product и order для замеров
+     *
+     * @throws SQLException если в БД нет подходящих записей
+     */
+    @Setup
+    public void selectExistingRows() throws SQLException {
+        try (Connection connection = ProductSqlSteps.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet result = stmt.executeQuery("SELECT order_id, product_id FROM ordered_product LIMIT 1")) {
+            if (!result.next()) {
+                throw new IllegalStateException("В таблице ordered_product нет записей для бенчмарка");
+            }
+            orderId = result.getString("order_id");
+            productId = result.getString("product_id");
+        }
+    }
+
+    @Benchmark
+    public ProductBDModel getProductBDModel() {
+        return productSqlSteps.getProductBDModel(productId);
+    }
+
+    @Benchmark
+    public ProductBDModel statementGetProductBDModel() throws SQLException {
+        try (Connection connection = ProductSqlSteps.getConnection()) {
+            return selectProduct(connection);
+        }
+    }
+
+    @Benchmark
+    public ProductBDModel referenceDriverManagerGetProductBDModel() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(config.urlDb(), config.userDb(), config.passwordDb())) {
+            return selectProduct(connection);
+        }
+    }
+
+    @Benchmark
+    public OrderBDModel getOrderBDModel() {
+        return orderSqlSteps.getOrderBDModel(orderId);
+    }
+
+    @Benchmark
+    public OrderBDModel statementGetOrderBDModel() throws SQLException {
+        try (Connection connection = OrderSqlSteps.getConnection()) {
+            return selectOrder(connection);
+        }
+    }
+
+    @Benchmark
+    public OrderBDModel referenceDriverManagerGetOrderBDModel() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(config.urlDb(), config.userDb(), config.passwordDb())) {
+            return selectOrder(connection);
+        }
+    }
+
+    /**
+     * Метод запроса product через String.format + Statement
+     */
+    private ProductBDModel selectProduct(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet result = stmt.executeQuery(String.format(STATEMENT_SELECT_PRODUCT_SQL, productId))) {
+            return result.next() ? ProductSqlSteps.mapProduct(result) : null;
+        }
+    }
+
+    /**
+     * Метод запроса order вместе с составом заказа через String.format + Statement
+     */
+    private OrderBDModel selectOrder(Connection connection) throws SQLException {
+        Map<String, OrderBDModel> orders = new LinkedHashMap<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet result = stmt.executeQuery(String.format(STATEMENT_SELECT_ORDER_SQL, orderId))) {
+            while (result.next()) {
+                OrderSqlSteps.readOrderRow(result, orders);
+            }
+        }
+        return orders.get(orderId);
+    }
+}
@@ -1,11 +1,15 @@
 package config;
 
+import database.DatabaseSnapshot;
 import org.aeonbits.owner.Config;
 
 /**
- * Интерфейс с основной конфигурацией проекта
+ * Интерфейс с основной конфигурацией проекта.
+ * Профиль (-Dprofile=stub или переменная окружения profile) подключает config-&lt;profile&gt;.properties,
+ * значения из которого имеют приоритет над config.properties
  */
-@Config.Sources({"classpath:config.properties"})
+@Config.LoadPolicy(Config.LoadType.MERGE)
+@Config.Sources({"classpath:config-${profile}.properties", "classpath:config.properties"})
 public interface BaseConfig extends Config {
 
     /**
@@ -105,4 +109,278 @@ public interface BaseConfig extends Config {
      * @return
      */
     String updateOrderEndpoint();
-}
\ No newline at end of file
+
+    /**
+     * Метод для возвращения значения параметра "минимальное количество простаивающих подключений в пуле БД"
+     *
+     * @return минимальное количество простаивающих подключений
+     */
+    int dbPoolMinIdle();
+
+    /**
+     * Метод для возвращения значения параметра "максимальный размер пула подключений к БД"
+     *
+     * @return максимальный размер пула
+     */
+    int dbPoolMaxSize();
+
+    /**
+     * Метод для возвращения значения параметра "время простоя подключения до вытеснения из пула, мс"
+     *
+     * @return время простоя в миллисекундах
+     */
+    long dbPoolIdleTimeoutMs();
+
+    /**
+     * Метод для возвращения значения параметра "максимальное время ожидания подключения из пула, мс"
+     *
+     * @return время ожидания в миллисекундах
+     */
+    long dbPoolConnectionTimeoutMs();
+
+    /**
+     * Метод для возвращения значения параметра "максимальное время проверки подключения при выдаче из пула, мс"
+     *
+     * @return время проверки в миллисекундах
+     */
+    long dbPoolValidationTimeoutMs();
+
+    /**
+     * Метод для возвращения значения параметра "количество выполнений запроса до перехода на серверный prepared statement"
+     *
+     * @return порог prepareThreshold драйвера pgjdbc
+     */
+    int dbPrepareThreshold();
+
+    /**
+     * Метод для возвращения значения параметра "количество запросов в кэше prepared statements одного подключения"
+     *
+     * @return размер кэша preparedStatementCacheQueries драйвера pgjdbc
+     */
+    int dbStatementCacheQueries();
+
+    /**
+     * Метод для возвращения значения параметра "объем кэша prepared statements одного подключения, МиБ"
+     *
+     * @return объем кэша preparedStatementCacheSizeMiB драйвера pgjdbc
+     */
+    int dbStatementCacheSizeMiB();
+
+    /**
+     * Метод для возвращения значения параметра "количество идентификаторов в одном пакетном запросе к БД"
+     *
+     * @return размер пакета
+     */
+    int dbBulkChunkSize();
+
+    /**
+     * Метод для возвращения значения параметра "период фоновой очистки тестовых данных, мс"
+     *
+     * @return период очистки в миллисекундах
+     */
+    long cleanupFlushIntervalMs();
+
+    /**
+     * Метод для возвращения значения параметра "проверять сохранение остатков продуктов перед очисткой тестовых данных"
+     *
+     * @return true, если проверка включена
+     */
+    boolean stockAudit();
+
+    /**
+     * Метод для возвращения значения параметра "количество customer, создаваемых пулом за один запрос"
+     *
+     * @return размер пакета пула customer
+     */
+    int customerPoolSize();
+
+    /**
+     * Метод для возвращения значения параметра "количество product, создаваемых пулом фикстур при первом обращении"
+     *
+     * @return начальный размер пула product
+     */
+    int productPoolSize();
+
+    /**
+     * Метод для возвращения значения параметра "количество потоков параллельного создания product пулом фикстур"
+     *
+     * @return количество потоков
+     */
+    int productPoolInitThreads();
+
+    /**
+     * Метод для возвращения значения параметра "количество строк, читаемых курсором БД за один запрос к серверу"
+     *
+     * @return размер выборки курсора
+     */
+    int dbScanFetchSize();
+
+    /**
+     * Метод для возвращения значения параметра "способ восстановления БД из базового снимка перед прогоном" (OFF, TRUNCATE, TEMPLATE),
+     * перекрывается свойством -PdbRestore
+     *
+     * @return способ восстановления
+     */
+    DatabaseSnapshot.Mode dbSnapshotMode();
+
+    /**
+     * Метод для возвращения значения параметра "возраст прогона, после которого его данные удаляются очисткой, мин"
+     *
+     * @return возраст прогона в минутах
+     */
+    long sweepStaleAfterMinutes();
+
+    /**
+     * Метод для возвращения значения параметра "количество записей, удаляемых очисткой старых прогонов за один запрос"
+     *
+     * @return размер пакета
+     */
+    int sweepBatchSize();
+
+    /**
+     * Метод для возвращения значения параметра "минимальная пауза между пакетами очистки старых прогонов, мс"
+     *
+     * @return пауза в миллисекундах
+     */
+    long sweepPauseMs();
+
+    /**
+     * Метод для возвращения значения параметра "запускать очистку старых прогонов в фоне перед тестами"
+     *
+     * @return true, если очистка запускается перед тестами
+     */
+    boolean sweepOnStart();
+
+    /**
+     * Метод для возвращения значения параметра "использовать встроенную заглушку сервиса склада вместо apiUrl"
+     *
+     * @return true, если запросы идут во встроенную заглушку
+     */
+    boolean warehouseStub();
+
+    /**
+     * Метод для возвращения значения параметра "порт встроенной заглушки сервиса склада" (0 - свободный порт)
+     *
+     * @return порт
+     */
+    int stubPort();
+
+    /**
+     * Метод для возвращения значения параметра "задержка ответа встроенной заглушки, мс"
+     *
+     * @return задержка в миллисекундах
+     */
+    long stubLatencyMs();
+
+    /**
+     * Метод для возвращения значения параметра "верхняя граница случайной добавки к задержке заглушки, мс"
+     *
+     * @return добавка в миллисекундах
+     */
+    long stubLatencyJitterMs();
+
+    /**
+     * Метод для возвращения значения параметра "количество продуктов, создаваемых перед нагрузкой"
+     *
+     * @return количество продуктов
+     */
+    int loadProducts();
+
+    /**
+     * Метод для возвращения значения параметра "остаток каждого продукта, создаваемого перед нагрузкой"
+     *
+     * @return остаток продукта
+     */
+    int loadProductQty();
+
+    /**
+     * Метод для возвращения значения параметра "количество customer, создаваемых перед нагрузкой"
+     *
+     * @return количество customer
+     */
+    int loadCustomers();
+
+    /**
+     * Метод для возвращения значения параметра "максимальное количество запросов нагрузки, ожидающих ответа"
+     *
+     * @return количество запросов
+     */
+    int loadMaxInFlight();
+
+    /**
+     * Метод для возвращения значения параметра "таймаут запроса нагрузки, мс"
+     *
+     * @return таймаут в миллисекундах
+     */
+    long loadRequestTimeoutMs();
+
+    /**
+     * Метод для возвращения значения параметра "интервал записи журнала гистограмм нагрузки, мс"
+     *
+     * @return интервал в миллисекундах
+     */
+    long loadLogIntervalMs();
+
+    /**
+     * Метод для возвращения значения параметра "пауза виртуального пользователя между шагами сценария, мс"
+     *
+     * @return пауза в миллисекундах
+     */
+    long loadThinkTimeMs();
+
+    /**
+     * Метод для возвращения значения параметра "верхняя граница случайной добавки к паузе пользователя, мс"
+     *
+     * @return добавка в миллисекундах
+     */
+    long loadThinkTimeJitterMs();
+
+    /**
+     * Метод для возвращения значения параметра "каталог журналов и отчетов нагрузки"
+     *
+     * @return путь к каталогу
+     */
+    String loadOutputDir();
+
+    /**
+     * Метод для возвращения значения параметра "подключать модуль Blackbird к общему ObjectMapper"
+     *
+     * @return true, если модуль подключается
+     */
+    boolean jacksonBlackbird();
+
+    /**
+     * Метод для возвращения значения параметра "максимальное количество HTTP-подключений в пуле"
+     *
+     * @return размер пула HTTP-подключений
+     */
+    int httpMaxTotal();
+
+    /**
+     * Метод для возвращения значения параметра "максимальное количество HTTP-подключений к одному хосту"
+     *
+     * @return количество подключений на маршрут
+     */
+    int httpMaxPerRoute();
+
+    /**
+     * Метод для возвращения значения параметра "время хранения простаивающего HTTP-подключения в пуле, мс"
+     *
+     * @return время keep-alive в миллисекундах
+     */
+    long httpKeepAliveMs();
+
+    /**
+     * Метод для возвращения значения параметра "таймаут установки HTTP-подключения, мс"
+     *
+     * @return таймаут в миллисекундах
+     */
+    int httpConnectTimeoutMs();
+
+    /**
+     * Метод для возвращения значения параметра "таймаут чтения HTTP-ответа, мс"
+     *
+     * @return таймаут в миллисекундах
+     */
+    int httpReadTimeoutMs();
+}
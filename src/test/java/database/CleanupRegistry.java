@@ -0,0 +1,379 @@
+package database;
+
+import config.BaseConfig;
+import org.aeonbits.owner.ConfigCache;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Реестр отложенной очистки тестовых данных.
+ * Тесты регистрируют идентификаторы созданных order, customer и product, а фоновый поток удаляет их
+ * пакетами JDBC в одной транзакции в порядке внешних ключей: ordered_product, "order", customer, product
+ * (в профиле stub - из хранилищ в памяти через Repositories).
+ * Перед удалением остатки продуктов сверяются с учетом StockLedger.
+ * Записи, не удаленные по одной, возвращаются в очередь повтора до следующей очистки.
+ * Оставшиеся записи удаляются при завершении JVM, неудаляемые после повтора только логируются
+ */
+public final class CleanupRegistry {
+
+    /**
+     * Экземпляр конфигурации
+     */
+    private static final BaseConfig config = ConfigCache.getOrCreate(BaseConfig.class, System.getenv());
+
+    /**
+     * Константы запросов удаления в порядке внешних ключей
+     */
+    private static final String DELETE_ORDERED_PRODUCT_SQL = "DELETE FROM ordered_product WHERE order_id = ?";
+    private static final String DELETE_ORDER_SQL = "DELETE FROM \"order\" WHERE id = ?";
+    private static final String DELETE_CUSTOMER_SQL = "DELETE FROM customer WHERE id = ?";
+    private static final String DELETE_PRODUCT_SQL = "DELETE FROM product WHERE id = ?";
+
+    /**
+     * Очереди идентификаторов, ожидающих удаления
+     */
+    private static final Queue<String> orders = new ConcurrentLinkedQueue<>();
+    private static final Queue<Integer> customers = new ConcurrentLinkedQueue<>();
+    private static final Queue<String> products = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Очереди повтора записей, которые не удалось удалить: остатки по ним уже сверены StockLedger,
+     * поэтому при повторе проверка не выполняется
+     */
+    private static final Queue<String> retryOrders = new ConcurrentLinkedQueue<>();
+    private static final Queue<Integer> retryCustomers = new ConcurrentLinkedQueue<>();
+    private static final Queue<String> retryProducts = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Действия, регистрирующие записи на удаление непосредственно перед финальной очисткой
+     */
+    private static final List<Runnable> beforeDrainActions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Итоговая статистика очистки
+     */
+    private static final AtomicLong purgedRows = new AtomicLong();
+    private static final AtomicLong purgeNanos = new AtomicLong();
+    private static final AtomicLong flushes = new AtomicLong();
+
+    /**
+     * Признак выполненной финальной очистки
+     */
+    private static final AtomicBoolean drained = new AtomicBoolean();
+
+    /**
+     * Фоновый поток периодической очистки
+     */
+    private static final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "test-data-cleanup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        long interval = config.cleanupFlushIntervalMs();
+        flusher.scheduleWithFixedDelay(CleanupRegistry::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        DataBasePool.beforeShutdown(CleanupRegistry::drain);
+    }
+
+    private CleanupRegistry() {
+    }
+
+    /**
+     * Метод регистрации заказа на удаление вместе с его позициями
+     *
+     * @param id заказа
+     */
+    public static void registerOrder(String id) {
+        if (id != null) {
+            orders.add(id);
+        }
+    }
+
+    /**
+     * Метод регистрации customer на удаление
+     *
+     * @param id customer
+     */
+    public static void registerCustomer(Integer id) {
+        if (id != null) {
+            customers.add(id);
+        }
+    }
+
+    /**
+     * Метод регистрации продукта на удаление
+     *
+     * @param id продукта
+     */
+    public static void registerProduct(String id) {
+        if (id != null) {
+            products.add(id);
+        }
+    }
+
+    /**
+     * Метод регистрации действия, выполняемого перед финальной очисткой при завершении JVM.
+     * Используется пулами, которые держат записи до конца прогона и отдают их на удаление только в конце
+     *
+     * @param action действие, регистрирующее записи на удаление
+     */
+    public static void beforeDrain(Runnable action) {
+        beforeDrainActions.add(action);
+    }
+
+    /**
+     * Метод удаления всех зарегистрированных на текущий момент записей
+     *
+     * @return количество удаленных строк
+     */
+    public static long flush() {
+        return flush(false);
+    }
+
+    /**
+     * Метод удаления зарегистрированных записей и записей из очередей повтора
+     *
+     * @param last финальная очистка: неудаленные записи больше не возвращаются в очередь повтора
+     * @return количество удаленных строк
+     */
+    private static synchronized long flush(boolean last) {
+        List<String> orderIds = drainQueue(orders);
+        List<Integer> customerIds = drainQueue(customers);
+        List<String> productIds = drainQueue(products);
+        auditStock(orderIds, productIds);
+        orderIds.addAll(drainQueue(retryOrders));
+        customerIds.addAll(drainQueue(retryCustomers));
+        productIds.addAll(drainQueue(retryProducts));
+        if (orderIds.isEmpty() && customerIds.isEmpty() && productIds.isEmpty()) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        long deleted;
+        if (Repositories.inMemory()) {
+            deleted = deleteFromRepositories(orderIds, customerIds, productIds);
+        } else {
+            try (Connection connection = DataBasePool.getConnection()) {
+                deleted = deleteInTransaction(connection, orderIds, customerIds, productIds);
+            } catch (SQLException e) {
+                System.err.println("Ошибка при пакетном удалении тестовых данных, удаление по одной записи: " + e.getMessage());
+                deleted = deleteOneByOne(orderIds, customerIds, productIds, last);
+            }
+        }
+        purgedRows.addAndGet(deleted);
+        purgeNanos.addAndGet(System.nanoTime() - start);
+        flushes.incrementAndGet();
+        return deleted;
+    }
+
+    /**
+     * Метод проверки остатков перед удалением: продукты проверяются, пока заказы с ними еще не удалены,
+     * затем резерв удаляемых заказов вычитается из учета StockLedger. Ошибка проверки не должна мешать очистке
+     */
+    private static void auditStock(List<String> orderIds, List<String> productIds) {
+        if (orderIds.isEmpty() && productIds.isEmpty()) {
+            return;
+        }
+        try {
+            StockLedger.beforeProductsDeleted(productIds);
+            StockLedger.beforeOrdersDeleted(orderIds);
+        } catch (RuntimeException e) {
+            System.err.println("Ошибка при проверке остатков: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Метод пакетного удаления в одной транзакции
+     *
+     * @return количество удаленных строк
+     * @throws SQLException если транзакция откатилась
+     */
+    private static long deleteInTransaction(Connection connection, List<String> orderIds, List<Integer> customerIds,
+                                            List<String> productIds) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            long deleted = executeBatch(connection, DELETE_ORDERED_PRODUCT_SQL, orderIds)
+                    + executeBatch(connection, DELETE_ORDER_SQL, orderIds)
+                    + executeBatch(connection, DELETE_CUSTOMER_SQL, customerIds)
+                    + executeBatch(connection, DELETE_PRODUCT_SQL, productIds);
+            connection.commit();
+            return deleted;
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Метод удаления по одной записи, чтобы одна неудаляемая запись не блокировала очистку остальных.
+     * Неудаленные записи возвращаются в очередь повтора: например, продукт из заказа, который еще не передан
+     * на удаление, удалится при следующей очистке после заказа
+     *
+     * @param last финальная очистка: неудаленные записи только логируются
+     * @return количество удаленных строк
+     */
+    private static long deleteOneByOne(List<String> orderIds, List<Integer> customerIds, List<String> productIds, boolean last) {
+        long deleted = 0;
+        try (Connection connection = DataBasePool.getConnection()) {
+            for (String id : orderIds) {
+                int lines = deleteQuietly(connection, DELETE_ORDERED_PRODUCT_SQL, id);
+                int order = lines < 0 ? -1 : deleteQuietly(connection, DELETE_ORDER_SQL, id);
+                deleted += Math.max(lines, 0) + Math.max(order, 0);
+                if (order < 0) {
+                    retry(retryOrders, id, last);
+                }
+            }
+            for (Integer id : customerIds) {
+                int count = deleteQuietly(connection, DELETE_CUSTOMER_SQL, id);
+                deleted += Math.max(count, 0);
+                if (count < 0) {
+                    retry(retryCustomers, id, last);
+                }
+            }
+            for (String id : productIds) {
+                int count = deleteQuietly(connection, DELETE_PRODUCT_SQL, id);
+                deleted += Math.max(count, 0);
+                if (count < 0) {
+                    retry(retryProducts, id, last);
+                }
+            }
+        } catch (SQLException e) {
+            // Удаление идемпотентно, поэтому при потере подключения в повтор возвращаются все записи
+            e.printStackTrace();
+            orderIds.forEach(id -> retry(retryOrders, id, last));
+            customerIds.forEach(id -> retry(retryCustomers, id, last));
+            productIds.forEach(id -> retry(retryProducts, id, last));
+        }
+        return deleted;
+    }
+
+    /**
+     * Метод возврата неудаленной записи в очередь повтора
+     *
+     * @param queue очередь повтора
+     * @param id    идентификатор записи
+     * @param last  финальная очистка: запись не возвращается, а логируется как неудаленная
+     */
+    private static <T> void retry(Queue<T> queue, T id, boolean last) {
+        if (last) {
+            System.err.println("Тестовые данные не удалены: " + id);
+        } else {
+            queue.add(id);
+        }
+    }
+
+    /**
+     * Метод удаления из хранилищ в памяти (профиль stub): к БД при этом не обращаемся
+     *
+     * @return количество удаленных записей
+     */
+    private static long deleteFromRepositories(List<String> orderIds, List<Integer> customerIds, List<String> productIds) {
+        OrderRepository orderRepository = Repositories.orders();
+        ProductRepository productRepository = Repositories.products();
+        orderIds.forEach(orderRepository::deleteOrder);
+        customerIds.forEach(orderRepository::deleteCustomer);
+        productIds.forEach(productRepository::deleteProduct);
+        return orderIds.size() + customerIds.size() + productIds.size();
+    }
+
+    /**
+     * Метод удаления одной записи с логированием ошибки
+     *
+     * @return количество удаленных строк, -1 при ошибке
+     */
+    private static int deleteQuietly(Connection connection, String sql, Object id) {
+        try {
+            return SqlRunner.update(connection, sql, id);
+        } catch (SQLException e) {
+            System.err.println("Ошибка при удалении тестовых данных " + id + ": " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Метод выполнения одного пакета JDBC
+     *
+     * @return количество удаленных строк
+     * @throws SQLException если ошибки при выполнении пакета
+     */
+    private static long executeBatch(Connection connection, String sql, Collection<?> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        long deleted = 0;
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (Object id : ids) {
+                stmt.setObject(1, id);
+                stmt.addBatch();
+            }
+            for (int count : stmt.executeBatch()) {
+                if (count > 0) {
+                    deleted += count;
+                } else if (count == Statement.SUCCESS_NO_INFO) {
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Метод извлечения всех элементов очереди
+     *
+     * @return извлеченные элементы
+     */
+    private static <T> List<T> drainQueue(Queue<T> queue) {
+        List<T> drained = new ArrayList<>();
+        T item;
+        while ((item = queue.poll()) != null) {
+            drained.add(item);
+        }
+        return drained;
+    }
+
+    /**
+     * Метод фоновой очистки: ошибки не должны останавливать периодическую задачу
+     */
+    private static void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            System.err.println("Ошибка при фоновой очистке тестовых данных: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Метод финальной очистки с выводом статистики: второй проход повторяет записи, не удаленные первым,
+     * после него неудаленные записи отбрасываются. Вызывается после последнего тестового класса
+     * и при завершении JVM, выполняется один раз
+     */
+    public static void drain() {
+        if (!drained.compareAndSet(false, true)) {
+            return;
+        }
+        flusher.shutdownNow();
+        beforeDrainActions.forEach(Runnable::run);
+        flush(false);
+        flush(true);
+        StockLedger.report();
+        System.out.printf("Cleanup: purged %d rows in %d ms over %d flushes%n",
+                purgedRows.get(), TimeUnit.NANOSECONDS.toMillis(purgeNanos.get()), flushes.get());
+    }
+}
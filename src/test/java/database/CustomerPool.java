@@ -0,0 +1,91 @@
+package database;
+
+import config.BaseConfig;
+import org.aeonbits.owner.ConfigCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static helpers.DataHelper.getCustomerRandomEmail;
+import static helpers.DataHelper.getCustomerRandomNickName;
+
+/**
+ * Пул заранее созданных customer, выдаваемых тестам в эксклюзивное пользование.
+ * Customer создаются пакетами по customerPoolSize одним многострочным INSERT ... RETURNING,
+ * возвращаются в пул после теста и удаляются через CleanupRegistry при завершении JVM
+ */
+public final class CustomerPool {
+
+    /**
+     * Экземпляр конфигурации
+     */
+    private static final BaseConfig config = ConfigCache.getOrCreate(BaseConfig.class, System.getenv());
+
+    /**
+     * Свободные customer
+     */
+    private static final Queue<Integer> available = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Все созданные пулом customer
+     */
+    private static final Set<Integer> created = ConcurrentHashMap.newKeySet();
+
+    static {
+        CleanupRegistry.beforeDrain(() -> created.forEach(CleanupRegistry::registerCustomer));
+    }
+
+    private CustomerPool() {
+    }
+
+    /**
+     * Метод получения свободного customer. Если свободных нет, пул создает новый пакет
+     *
+     * @return id customer
+     */
+    public static int lease() {
+        Integer id = available.poll();
+        while (id == null) {
+            provision();
+            id = available.poll();
+        }
+        return id;
+    }
+
+    /**
+     * Метод возврата customer в пул после теста. Идентификаторы, не выданные пулом, игнорируются
+     *
+     * @param id customer
+     */
+    public static void release(int id) {
+        if (created.contains(id)) {
+            available.add(id);
+        }
+    }
+
+    /**
+     * Метод создания пакета customer одним запросом
+     */
+    private static synchronized void provision() {
+        if (!available.isEmpty()) {
+            return;
+        }
+        int size = Math.max(1, config.customerPoolSize());
+        List<String> logins = new ArrayList<>(size);
+        List<String> emails = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            logins.add(getCustomerRandomNickName());
+            emails.add(getCustomerRandomEmail());
+        }
+        List<Integer> ids = Repositories.orders().createCustomers(logins, emails);
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("Не удалось создать customer для пула");
+        }
+        created.addAll(ids);
+        available.addAll(ids);
+    }
+}
@@ -0,0 +1,210 @@
+package database;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import config.BaseConfig;
+import org.aeonbits.owner.ConfigCache;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Класс общего ограниченного пула подключений к БД для всех классов *SqlSteps
+ */
+public final class DataBasePool {
+
+    /**
+     * Экземпляр конфигурации
+     */
+    private static final BaseConfig config = ConfigCache.getOrCreate(BaseConfig.class, System.getenv());
+
+    /**
+     * Имя пула, под которым он отображается в логах и метриках
+     */
+    private static final String POOL_NAME = "test-db-pool";
+
+    /**
+     * Метрики ожидания подключения из пула
+     */
+    private static final LongAdder borrowCount = new LongAdder();
+    private static final LongAdder borrowWaitNanos = new LongAdder();
+    private static final AtomicLong borrowWaitMaxNanos = new AtomicLong();
+    private static final LongAdder borrowTimeouts = new LongAdder();
+
+    /**
+     * Снимок состояния пула (active/idle/pending), обновляется самим пулом
+     */
+    private static volatile PoolStats poolStats;
+
+    /**
+     * Источник данных с пулом подключений, создается при первом обращении
+     */
+    private static volatile HikariDataSource dataSource;
+
+    /**
+     * Действия, которые должны выполниться с доступом к БД до закрытия пула при завершении JVM
+     */
+    private static final List<Runnable> beforeShutdownActions = new CopyOnWriteArrayList<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(DataBasePool::shutdown, POOL_NAME + "-shutdown"));
+    }
+
+    private DataBasePool() {
+    }
+
+    /**
+     * Метод регистрации действия, выполняемого при завершении JVM до закрытия пула (действия выполняются по порядку регистрации)
+     *
+     * @param action действие с доступом к БД
+     */
+    public static void beforeShutdown(Runnable action) {
+        beforeShutdownActions.add(action);
+    }
+
+    /**
+     * Метод получения подключения из пула. Подключение возвращается в пул вызовом close()
+     *
+     * @return экземпляр подключения
+     */
+    public static Connection getConnection() {
+        try {
+            return dataSource().getConnection();
+        } catch (SQLException e) {
+            System.err.println("Database connection failed: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Failed to establish database connection", e);
+        }
+    }
+
+    /**
+     * Метод закрытия всех подключений пула, например перед пересозданием базы. Занятые подключения закрываются
+     * при возврате в пул, новые подключения пул открывает при следующем обращении
+     */
+    public static void evictConnections() {
+        HikariDataSource result = dataSource;
+        if (result != null && result.getHikariPoolMXBean() != null) {
+            result.getHikariPoolMXBean().softEvictConnections();
+        }
+    }
+
+    /**
+     * Метод ленивой инициализации пула подключений
+     *
+     * @return источник данных с пулом
+     */
+    private static HikariDataSource dataSource() {
+        HikariDataSource result = dataSource;
+        if (result == null) {
+            synchronized (DataBasePool.class) {
+                result = dataSource;
+                if (result == null) {
+                    result = createDataSource();
+                    dataSource = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Метод создания источника данных по параметрам из config.properties
+     *
+     * @return источник данных с пулом
+     */
+    private static HikariDataSource createDataSource() {
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setPoolName(POOL_NAME);
+        hikariConfig.setDriverClassName(config.driverDb());
+        hikariConfig.setJdbcUrl(config.urlDb());
+        hikariConfig.setUsername(config.userDb());
+        hikariConfig.setPassword(config.passwordDb());
+        hikariConfig.setMinimumIdle(config.dbPoolMinIdle());
+        hikariConfig.setMaximumPoolSize(config.dbPoolMaxSize());
+        hikariConfig.setIdleTimeout(config.dbPoolIdleTimeoutMs());
+        hikariConfig.setConnectionTimeout(config.dbPoolConnectionTimeoutMs());
+        // Проверка подключения при выдаче из пула выполняется через Connection.isValid с этим таймаутом
+        hikariConfig.setValidationTimeout(config.dbPoolValidationTimeoutMs());
+        // Параметры драйвера pgjdbc: кэш серверных prepared statements на каждое подключение пула
+        // и передача строковых параметров без типа, чтобы сервер сам приводил их к uuid/int/enum колонок
+        hikariConfig.addDataSourceProperty("prepareThreshold", config.dbPrepareThreshold());
+        hikariConfig.addDataSourceProperty("preparedStatementCacheQueries", config.dbStatementCacheQueries());
+        hikariConfig.addDataSourceProperty("preparedStatementCacheSizeMiB", config.dbStatementCacheSizeMiB());
+        hikariConfig.addDataSourceProperty("stringtype", "unspecified");
+        hikariConfig.setMetricsTrackerFactory(new BorrowMetricsTrackerFactory());
+        return new HikariDataSource(hikariConfig);
+    }
+
+    /**
+     * Метод получения текущих метрик пула в виде строки для отчета
+     *
+     * @return метрики пула
+     */
+    public static String getStats() {
+        PoolStats stats = poolStats;
+        long borrows = borrowCount.sum();
+        long avgWaitMicros = borrows == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(borrowWaitNanos.sum() / borrows);
+        return String.format("DB pool [%s]: active=%d, idle=%d, pending=%d, total=%d, borrows=%d, "
+                        + "avgBorrowWait=%dus, maxBorrowWait=%dus, timeouts=%d",
+                POOL_NAME,
+                stats == null ? 0 : stats.getActiveConnections(),
+                stats == null ? 0 : stats.getIdleConnections(),
+                stats == null ? 0 : stats.getPendingThreads(),
+                stats == null ? 0 : stats.getTotalConnections(),
+                borrows,
+                avgWaitMicros,
+                TimeUnit.NANOSECONDS.toMicros(borrowWaitMaxNanos.get()),
+                borrowTimeouts.sum());
+    }
+
+    /**
+     * Метод закрытия пула с выводом итоговых метрик по завершении прогона
+     */
+    private static void shutdown() {
+        for (Runnable action : beforeShutdownActions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                System.err.println("Ошибка при завершении работы с БД: " + e.getMessage());
+            }
+        }
+        HikariDataSource result = dataSource;
+        if (result != null) {
+            System.out.println(getStats());
+            result.close();
+        }
+    }
+
+    /**
+     * Фабрика трекеров, собирающих время ожидания подключения из пула
+     */
+    private static class BorrowMetricsTrackerFactory implements MetricsTrackerFactory {
+
+        @Override
+        public IMetricsTracker create(String poolName, PoolStats stats) {
+            poolStats = stats;
+            return new IMetricsTracker() {
+
+                @Override
+                public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                    borrowCount.increment();
+                    borrowWaitNanos.add(elapsedAcquiredNanos);
+                    borrowWaitMaxNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+                }
+
+                @Override
+                public void recordConnectionTimeout() {
+                    borrowTimeouts.increment();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package database;
+
+import config.BaseConfig;
+import org.aeonbits.owner.ConfigCache;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Снимок базового состояния БД postgres_db и восстановление из него.
+ * Восстановление перед прогоном убирает записи, оставшиеся от упавших прогонов, поэтому объем данных,
+ * с которым работают тесты, не растет от запуска к запуску.
+ * Режим TRUNCATE копирует таблицы product, customer, "order", ordered_product в схему test_baseline
+ * и восстанавливает их через TRUNCATE + INSERT в одной транзакции: сервис может оставаться подключенным.
+ * Режим TEMPLATE сохраняет копию всей базы как базу-шаблон postgres_db_baseline и восстанавливает
+ * пересозданием postgres_db из шаблона: подключения сервиса к базе при этом разрываются.
+ * Снимок: ./gradlew dbSnapshot, восстановление: ./gradlew dbRestore
+ */
+public final class DatabaseSnapshot {
+
+    /**
+     * Экземпляр конфигурации
+     */
+    private static final BaseConfig config = ConfigCache.getOrCreate(BaseConfig.class, System.getenv());
+
+    /**
+     * Способы снимка и восстановления
+     */
+    public enum Mode {
+
+        /**
+         * Восстановление перед прогоном отключено
+         */
+        OFF,
+
+        /**
+         * Копия таблиц в схеме test_baseline, восстановление через TRUNCATE
+         */
+        TRUNCATE,
+
+        /**
+         * Копия базы как база-шаблон, восстановление пересозданием базы
+         */
+        TEMPLATE
+    }
+
+    /**
+     * Таблицы снимка в порядке внешних ключей (очищаются в обратном порядке)
+     */
+    private static final String[] TABLES = {"product", "customer", "\"order\"", "ordered_product"};
+
+    /**
+     * Схема с копией таблиц для режима TRUNCATE и суффикс базы-шаблона для режима TEMPLATE
+     */
+    private static final String BASELINE_SCHEMA = "test_baseline";
+    private static final String TEMPLATE_SUFFIX = "_baseline";
+
+    /**
+     * База для служебного подключения в режиме TEMPLATE (к пересоздаваемой базе подключаться нельзя)
+     */
+    private static final String MAINTENANCE_DB = "postgres";
+
+    /**
+     * Код ошибки PostgreSQL "база используется другими пользователями" и количество попыток при ней
+     */
+    private static final String OBJECT_IN_USE_STATE = "55006";
+    private static final int TEMPLATE_ATTEMPTS = 5;
+
+    /**
+     * Константы запросов в БД
+     */
+    private static final String DROP_BASELINE_SCHEMA_SQL = "DROP SCHEMA IF EXISTS " + BASELINE_SCHEMA + " CASCADE";
+    private static final String CREATE_BASELINE_SCHEMA_SQL = "CREATE SCHEMA " + BASELINE_SCHEMA;
+    private static final String COPY_TO_BASELINE_SQL = "CREATE TABLE " + BASELINE_SCHEMA + ".%1$s AS TABLE public.%1$s";
+    private static final String COUNT_BASELINE_TABLES_SQL = "SELECT count(*) FROM information_schema.tables WHERE table_schema = ?";
+    private static final String TRUNCATE_SQL = "TRUNCATE ordered_product, \"order\", customer, product";
+    private static final String RESTORE_FROM_BASELINE_SQL = "INSERT INTO public.%1$s OVERRIDING SYSTEM VALUE SELECT * FROM " + BASELINE_SCHEMA + ".%1$s";
+    private static final String ANALYZE_SQL = "ANALYZE public.%s";
+    private static final String DATABASE_EXISTS_SQL = "SELECT 1 FROM pg_database WHERE datname = ?";
+    private static final String TERMINATE_BACKENDS_SQL = "SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE datname = ? AND pid <> pg_backend_pid()";
+    private static final String DROP_DATABASE_SQL = "DROP DATABASE IF EXISTS \"%s\"";
+    private static final String DROP_DATABASE_FORCE_SQL = "DROP DATABASE IF EXISTS \"%s\" WITH (FORCE)";
+    private static final String CREATE_DATABASE_FROM_TEMPLATE_SQL = "CREATE DATABASE \"%s\" TEMPLATE \"%s\"";
+
+    private DatabaseSnapshot() {
+    }
+
+    /**
+     * Метод сохранения текущего состояния БД как базового
+     *
+     * @param mode способ снимка
+     */
+    public static void capture(Mode mode) {
+        long start = System.nanoTime();
+        try {
+            if (mode == Mode.TEMPLATE) {
+                captureTemplate();
+            } else if (mode == Mode.TRUNCATE) {
+                captureTables();
+            } else {
+                return;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to capture database baseline", e);
+        }
+        System.out.printf("DB snapshot: baseline captured (%s) in %d ms%n", mode, elapsedMs(start));
+    }
+
+    /**
+     * Метод восстановления БД из базового состояния
+     *
+     * @param mode способ восстановления
+     * @return время восстановления в миллисекундах или -1, если базовое состояние не сохранено
+     */
+    public static long restore(Mode mode) {
+        long start = System.nanoTime();
+        try {
+            boolean restored;
+            if (mode == Mode.TEMPLATE) {
+                restored = restoreTemplate();
+            } else if (mode == Mode.TRUNCATE) {
+                restored = restoreTables();
+            } else {
+                return -1;
+            }
+            if (!restored) {
+                System.err.println("DB snapshot: baseline (" + mode + ") not found, restore skipped. Capture it with ./gradlew dbSnapshot");
+                return -1;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to restore database baseline", e);
+        }
+        long elapsed = elapsedMs(start);
+        System.out.printf("DB snapshot: restored from baseline (%s) in %d ms%n", mode, elapsed);
+        return elapsed;
+    }
+
+    /**
+     * Метод копирования таблиц в схему test_baseline в одной транзакции
+     *
+     * @throws SQLException если ошибки при копировании
+     */
+    private static void captureTables() throws SQLException {
+        try (Connection connection = DataBasePool.getConnection()) {
+            inTransaction(connection, () -> {
+                SqlRunner.update(connection, DROP_BASELINE_SCHEMA_SQL);
+                SqlRunner.update(connection, CREATE_BASELINE_SCHEMA_SQL);
+                for (String table : TABLES) {
+                    SqlRunner.update(connection, String.format(COPY_TO_BASELINE_SQL, table));
+                }
+            });
+        }
+    }
+
+    /**
+     * Метод восстановления таблиц из схемы test_baseline в одной транзакции
+     *
+     * @return false, если копии таблиц нет
+     * @throws SQLException если ошибки при восстановлении
+     */
+    private static boolean restoreTables() throws SQLException {
+        try (Connection connection = DataBasePool.getConnection()) {
+            Long tables = SqlRunner.queryOne(connection, COUNT_BASELINE_TABLES_SQL, result -> result.getLong(1), BASELINE_SCHEMA);
+            if (tables == null || tables < TABLES.length) {
+                return false;
+            }
+            inTransaction(connection, () -> {
+                SqlRunner.update(connection, TRUNCATE_SQL);
+                for (String table : TABLES) {
+                    SqlRunner.update(connection, String.format(RESTORE_FROM_BASELINE_SQL, table));
+                }
+                for (String table : TABLES) {
+                    SqlRunner.update(connection, String.format(ANALYZE_SQL, table));
+                }
+            });
+            return true;
+        }
+    }
+
+    /**
+     * Метод сохранения базы как базы-шаблона. CREATE DATABASE ... TEMPLATE требует, чтобы к исходной базе
+     * никто не был подключен, поэтому подключения разрываются, а при повторном подключении сервиса попытка повторяется
+     *
+     * @throws SQLException если ошибки при создании шаблона
+     */
+    private static void captureTemplate() throws SQLException {
+        String database = databaseName();
+        try (Connection connection = maintenanceConnection()) {
+            SqlRunner.update(connection, String.format(DROP_DATABASE_SQL, database + TEMPLATE_SUFFIX));
+            for (int attempt = 1; ; attempt++) {
+                SqlRunner.queryList(connection, TERMINATE_BACKENDS_SQL, result -> result.getBoolean(1), database);
+                try {
+                    SqlRunner.update(connection, String.format(CREATE_DATABASE_FROM_TEMPLATE_SQL, database + TEMPLATE_SUFFIX, database));
+                    return;
+                } catch (SQLException e) {
+                    if (!OBJECT_IN_USE_STATE.equals(e.getSQLState()) || attempt == TEMPLATE_ATTEMPTS) {
+                        throw e;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Метод пересоздания базы из базы-шаблона
+     *
+     * @return false, если базы-шаблона нет
+     * @throws SQLException если ошибки при пересоздании
+     */
+    private static boolean restoreTemplate() throws SQLException {
+        String database = databaseName();
+        try (Connection connection = maintenanceConnection()) {
+            if (SqlRunner.queryOne(connection, DATABASE_EXISTS_SQL, result -> result.getInt(1), database + TEMPLATE_SUFFIX) == null) {
+                return false;
+            }
+            DataBasePool.evictConnections();
+            SqlRunner.update(connection, String.format(DROP_DATABASE_FORCE_SQL, database));
+            SqlRunner.update(connection, String.format(CREATE_DATABASE_FROM_TEMPLATE_SQL, database, database + TEMPLATE_SUFFIX));
+            return true;
+        }
+    }
+
+    /**
+     * Метод выполнения действий в одной транзакции
+     *
+     * @throws SQLException если транзакция откатилась
+     */
+    private static void inTransaction(Connection connection, SqlAction action) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            action.run();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Метод получения служебного подключения вне пула к базе postgres
+     *
+     * @return экземпляр подключения
+     * @throws SQLException если ошибки при подключении
+     */
+    private static Connection maintenanceConnection() throws SQLException {
+        String url = config.urlDb();
+        int nameStart = url.lastIndexOf('/') + 1;
+        int nameEnd = url.indexOf('?', nameStart);
+        String maintenanceUrl = url.substring(0, nameStart) + MAINTENANCE_DB + (nameEnd < 0 ? "" : url.substring(nameEnd));
+        return DriverManager.getConnection(maintenanceUrl, config.userDb(), config.passwordDb());
+    }
+
+    /**
+     * Метод получения имени тестовой базы из urlDb
+     *
+     * @return имя базы
+     */
+    private static String databaseName() {
+        String url = config.urlDb();
+        int nameStart = url.lastIndexOf('/') + 1;
+        int nameEnd = url.indexOf('?', nameStart);
+        return nameEnd < 0 ? url.substring(nameStart) : url.substring(nameStart, nameEnd);
+    }
+
+    private static long elapsedMs(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * Действие с БД внутри транзакции
+     */
+    @FunctionalInterface
+    private interface SqlAction {
+
+        void run() throws SQLException;
+    }
+
+    /**
+     * Точка входа для запуска из Gradle
+     *
+     * @param args "snapshot [mode]" или "restore [mode]", по умолчанию режим из dbSnapshotMode
+     */
+    public static void main(String[] args) {
+        Mode mode = args.length > 1 ? Mode.valueOf(args[1].toUpperCase()) : config.dbSnapshotMode();
+        if (mode == Mode.OFF) {
+            mode = Mode.TRUNCATE;
+        }
+        if (args.length >= 1 && "snapshot".equals(args[0])) {
+            capture(mode);
+        } else if (args.length >= 1 && "restore".equals(args[0])) {
+            restore(mode);
+        } else {
+            System.err.println("Usage: DatabaseSnapshot snapshot|restore [truncate|template]");
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+}
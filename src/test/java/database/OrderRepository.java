@@ -0,0 +1,119 @@
+package database;
+
+import dto.product.ProductCreateRequest;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Хранилище данных сущностей order и customer для проверок и подготовки тестов.
+ * Реализации: OrderSqlSteps (PostgreSQL) и stub.InMemoryOrderRepository (данные заглушки склада),
+ * экземпляр для текущего профиля возвращает Repositories.orders()
+ */
+public interface OrderRepository {
+
+    /**
+     * Метод получения данных order вместе с составом заказа
+     *
+     * @param id идентификатор заказа
+     * @return экзепляр с необходимыми полями, null если заказа нет
+     */
+    OrderBDModel getOrderBDModel(String id);
+
+    /**
+     * Метод получения данных нескольких order вместе с составом заказов
+     *
+     * @param ids идентификаторы заказов
+     * @return заказы по идентификатору, отсутствующие заказы в результат не попадают
+     */
+    Map<String, OrderBDModel> getOrderBDModels(Collection<String> ids);
+
+    /**
+     * Метод получения количества продукта в позиции заказа
+     *
+     * @return qty, null если позиции нет
+     */
+    Integer getQtyProductOrder(String order_id, String product_id);
+
+    /**
+     * Метод удаления order вместе с позициями
+     *
+     * @param id заказа
+     */
+    void deleteOrder(String id);
+
+    /**
+     * Метод получения статуса заказа
+     *
+     * @param id заказа
+     * @return status
+     */
+    String getStatusOrder(String id);
+
+    /**
+     * Метод проверки наличия позиций заказа
+     *
+     * @param id заказа
+     * @return если позиции есть, то значение, отличное от null, иначе null
+     */
+    String availabilityCheckOrder(String id);
+
+    /**
+     * Метод получения количества, зарезервированного заказами в статусе CREATED, по продуктам
+     *
+     * @param ids идентификаторы заказов
+     * @return сумма qty позиций по id продукта, продукты без резерва в результат не попадают
+     * @throws RuntimeException если запрос не выполнен
+     */
+    Map<String, BigDecimal> getReservedQtyByProduct(Collection<String> ids);
+
+    /**
+     * Метод поиска отмененных заказов, у которых остались позиции (как availabilityCheckOrder, но для всех заказов
+     * с указанными продуктами одним запросом)
+     *
+     * @param productIds идентификаторы продуктов
+     * @return количество оставшихся позиций по id заказа, пустой результат если таких заказов нет
+     * @throws RuntimeException если запрос не выполнен
+     */
+    Map<String, Integer> findCancelledOrdersWithLines(Collection<String> productIds);
+
+    /**
+     * Метод создания customer
+     *
+     * @return id customer если создался, если нет то null
+     */
+    Integer createCustomer(String login, String email);
+
+    /**
+     * Метод создания нескольких customer
+     *
+     * @param logins логины customer
+     * @param emails email customer, по одному на каждый логин
+     * @return id созданных customer
+     */
+    List<Integer> createCustomers(List<String> logins, List<String> emails);
+
+    /**
+     * Метод удаления customer
+     *
+     * @param id customer
+     */
+    void deleteCustomer(int id);
+
+    /**
+     * Метод создания заказа вместе с продуктами и customer, минуя API.
+     * Первые lineQty.size() продуктов образуют позиции заказа, их количество уменьшается на зарезервированное
+     *
+     * @param orderId         id заказа
+     * @param login           логин customer
+     * @param email           email customer
+     * @param deliveryAddress адрес доставки
+     * @param products        данные продуктов
+     * @param lineQty         количество продукта в каждой позиции заказа
+     * @return id созданных customer и продуктов, null при ошибке
+     */
+    SeededOrderBDModel seedOrder(String orderId, String login, String email, String deliveryAddress,
+                                 List<ProductCreateRequest> products, List<Integer> lineQty);
+}
@@ -1,112 +1,168 @@
 package database;
 
 import config.BaseConfig;
-import org.aeonbits.owner.ConfigFactory;
+import dto.product.ProductCreateRequest;
+import org.aeonbits.owner.ConfigCache;
 
-import java.sql.*;
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static helpers.DataHelper.STATUS_ORDER_CANCELLED;
+import static helpers.DataHelper.STATUS_ORDER_CREATED;
 
 /**
- * Класс с методами для взаимодействия с БД сущности order
+ * Класс с методами для взаимодействия с БД сущности order: реализация OrderRepository для PostgreSQL
  */
-public class OrderSqlSteps {
+public class OrderSqlSteps implements OrderRepository {
 
     /**
      * Экземпляр конфигурации
      */
-    private static final BaseConfig config = ConfigFactory.create(BaseConfig.class, System.getenv());
+    private static final BaseConfig config = ConfigCache.getOrCreate(BaseConfig.class, System.getenv());
 
     /**
      * Константы полей из БД
      */
     private static final String ORDER_ID_FIELD = "id";
-    private static final String ORDERED_PRODUCT_ID_FIELD = "order_id ";
     private static final String CUSTOMER_ID_FIELD = "customer_id";
     private static final String ORDER_STATUS_FIELD = "status";
     private static final String ORDER_DEVILERY_ADDRESS_FIELD = "delivery_address";
     private static final String QTY_FIELD = "qty";
+    private static final String UUID_TYPE = "uuid";
     private static final String PRODUCT_ID_FIELD = "product_id";
     private static final String PRODUCT_PRICE_FIELD = "price";
     private static final String PRODUCT_NAME_FIELD = "name";
+    private static final String ARTICLE_FIELD = "article";
+    private static final String LINES_FIELD = "lines";
 
     /**
-     * Константы с запросами в БД
+     * Константы с параметризованными запросами в БД
      */
-    private static final String SELECT_ORDER_SQL = "SELECT * FROM \"order\" WHERE %s = '%s'";
-    private static final String SELECT_ORDERED_PRODUCT_SQL2 = "SELECT o.order_id, o.product_id, o.qty, o.price, p.name FROM ordered_product o INNER JOIN product p ON p.id = o.product_id WHERE %s = '%s'";
-    private static final String DELETE_ORDER_SQL = "DELETE FROM \"order\" WHERE %s = '%s'";
-    private static final String DELETE_ORDERED_PRODUCT_SQL = "DELETE FROM ordered_product WHERE %s = '%s'";
-    private static final String SELECT_ORDERED_PRODUCT_QTY_SQL = "SELECT qty FROM ordered_product WHERE order_id = '%s' AND product_id = '%s'";
-    private static final String SELECT_ORDER_PRODUCT_STATUS_SQL = "SELECT status FROM \"order\" WHERE %s = '%s'";
-    private static final String SELECT_ORDERED_PRODUCT_STATUS_SQL = "SELECT * FROM ordered_product WHERE %s = '%s'";
-    private static final String CREATE_CUSTOMER_SQL = "INSERT INTO customer (login, email) VALUES ('%s', '%s');";
-    private static final String SELECT_CUSTOMER_SQL = "SELECT id FROM customer WHERE login = '%s' AND email = '%s'";
-    private static final String DELETE_CUSTOMER_SQL = "DELETE FROM customer WHERE %s = '%s'";
+    private static final String SELECT_ORDER_SNAPSHOT_SQL = "SELECT o.id, o.customer_id, o.status, o.delivery_address, op.product_id, op.qty, op.price, p.name "
+            + "FROM \"order\" o LEFT JOIN (ordered_product op INNER JOIN product p ON p.id = op.product_id) ON op.order_id = o.id ";
+    private static final String SELECT_ORDER_SQL = SELECT_ORDER_SNAPSHOT_SQL + "WHERE o.id = ?";
+    private static final String SELECT_ORDERS_SQL = SELECT_ORDER_SNAPSHOT_SQL + "WHERE o.id = ANY(?)";
+    private static final String DELETE_ORDER_SQL = "DELETE FROM \"order\" WHERE id = ?";
+    private static final String DELETE_ORDERED_PRODUCT_SQL = "DELETE FROM ordered_product WHERE order_id = ?";
+    private static final String SELECT_ORDERED_PRODUCT_QTY_SQL = "SELECT qty FROM ordered_product WHERE order_id = ? AND product_id = ?";
+    private static final String SELECT_ORDER_PRODUCT_STATUS_SQL = "SELECT status FROM \"order\" WHERE id = ?";
+    private static final String SELECT_ORDERED_PRODUCT_STATUS_SQL = "SELECT id FROM ordered_product WHERE order_id = ?";
+    private static final String CREATE_CUSTOMER_SQL = "INSERT INTO customer (login, email) VALUES (?, ?) RETURNING id";
+    private static final String CREATE_CUSTOMERS_SQL = "INSERT INTO customer (login, email) VALUES %s RETURNING id";
+    private static final String CUSTOMER_VALUES_SQL = "(?, ?)";
+    private static final String DELETE_CUSTOMER_SQL = "DELETE FROM customer WHERE id = ?";
+    private static final String SELECT_RESERVED_QTY_SQL = "SELECT op.product_id, SUM(op.qty) AS qty FROM ordered_product op "
+            + "INNER JOIN \"order\" o ON o.id = op.order_id WHERE o.status = ? AND op.order_id = ANY(?) GROUP BY op.product_id";
+    private static final String SELECT_CANCELLED_ORDER_LINES_SQL = "SELECT op.order_id AS id, COUNT(*) AS lines FROM ordered_product op "
+            + "INNER JOIN \"order\" o ON o.id = op.order_id WHERE o.status = ? AND op.product_id = ANY(?) GROUP BY op.order_id";
+    private static final String SEED_ORDER_SQL = "WITH p AS (INSERT INTO product (name, article, dictionary, category, price, qty) VALUES %s RETURNING id, article, price), "
+            + "l (article, qty) AS (VALUES %s), "
+            + "c AS (INSERT INTO customer (login, email) VALUES (?, ?) RETURNING id), "
+            + "o AS (INSERT INTO \"order\" (id, customer_id, status, delivery_address) VALUES (?, (SELECT id FROM c), ?, ?) RETURNING id), "
+            + "op AS (INSERT INTO ordered_product (order_id, product_id, qty, price) "
+            + "SELECT o.id, p.id, l.qty, p.price FROM o CROSS JOIN l JOIN p ON p.article::text = l.article) "
+            + "SELECT p.id, p.article::text AS article, c.id AS customer_id FROM p CROSS JOIN c";
+    private static final String ORDER_LINE_VALUES_SQL = "(?, CAST(? AS integer))";
 
     /**
-     * Метод открытия подключения к базе данных
+     * Метод получения подключения к базе данных из общего пула
      *
-     * @return экземпляр подключения
+     * @return экземпляр подключения, возвращается в пул вызовом close()
      */
     public static Connection getConnection() {
-        try {
-            Class.forName(config.driverDb());
-            return DriverManager.getConnection(config.urlDb(), config.userDb(), config.passwordDb());
-        } catch (ClassNotFoundException e) {
-            System.err.println("Database driver not found: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Failed to load database driver", e);
-        } catch (SQLException e) {
-            System.err.println("Database connection failed: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Failed to establish database connection", e);
-        }
+        return DataBasePool.getConnection();
     }
 
     /**
-     * Метод запроса в БД для получения данных order
+     * Метод запроса в БД для получения данных order вместе с составом заказа за один запрос
      *
-     * @param id идентификатор поля, которое удаляем
+     * @param id идентификатор заказа
      * @return экзепляр с необходимыми полями
      */
+    @Override
     public OrderBDModel getOrderBDModel(String id) {
-        OrderBDModel order = null;
+        Map<String, OrderBDModel> orders = new LinkedHashMap<>();
         try (Connection connection = getConnection()) {
+            SqlRunner.forEach(connection, SELECT_ORDER_SQL, result -> readOrderRow(result, orders), id);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return orders.get(id);
+    }
 
-            try (Statement orderStmt = connection.createStatement();
-                 ResultSet result = orderStmt.executeQuery(String.format(SELECT_ORDER_SQL, ORDER_ID_FIELD, id))) {
-
-                if (result.next()) {
-                    order = OrderBDModel.builder()
-                            .order_id(result.getString(ORDER_ID_FIELD))
-                            .customer_id(result.getString(CUSTOMER_ID_FIELD))
-                            .status(result.getString(ORDER_STATUS_FIELD))
-                            .deliveryAddress(result.getString(ORDER_DEVILERY_ADDRESS_FIELD))
-                            .products(new ArrayList<>())
-                            .build();
-                }
-            }
-
-            if (order != null) {
-                try (Statement productsStmt = connection.createStatement();
-                     ResultSet productsResult = productsStmt.executeQuery(String.format(SELECT_ORDERED_PRODUCT_SQL2, ORDERED_PRODUCT_ID_FIELD, id))) {
-
-                    while (productsResult.next()) {
-                        OrderBDModel.OrderProduct product = OrderBDModel.OrderProduct.builder()
-                                .id(productsResult.getString(PRODUCT_ID_FIELD))
-                                .qty(productsResult.getBigDecimal(QTY_FIELD).intValue())
-                                .price(productsResult.getBigDecimal(PRODUCT_PRICE_FIELD))
-                                .name(productsResult.getString(PRODUCT_NAME_FIELD))
-                                .build();
-
-                        order.getProducts().add(product);
-                    }
+    /**
+     * Метод запроса в БД для получения данных нескольких order вместе с составом заказов.
+     * Идентификаторы отправляются пакетами по dbBulkChunkSize в запросе WHERE o.id = ANY(?) на одном подключении,
+     * все строки заказа попадают в пакет с его id
+     *
+     * @param ids идентификаторы заказов
+     * @return заказы по идентификатору, отсутствующие в БД заказы в результат не попадают
+     */
+    @Override
+    public Map<String, OrderBDModel> getOrderBDModels(Collection<String> ids) {
+        Map<String, OrderBDModel> orders = new LinkedHashMap<>();
+        if (ids.isEmpty()) {
+            return orders;
+        }
+        List<String> idList = new ArrayList<>(new LinkedHashSet<>(ids));
+        int chunkSize = Math.max(1, config.dbBulkChunkSize());
+        try (Connection connection = getConnection()) {
+            for (int from = 0; from < idList.size(); from += chunkSize) {
+                List<String> chunk = idList.subList(from, Math.min(from + chunkSize, idList.size()));
+                Array idsArray = connection.createArrayOf(UUID_TYPE, chunk.toArray());
+                try {
+                    SqlRunner.forEach(connection, SELECT_ORDERS_SQL, result -> readOrderRow(result, orders), idsArray);
+                } finally {
+                    idsArray.free();
                 }
             }
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return order;
+        return orders;
+    }
+
+    /**
+     * Метод разбора строки заказа: первая строка заказа создает OrderBDModel, каждая строка добавляет позицию
+     *
+     * @param result результат запроса, установленный на строку
+     * @param orders уже прочитанные заказы
+     * @throws SQLException если ошибки при чтении полей
+     */
+    public static void readOrderRow(ResultSet result, Map<String, OrderBDModel> orders) throws SQLException {
+        String orderId = result.getString(ORDER_ID_FIELD);
+        OrderBDModel order = orders.get(orderId);
+        if (order == null) {
+            order = OrderBDModel.builder()
+                    .order_id(orderId)
+                    .customer_id(result.getString(CUSTOMER_ID_FIELD))
+                    .status(result.getString(ORDER_STATUS_FIELD))
+                    .deliveryAddress(result.getString(ORDER_DEVILERY_ADDRESS_FIELD))
+                    .products(new ArrayList<>())
+                    .build();
+            orders.put(orderId, order);
+        }
+        String productId = result.getString(PRODUCT_ID_FIELD);
+        if (productId != null) {
+            order.getProducts().add(OrderBDModel.OrderProduct.builder()
+                    .id(productId)
+                    .qty(result.getBigDecimal(QTY_FIELD).intValue())
+                    .price(result.getBigDecimal(PRODUCT_PRICE_FIELD))
+                    .name(result.getString(PRODUCT_NAME_FIELD))
+                    .build());
+        }
     }
 
     /**
@@ -114,13 +170,10 @@ public class OrderSqlSteps {
      *
      * @return qty
      */
+    @Override
     public Integer getQtyProductOrder(String order_id, String product_id) {
-        try (Connection connection = getConnection();
-             Statement stmt = connection.createStatement()) {
-            ResultSet result = stmt.executeQuery(String.format(SELECT_ORDERED_PRODUCT_QTY_SQL, order_id, product_id));
-            if (result.next()) {
-                return result.getInt("qty");
-            }
+        try (Connection connection = getConnection()) {
+            return SqlRunner.queryOne(connection, SELECT_ORDERED_PRODUCT_QTY_SQL, result -> result.getInt(QTY_FIELD), order_id, product_id);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -132,11 +185,11 @@ public class OrderSqlSteps {
      *
      * @param id идентификатор поля, которое удаляем
      */
+    @Override
     public void deleteOrder(String id) {
-        try (Connection connection = getConnection();
-             Statement stmt = connection.createStatement()) {
-            stmt.executeUpdate(String.format(DELETE_ORDERED_PRODUCT_SQL, ORDERED_PRODUCT_ID_FIELD, id));
-            stmt.executeUpdate(String.format(DELETE_ORDER_SQL, ORDER_ID_FIELD, id));
+        try (Connection connection = getConnection()) {
+            SqlRunner.update(connection, DELETE_ORDERED_PRODUCT_SQL, id);
+            SqlRunner.update(connection, DELETE_ORDER_SQL, id);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -148,13 +201,10 @@ public class OrderSqlSteps {
      * @param id заказа
      * @return status
      */
+    @Override
     public String getStatusOrder(String id) {
-        try (Connection connection = getConnection();
-             Statement stmt = connection.createStatement()) {
-            ResultSet result = stmt.executeQuery(String.format(SELECT_ORDER_PRODUCT_STATUS_SQL, ORDER_ID_FIELD, id));
-            if (result.next()) {
-                return result.getString("status");
-            }
+        try (Connection connection = getConnection()) {
+            return SqlRunner.queryOne(connection, SELECT_ORDER_PRODUCT_STATUS_SQL, result -> result.getString(ORDER_STATUS_FIELD), id);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -167,13 +217,10 @@ public class OrderSqlSteps {
      * @param id заказа
      * @return если не удалился, то id, если удалился, то null
      */
+    @Override
     public String availabilityCheckOrder(String id) {
-        try (Connection connection = getConnection();
-             Statement stmt = connection.createStatement()) {
-            ResultSet result = stmt.executeQuery(String.format(SELECT_ORDERED_PRODUCT_STATUS_SQL, ORDERED_PRODUCT_ID_FIELD, id));
-            if (result.next()) {
-                return result.getString("id");
-            }
+        try (Connection connection = getConnection()) {
+            return SqlRunner.queryOne(connection, SELECT_ORDERED_PRODUCT_STATUS_SQL, result -> result.getString(ORDER_ID_FIELD), id);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -187,31 +234,167 @@ public class OrderSqlSteps {
      * @param email
      * @return id customer если создался, если нет то null
      */
+    @Override
     public Integer createCustomer(String login, String email) {
-        try (Connection connection = getConnection();
-             Statement stmt = connection.createStatement()) {
-            stmt.executeUpdate(String.format(CREATE_CUSTOMER_SQL, login, email));
-            ResultSet result = stmt.executeQuery(String.format(SELECT_CUSTOMER_SQL, login, email));
-            if (result.next()) {
-                return result.getInt("id");
-            }
+        try (Connection connection = getConnection()) {
+            return SqlRunner.queryOne(connection, CREATE_CUSTOMER_SQL, result -> result.getInt(ORDER_ID_FIELD), login, email);
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return null;
     }
 
+    /**
+     * Метод создания нескольких customer одним многострочным запросом
+     *
+     * @param logins логины customer
+     * @param emails email customer, по одному на каждый логин
+     * @return id созданных customer
+     */
+    @Override
+    public List<Integer> createCustomers(List<String> logins, List<String> emails) {
+        if (logins.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String sql = String.format(CREATE_CUSTOMERS_SQL, String.join(", ", Collections.nCopies(logins.size(), CUSTOMER_VALUES_SQL)));
+        Object[] params = new Object[logins.size() * 2];
+        for (int i = 0; i < logins.size(); i++) {
+            params[i * 2] = logins.get(i);
+            params[i * 2 + 1] = emails.get(i);
+        }
+        try (Connection connection = getConnection()) {
+            return SqlRunner.queryList(connection, sql, result -> result.getInt(ORDER_ID_FIELD), params);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return new ArrayList<>();
+    }
+
     /**
      * Метод удаления customer
      *
      * @param id customer
      */
+    @Override
     public void deleteCustomer(int id) {
-        try (Connection connection = getConnection();
-             Statement stmt = connection.createStatement()) {
-            stmt.executeUpdate(String.format(DELETE_CUSTOMER_SQL, ORDER_ID_FIELD, id));
+        try (Connection connection = getConnection()) {
+            SqlRunner.update(connection, DELETE_CUSTOMER_SQL, id);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Метод запроса в БД количества, зарезервированного заказами CREATED: агрегирующий запрос на пакет
+     * из dbBulkChunkSize заказов, суммы пакетов складываются
+     *
+     * @param ids идентификаторы заказов
+     * @return сумма qty позиций по id продукта
+     */
+    @Override
+    public Map<String, BigDecimal> getReservedQtyByProduct(Collection<String> ids) {
+        Map<String, BigDecimal> reserved = new HashMap<>();
+        forEachChunk(ids, SELECT_RESERVED_QTY_SQL, STATUS_ORDER_CREATED,
+                result -> reserved.merge(result.getString(PRODUCT_ID_FIELD), result.getBigDecimal(QTY_FIELD), BigDecimal::add),
+                "Failed to read reserved qty");
+        return reserved;
+    }
+
+    /**
+     * Метод поиска в БД отмененных заказов с оставшимися строками ordered_product: агрегирующий запрос на пакет
+     * из dbBulkChunkSize продуктов, количества позиций пакетов складываются
+     *
+     * @param productIds идентификаторы продуктов
+     * @return количество оставшихся позиций по id заказа
+     */
+    @Override
+    public Map<String, Integer> findCancelledOrdersWithLines(Collection<String> productIds) {
+        Map<String, Integer> orders = new HashMap<>();
+        forEachChunk(productIds, SELECT_CANCELLED_ORDER_LINES_SQL, STATUS_ORDER_CANCELLED,
+                result -> orders.merge(result.getString(ORDER_ID_FIELD), result.getInt(LINES_FIELD), Integer::sum),
+                "Failed to read cancelled order lines");
+        return orders;
+    }
+
+    /**
+     * Метод выполнения запроса "WHERE status = ? AND ... = ANY(?)" пакетами по dbBulkChunkSize идентификаторов
+     * на одном подключении. Ошибка запроса не превращается в пустой результат
+     *
+     * @param ids     идентификаторы
+     * @param sql     запрос с параметрами статуса и массива идентификаторов
+     * @param status  статус заказа
+     * @param handler обработка строк
+     * @param failure описание ошибки
+     */
+    private static void forEachChunk(Collection<String> ids, String sql, String status, SqlRunner.RowHandler handler, String failure) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<String> idList = new ArrayList<>(new LinkedHashSet<>(ids));
+        int chunkSize = Math.max(1, config.dbBulkChunkSize());
+        try (Connection connection = getConnection()) {
+            for (int from = 0; from < idList.size(); from += chunkSize) {
+                List<String> chunk = idList.subList(from, Math.min(from + chunkSize, idList.size()));
+                Array idsArray = connection.createArrayOf(UUID_TYPE, chunk.toArray());
+                try {
+                    SqlRunner.forEach(connection, sql, handler, status, idsArray);
+                } finally {
+                    idsArray.free();
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(failure, e);
+        }
+    }
+
+    /**
+     * Метод создания заказа напрямую в БД, минуя API: product, customer, "order" и ordered_product
+     * вставляются одним запросом, то есть в одной транзакции и за одно обращение к БД.
+     * Первые lineQty.size() продуктов образуют позиции заказа, их количество в БД уменьшается на зарезервированное,
+     * как при создании заказа через API
+     *
+     * @param orderId         id заказа (UUID генерируется на стороне теста)
+     * @param login           логин customer
+     * @param email           email customer
+     * @param deliveryAddress адрес доставки
+     * @param products        данные продуктов
+     * @param lineQty         количество продукта в каждой позиции заказа
+     * @return id созданных customer и продуктов, null при ошибке
+     */
+    @Override
+    public SeededOrderBDModel seedOrder(String orderId, String login, String email, String deliveryAddress,
+                                        List<ProductCreateRequest> products, List<Integer> lineQty) {
+        String sql = String.format(SEED_ORDER_SQL,
+                String.join(", ", Collections.nCopies(products.size(), ProductSqlSteps.PRODUCT_VALUES_SQL)),
+                String.join(", ", Collections.nCopies(lineQty.size(), ORDER_LINE_VALUES_SQL)));
+        List<Object> params = new ArrayList<>(products.size() * 6 + lineQty.size() * 2 + 5);
+        for (int i = 0; i < products.size(); i++) {
+            ProductCreateRequest product = products.get(i);
+            int reserved = i < lineQty.size() ? lineQty.get(i) : 0;
+            ProductSqlSteps.addProductParams(params, product, product.getQty() - reserved);
+        }
+        for (int i = 0; i < lineQty.size(); i++) {
+            params.add(products.get(i).getArticle());
+            params.add(lineQty.get(i));
+        }
+        params.add(login);
+        params.add(email);
+        params.add(UUID.fromString(orderId));
+        params.add(STATUS_ORDER_CREATED);
+        params.add(deliveryAddress);
+
+        Map<String, String> idsByArticle = new HashMap<>();
+        SeededOrderBDModel seeded = SeededOrderBDModel.builder().build();
+        try (Connection connection = getConnection()) {
+            SqlRunner.forEach(connection, sql, result -> {
+                idsByArticle.put(result.getString(ARTICLE_FIELD), result.getString(ORDER_ID_FIELD));
+                seeded.setCustomerId(result.getInt(CUSTOMER_ID_FIELD));
+            }, params.toArray());
         } catch (SQLException e) {
             e.printStackTrace();
+            return null;
         }
+        seeded.setProductIds(ProductSqlSteps.idsInRequestOrder(idsByArticle, products));
+        return seeded;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,91 @@
+package database;
+
+import dto.product.ProductCreateRequest;
+import helpers.UuidHashSet;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Хранилище данных сущности product для проверок и подготовки тестов.
+ * Реализации: ProductSqlSteps (PostgreSQL) и stub.InMemoryProductRepository (данные заглушки склада),
+ * экземпляр для текущего профиля возвращает Repositories.products()
+ */
+public interface ProductRepository {
+
+    /**
+     * Метод получения данных Product
+     *
+     * @param id идентификатор продукта
+     * @return экзепляр с необходимыми полями, null если продукта нет
+     */
+    ProductBDModel getProductBDModel(String id);
+
+    /**
+     * Метод получения данных нескольких Product
+     *
+     * @param ids идентификаторы продуктов
+     * @return продукты по идентификатору, отсутствующие продукты в результат не попадают
+     */
+    Map<String, ProductBDModel> getProductBDModels(Collection<String> ids);
+
+    /**
+     * Метод проверки наличия продуктов
+     *
+     * @param ids идентификаторы продуктов
+     * @return идентификаторы, которых нет в хранилище (пустой список, если есть все)
+     */
+    List<String> findMissingProductIds(Collection<String> ids);
+
+    /**
+     * Метод чтения всех id продуктов в компактное множество UUID
+     *
+     * @return множество id всех продуктов
+     */
+    UuidHashSet scanProductIds();
+
+    /**
+     * Метод удаления product
+     *
+     * @param id идентификатор продукта
+     */
+    void deleteProduct(String id);
+
+    /**
+     * Метод установки количества product
+     *
+     * @param id  идентификатор продукта
+     * @param qty количество
+     * @return количество до изменения, null если продукта нет
+     */
+    BigDecimal setProductQty(String id, int qty);
+
+    /**
+     * Метод получения остатка product вместе с количеством, зарезервированным в заказах CREATED.
+     * Для проверки сохранения товара: qty + orderedQty равно начальному остатку
+     *
+     * @param id идентификатор продукта
+     * @return остаток и резерв, null если продукта нет
+     * @throws RuntimeException если запрос не выполнен (пустой результат означал бы, что продукта нет)
+     */
+    ProductStockBDModel getProductStock(String id);
+
+    /**
+     * Метод получения остатков и резервов нескольких product
+     *
+     * @param ids идентификаторы продуктов
+     * @return остаток и резерв по идентификатору, отсутствующие продукты в результат не попадают
+     * @throws RuntimeException если запрос не выполнен
+     */
+    Map<String, ProductStockBDModel> getProductStocks(Collection<String> ids);
+
+    /**
+     * Метод создания нескольких product напрямую, минуя API
+     *
+     * @param requests данные продуктов
+     * @return id созданных продуктов в порядке запросов, пустой список при ошибке
+     */
+    List<String> createProducts(List<ProductCreateRequest> requests);
+}
@@ -0,0 +1,245 @@
+package database;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static helpers.DataHelper.CATEGORY_PRODUCT;
+import static helpers.DataHelper.NAME_PRODUCT;
+
+/**
+ * Генератор каталога product для нагрузочных проверок.
+ * Строки генерируются детерминированно по seed и номеру строки и передаются в БД через COPY ... FROM STDIN (CSV)
+ * в несколько потоков. Строки помечаются тегом в артикуле (UUID): первая группа - хэш тега, последняя начинается
+ * с маркера SEED_MARKER, поэтому поле dictionary остается обычным значением, а строки удаляются одним запросом по артикулу.
+ * Запуск: ./gradlew seedProducts -Prows=100000 -Pthreads=4 -Pseed=42 -Ptag=scale,
+ * удаление: ./gradlew purgeSeededProducts -Ptag=scale
+ */
+public final class ProductSeeder {
+
+    /**
+     * Константы запросов в БД
+     */
+    private static final String COPY_PRODUCT_SQL = "COPY product (name, article, dictionary, category, price, qty) FROM STDIN WITH (FORMAT csv)";
+    private static final String DELETE_SEEDED_ORDERED_PRODUCT_SQL = "DELETE FROM ordered_product WHERE product_id IN (SELECT id FROM product WHERE article::text LIKE ?)";
+    private static final String DELETE_SEEDED_PRODUCT_SQL = "DELETE FROM product WHERE article::text LIKE ?";
+
+    /**
+     * Маркер сгенерированного каталога в последней группе UUID артикула (отличается от TestRun.ARTICLE_MARKER,
+     * поэтому TestDataSweeper каталог не удаляет)
+     */
+    public static final String SEED_MARKER = "5eedda7a";
+
+    /**
+     * Шаблон dictionary: группы строчных латинских букв, как DataHelper.DICTIONARY_PRODUCT
+     */
+    private static final int[] DICTIONARY_WORDS = {8, 6, 4};
+
+    /**
+     * Размер буфера, после заполнения которого данные отправляются в COPY
+     */
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Множитель для перемешивания номера строки с seed (золотое сечение, 64 бита)
+     */
+    private static final long ROW_MIX = 0x9E3779B97F4A7C15L;
+
+    private ProductSeeder() {
+    }
+
+    /**
+     * Метод наполнения таблицы product сгенерированными строками
+     *
+     * @param rows    количество строк
+     * @param threads количество параллельных потоков записи (каждый на своем подключении из DataBasePool, поэтому не больше dbPoolMaxSize)
+     * @param seed    seed генерации: одинаковые seed и rows дают одинаковые строки при любом количестве потоков
+     * @param tag     тег для последующего удаления
+     * @return количество записанных строк
+     */
+    public static long seed(long rows, int threads, long seed, String tag) {
+        int workers = (int) Math.max(1, Math.min(threads, rows));
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            long chunk = rows / workers;
+            for (int i = 0; i < workers; i++) {
+                long from = i * chunk;
+                long to = i == workers - 1 ? rows : from + chunk;
+                futures.add(executor.submit(() -> copyRange(from, to, seed, tag)));
+            }
+            long written = 0;
+            for (Future<Long> future : futures) {
+                written += future.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            System.out.printf("Seeder: %d rows with tag '%s' in %.1f s (%.0f rows/s, %d threads)%n",
+                    written, tag, seconds, written / seconds, workers);
+            return written;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Seeding interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Seeding failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Метод удаления всех строк с тегом вместе с позициями заказов, которые на них ссылаются
+     *
+     * @param tag тег
+     * @return количество удаленных product
+     */
+    public static int purge(String tag) {
+        long start = System.nanoTime();
+        try (Connection connection = DataBasePool.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                String articlePattern = tagHash(tag) + "-%-" + SEED_MARKER + "____";
+                SqlRunner.update(connection, DELETE_SEEDED_ORDERED_PRODUCT_SQL, articlePattern);
+                int deleted = SqlRunner.update(connection, DELETE_SEEDED_PRODUCT_SQL, articlePattern);
+                connection.commit();
+                System.out.printf("Seeder: purged %d rows with tag '%s' in %d ms%n",
+                        deleted, tag, (System.nanoTime() - start) / 1_000_000);
+                return deleted;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to purge seeded products", e);
+        }
+    }
+
+    /**
+     * Метод записи диапазона строк через один COPY
+     *
+     * @return количество записанных строк
+     * @throws SQLException если ошибки при записи
+     */
+    private static long copyRange(long from, long to, long seed, String tag) throws SQLException {
+        try (Connection connection = DataBasePool.getConnection()) {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            CopyIn copyIn = copyManager.copyIn(COPY_PRODUCT_SQL);
+            try {
+                StringBuilder buffer = new StringBuilder(COPY_BUFFER_SIZE + 512);
+                String tagHash = tagHash(tag);
+                for (long row = from; row < to; row++) {
+                    appendRow(buffer, row, seed, tagHash);
+                    if (buffer.length() >= COPY_BUFFER_SIZE) {
+                        writeBuffer(copyIn, buffer);
+                    }
+                }
+                writeBuffer(copyIn, buffer);
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        }
+    }
+
+    /**
+     * Метод получения хэша тега для первой группы артикула
+     *
+     * @param tag тег
+     * @return 8 hex-символов
+     */
+    private static String tagHash(String tag) {
+        return String.format("%08x", tag.hashCode());
+    }
+
+    /**
+     * Метод генерации одной CSV-строки product, значения зависят только от seed и номера строки.
+     * Артикул: хэш тега, 58 случайных бит с битами версии 4 и варианта, маркер SEED_MARKER
+     */
+    private static void appendRow(StringBuilder buffer, long row, long seed, String tagHash) {
+        SplittableRandom random = new SplittableRandom(seed + row * ROW_MIX);
+        String article = String.format("%s-%04x-4%03x-%04x-%s%04x", tagHash,
+                random.nextInt(0x10000), random.nextInt(0x1000), 0x8000 | random.nextInt(0x4000),
+                SEED_MARKER, random.nextInt(0x10000));
+        appendCsv(buffer, NAME_PRODUCT[random.nextInt(NAME_PRODUCT.length)]).append(',')
+                .append(article).append(',');
+        appendCsv(buffer, dictionary(random)).append(',')
+                .append(CATEGORY_PRODUCT[random.nextInt(CATEGORY_PRODUCT.length)]).append(',')
+                .append(BigDecimal.valueOf(random.nextInt(1, 100000), 2).toPlainString()).append(',')
+                .append(random.nextInt(1, 1001)).append('\n');
+    }
+
+    /**
+     * Метод генерации dictionary по шаблону DICTIONARY_WORDS
+     */
+    private static String dictionary(SplittableRandom random) {
+        StringBuilder dictionary = new StringBuilder(20);
+        for (int word : DICTIONARY_WORDS) {
+            if (dictionary.length() > 0) {
+                dictionary.append(' ');
+            }
+            for (int i = 0; i < word; i++) {
+                dictionary.append((char) ('a' + random.nextInt(26)));
+            }
+        }
+        return dictionary.toString();
+    }
+
+    /**
+     * Метод добавления текстового значения в CSV в кавычках, кавычки внутри значения удваиваются
+     */
+    private static StringBuilder appendCsv(StringBuilder buffer, String value) {
+        buffer.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                buffer.append('"');
+            }
+            buffer.append(c);
+        }
+        return buffer.append('"');
+    }
+
+    /**
+     * Метод отправки накопленного буфера в COPY
+     */
+    private static void writeBuffer(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        if (buffer.length() > 0) {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+    }
+
+    /**
+     * Точка входа для запуска из Gradle
+     *
+     * @param args "seed rows threads seed tag" или "purge tag"
+     */
+    public static void main(String[] args) {
+        if (args.length == 2 && "purge".equals(args[0])) {
+            purge(args[1]);
+        } else if (args.length == 5 && "seed".equals(args[0])) {
+            seed(Long.parseLong(args[1]), Integer.parseInt(args[2]), Long.parseLong(args[3]), args[4]);
+        } else {
+            System.err.println("Usage: ProductSeeder seed <rows> <threads> <seed> <tag> | ProductSeeder purge <tag>");
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+}
@@ -1,21 +1,29 @@
 package database;
 
 import config.BaseConfig;
-import org.aeonbits.owner.ConfigFactory;
+import dto.product.ProductCreateRequest;
+import helpers.UuidHashSet;
+import org.aeonbits.owner.ConfigCache;
 
-import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+import static helpers.DataHelper.STATUS_ORDER_CREATED;
 
 /**
- * Класс с методами для взаимодействия с БД сущности product
+ * Класс с методами для взаимодействия с БД сущности product: реализация ProductRepository для PostgreSQL
  */
-public class ProductSqlSteps {
+public class ProductSqlSteps implements ProductRepository {
 
     /**
      * Экземпляр конфигурации
      */
-    private static final BaseConfig config = ConfigFactory.create(BaseConfig.class, System.getenv());
+    private static final BaseConfig config = ConfigCache.getOrCreate(BaseConfig.class, System.getenv());
 
     /**
      * Константы полей из БД
@@ -30,32 +38,33 @@ public class ProductSqlSteps {
     private static final String INSERTED_AT_FIELD = "inserted_at";
     private static final String LAST_QTY_CHANGED_FIELD = "last_qty_changed";
     private static final String IS_AVAILABLE_FIELD = "is_available";
+    private static final String ORDERED_QTY_FIELD = "ordered_qty";
+    private static final String ORDERS_FIELD = "orders";
+    private static final String UUID_TYPE = "uuid";
 
     /**
-     * Константы запросов в БД
+     * Константы параметризованных запросов в БД
      */
-    private static final String SELECT_PRODUCT_SQL = "SELECT * FROM product WHERE %s = '%s'";
+    private static final String SELECT_PRODUCT_SQL = "SELECT * FROM product WHERE id = ?";
+    private static final String SELECT_PRODUCTS_SQL = "SELECT * FROM product WHERE id = ANY(?)";
+    private static final String SELECT_EXISTING_ID_PRODUCT_SQL = "SELECT id FROM product WHERE id = ANY(?)";
     private static final String SELECT_ID_PRODUCT_SQL = "SELECT id FROM product";
-    private static final String DELETE_PRODUCT_SQL = "DELETE FROM product WHERE %s = '%s'";
+    private static final String UPDATE_QTY_PRODUCT_SQL = "UPDATE product p SET qty = ? FROM (SELECT id, qty FROM product WHERE id = ? FOR UPDATE) old "
+            + "WHERE p.id = old.id RETURNING old.qty";
+    private static final String DELETE_PRODUCT_SQL = "DELETE FROM product WHERE id = ?";
+    private static final String SELECT_PRODUCT_STOCKS_SQL = "SELECT p.id, p.qty, COALESCE(SUM(op.qty), 0) AS ordered_qty, COUNT(DISTINCT op.order_id) AS orders "
+            + "FROM product p LEFT JOIN (ordered_product op INNER JOIN \"order\" o ON o.id = op.order_id AND o.status = ?) "
+            + "ON op.product_id = p.id WHERE p.id = ANY(?) GROUP BY p.id, p.qty";
+    private static final String CREATE_PRODUCTS_SQL = "INSERT INTO product (name, article, dictionary, category, price, qty) VALUES %s RETURNING id, article";
+    static final String PRODUCT_VALUES_SQL = "(?, ?, ?, ?, ?, ?)";
 
     /**
-     * Метод открытия подключения к базе данных
+     * Метод получения подключения к базе данных из общего пула
      *
-     * @return экземпляр подключения
+     * @return экземпляр подключения, возвращается в пул вызовом close()
      */
     public static Connection getConnection() {
-        try {
-            Class.forName(config.driverDb());
-            return DriverManager.getConnection(config.urlDb(), config.userDb(), config.passwordDb());
-        } catch (ClassNotFoundException e) {
-            System.err.println("Database driver not found: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Failed to load database driver", e);
-        } catch (SQLException e) {
-            System.err.println("Database connection failed: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Failed to establish database connection", e);
-        }
+        return DataBasePool.getConnection();
     }
 
     /**
@@ -64,27 +73,10 @@ public class ProductSqlSteps {
      * @param id идентификатор поля, которое удаляем
      * @return экзепляр с необходимыми полями
      */
+    @Override
     public ProductBDModel getProductBDModel(String id) {
-        try (Connection connection = getConnection();
-             Statement stmt = connection.createStatement()) {
-            ResultSet result = stmt.executeQuery(String.format(SELECT_PRODUCT_SQL, ID_FIELD, id));
-            if (result.next()) {
-                return
-                        ProductBDModel.builder()
-                                .id(result.getString(ID_FIELD))
-                                .name(result.getString(NAME_FIELD))
-                                .article(result.getString(ARTICLE_FIELD))
-                                .dictionary(result.getString(DICTIONARY_FIELD))
-                                .category(result.getString(CATEGORY_FIELD))
-                                .price(result.getBigDecimal(PRICE_FIELD))
-                                .qty(result.getBigDecimal(QTY_FIELD))
-                                .inserted_at(result.getString(INSERTED_AT_FIELD))
-                                .last_qty_changed(result.getString(LAST_QTY_CHANGED_FIELD))
-                                //.inserted_at(result.getObject(INSERTED_AT_FIELD, LocalDateTime.class))
-                                //.last_qty_changed(result.getObject(LAST_QTY_CHANGED_FIELD, LocalDateTime.class))
-                                .is_available(result.getString(IS_AVAILABLE_FIELD))
-                                .build();
-            }
+        try (Connection connection = getConnection()) {
+            return SqlRunner.queryOne(connection, SELECT_PRODUCT_SQL, ProductSqlSteps::mapProduct, id);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -92,26 +84,121 @@ public class ProductSqlSteps {
     }
 
     /**
-     * Метод запроса в БД для получения списка продуктов
+     * Метод запроса в БД для получения данных нескольких Product.
+     * Идентификаторы отправляются пакетами по dbBulkChunkSize в запросе WHERE id = ANY(?) на одном подключении
      *
-     * @return список продуктов
+     * @param ids идентификаторы продуктов
+     * @return продукты по идентификатору, отсутствующие в БД продукты в результат не попадают
      */
-    public List<String> setSelectIdProductSql() {
-        List<String> selectIdProduct = new ArrayList<>();
-        try (Connection connection = getConnection();
-             Statement stmt = connection.createStatement()) {
+    @Override
+    public Map<String, ProductBDModel> getProductBDModels(Collection<String> ids) {
+        Map<String, ProductBDModel> products = new HashMap<>();
+        if (ids.isEmpty()) {
+            return products;
+        }
+        List<String> idList = new ArrayList<>(new LinkedHashSet<>(ids));
+        int chunkSize = Math.max(1, config.dbBulkChunkSize());
+        try (Connection connection = getConnection()) {
+            for (int from = 0; from < idList.size(); from += chunkSize) {
+                List<String> chunk = idList.subList(from, Math.min(from + chunkSize, idList.size()));
+                Array idsArray = connection.createArrayOf(UUID_TYPE, chunk.toArray());
+                try {
+                    SqlRunner.forEach(connection, SELECT_PRODUCTS_SQL, result -> {
+                        ProductBDModel product = mapProduct(result);
+                        products.put(product.getId(), product);
+                    }, idsArray);
+                } finally {
+                    idsArray.free();
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return products;
+    }
 
-            ResultSet result = stmt.executeQuery(SELECT_ID_PRODUCT_SQL);
+    /**
+     * Метод преобразования строки таблицы product в ProductBDModel
+     *
+     * @param result результат запроса, установленный на строку
+     * @return экзепляр с необходимыми полями
+     * @throws SQLException если ошибки при чтении полей
+     */
+    public static ProductBDModel mapProduct(ResultSet result) throws SQLException {
+        return ProductBDModel.builder()
+                .id(result.getString(ID_FIELD))
+                .name(result.getString(NAME_FIELD))
+                .article(result.getString(ARTICLE_FIELD))
+                .dictionary(result.getString(DICTIONARY_FIELD))
+                .category(result.getString(CATEGORY_FIELD))
+                .price(result.getBigDecimal(PRICE_FIELD))
+                .qty(result.getBigDecimal(QTY_FIELD))
+                .inserted_at(result.getString(INSERTED_AT_FIELD))
+                .last_qty_changed(result.getString(LAST_QTY_CHANGED_FIELD))
+                //.inserted_at(result.getObject(INSERTED_AT_FIELD, LocalDateTime.class))
+                //.last_qty_changed(result.getObject(LAST_QTY_CHANGED_FIELD, LocalDateTime.class))
+                .is_available(result.getString(IS_AVAILABLE_FIELD))
+                .build();
+    }
 
-            while (result.next()) {
-                String id = result.getString("id");
-                selectIdProduct.add(id);
+    /**
+     * Метод проверки наличия продуктов в БД без выгрузки каталога: проверка выполняется запросом WHERE id = ANY(?)
+     * пакетами по dbBulkChunkSize
+     *
+     * @param ids идентификаторы продуктов
+     * @return идентификаторы, которых нет в БД (пустой список, если есть все)
+     */
+    @Override
+    public List<String> findMissingProductIds(Collection<String> ids) {
+        Set<String> missing = new LinkedHashSet<>(ids);
+        if (missing.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<String> idList = new ArrayList<>(missing);
+        int chunkSize = Math.max(1, config.dbBulkChunkSize());
+        try (Connection connection = getConnection()) {
+            for (int from = 0; from < idList.size(); from += chunkSize) {
+                List<String> chunk = idList.subList(from, Math.min(from + chunkSize, idList.size()));
+                Array idsArray = connection.createArrayOf(UUID_TYPE, chunk.toArray());
+                try {
+                    SqlRunner.forEach(connection, SELECT_EXISTING_ID_PRODUCT_SQL, result -> missing.remove(result.getString(ID_FIELD)), idsArray);
+                } finally {
+                    idsArray.free();
+                }
             }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return new ArrayList<>(missing);
+    }
 
+    /**
+     * Метод потокового чтения всех id продуктов курсором БД (по dbScanFetchSize строк за запрос к серверу)
+     * в компактное множество UUID
+     *
+     * @return множество id всех продуктов
+     */
+    @Override
+    public UuidHashSet scanProductIds() {
+        UuidHashSet ids = new UuidHashSet(config.dbScanFetchSize());
+        try (Connection connection = getConnection()) {
+            // Курсор на стороне сервера в pgjdbc работает только внутри транзакции
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = connection.prepareStatement(SELECT_ID_PRODUCT_SQL)) {
+                stmt.setFetchSize(config.dbScanFetchSize());
+                try (ResultSet result = stmt.executeQuery()) {
+                    while (result.next()) {
+                        ids.add(result.getObject(1, UUID.class));
+                    }
+                }
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return selectIdProduct;
+        return ids;
     }
 
     /**
@@ -119,12 +206,140 @@ public class ProductSqlSteps {
      *
      * @param id идентификатор поля, которое удаляем
      */
+    @Override
     public void deleteProduct(String id) {
-        try (Connection connection = getConnection();
-             Statement stmt = connection.createStatement()) {
-            stmt.executeUpdate(String.format(DELETE_PRODUCT_SQL, ID_FIELD, id));
+        try (Connection connection = getConnection()) {
+            SqlRunner.update(connection, DELETE_PRODUCT_SQL, id);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Метод установки количества product в БД. Прежнее количество читается той же командой под блокировкой строки,
+     * поэтому заказ, созданный одновременно со сбросом, не теряется между чтением и записью
+     *
+     * @param id  идентификатор продукта
+     * @param qty количество
+     * @return количество до изменения, null если продукта нет
+     */
+    @Override
+    public BigDecimal setProductQty(String id, int qty) {
+        try (Connection connection = getConnection()) {
+            return SqlRunner.queryOne(connection, UPDATE_QTY_PRODUCT_SQL, result -> result.getBigDecimal(QTY_FIELD), qty, id);
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        return null;
+    }
+
+    /**
+     * Метод запроса в БД остатка product и суммы ordered_product.qty по заказам CREATED
+     *
+     * @param id идентификатор продукта
+     * @return остаток и резерв, null если продукта нет
+     */
+    @Override
+    public ProductStockBDModel getProductStock(String id) {
+        return getProductStocks(Collections.singletonList(id)).get(id);
+    }
+
+    /**
+     * Метод запроса в БД остатков и резервов нескольких product: один агрегирующий запрос WHERE id = ANY(?)
+     * на пакет из dbBulkChunkSize продуктов, остаток и резерв каждого продукта читаются из одного снимка данных.
+     * Ошибка запроса не превращается в пустой результат: иначе проверка остатков сочла бы продукты удаленными
+     *
+     * @param ids идентификаторы продуктов
+     * @return остаток и резерв по идентификатору, отсутствующие в БД продукты в результат не попадают
+     */
+    @Override
+    public Map<String, ProductStockBDModel> getProductStocks(Collection<String> ids) {
+        Map<String, ProductStockBDModel> stocks = new HashMap<>();
+        if (ids.isEmpty()) {
+            return stocks;
+        }
+        List<String> idList = new ArrayList<>(new LinkedHashSet<>(ids));
+        int chunkSize = Math.max(1, config.dbBulkChunkSize());
+        try (Connection connection = getConnection()) {
+            for (int from = 0; from < idList.size(); from += chunkSize) {
+                List<String> chunk = idList.subList(from, Math.min(from + chunkSize, idList.size()));
+                Array idsArray = connection.createArrayOf(UUID_TYPE, chunk.toArray());
+                try {
+                    SqlRunner.forEach(connection, SELECT_PRODUCT_STOCKS_SQL, result -> {
+                        ProductStockBDModel stock = ProductStockBDModel.builder()
+                                .productId(result.getString(ID_FIELD))
+                                .qty(result.getBigDecimal(QTY_FIELD))
+                                .orderedQty(result.getBigDecimal(ORDERED_QTY_FIELD))
+                                .orders(result.getInt(ORDERS_FIELD))
+                                .build();
+                        stocks.put(stock.getProductId(), stock);
+                    }, STATUS_ORDER_CREATED, idsArray);
+                } finally {
+                    idsArray.free();
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read product stocks", e);
+        }
+        return stocks;
+    }
+
+    /**
+     * Метод создания нескольких product напрямую в БД одним многострочным запросом, минуя API
+     *
+     * @param requests данные продуктов
+     * @return id созданных продуктов в порядке запросов, пустой список при ошибке
+     */
+    @Override
+    public List<String> createProducts(List<ProductCreateRequest> requests) {
+        if (requests.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String sql = String.format(CREATE_PRODUCTS_SQL, String.join(", ", Collections.nCopies(requests.size(), PRODUCT_VALUES_SQL)));
+        List<Object> params = new ArrayList<>(requests.size() * 6);
+        for (ProductCreateRequest request : requests) {
+            addProductParams(params, request, request.getQty());
+        }
+        Map<String, String> idsByArticle = new HashMap<>();
+        try (Connection connection = getConnection()) {
+            SqlRunner.forEach(connection, sql, result -> idsByArticle.put(result.getString(ARTICLE_FIELD), result.getString(ID_FIELD)),
+                    params.toArray());
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+        return idsInRequestOrder(idsByArticle, requests);
+    }
+
+    /**
+     * Метод добавления параметров одной строки PRODUCT_VALUES_SQL
+     *
+     * @param params  параметры запроса
+     * @param request данные продукта
+     * @param qty     количество продукта, записываемое в БД
+     */
+    static void addProductParams(List<Object> params, ProductCreateRequest request, int qty) {
+        params.add(request.getName());
+        params.add(request.getArticle());
+        params.add(request.getDictionary());
+        params.add(request.getCategory());
+        params.add(request.getPrice());
+        params.add(qty);
+    }
+
+    /**
+     * Метод упорядочивания id созданных продуктов по запросам: порядок строк RETURNING не гарантирован,
+     * поэтому продукты сопоставляются по уникальному артикулу
+     *
+     * @param idsByArticle id продуктов по артикулу
+     * @param requests     данные продуктов
+     * @return id продуктов в порядке запросов
+     */
+    static List<String> idsInRequestOrder(Map<String, String> idsByArticle, List<ProductCreateRequest> requests) {
+        List<String> ids = new ArrayList<>(requests.size());
+        for (ProductCreateRequest request : requests) {
+            ids.add(idsByArticle.get(request.getArticle()));
+        }
+        return ids;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package database;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO класс с остатком продукта и количеством, зарезервированным в заказах CREATED
+ */
+@Data
+@Builder
+public class ProductStockBDModel {
+
+    /**
+     * ID продукта
+     */
+    private String productId;
+
+    /**
+     * Остаток продукта (product.qty)
+     */
+    private BigDecimal qty;
+
+    /**
+     * Сумма ordered_product.qty продукта по заказам в статусе CREATED
+     */
+    private BigDecimal orderedQty;
+
+    /**
+     * Количество заказов CREATED с продуктом
+     */
+    private int orders;
+}
@@ -0,0 +1,57 @@
+package database;
+
+import config.BaseConfig;
+import org.aeonbits.owner.ConfigCache;
+import stub.InMemoryOrderRepository;
+import stub.InMemoryProductRepository;
+import stub.WarehouseStub;
+
+/**
+ * Выбор реализации хранилищ для текущего профиля: в профиле stub (warehouseStub = true) проверки читают данные
+ * заглушки склада из памяти, иначе - PostgreSQL через *SqlSteps
+ */
+public final class Repositories {
+
+    /**
+     * Экземпляр конфигурации
+     */
+    private static final BaseConfig config = ConfigCache.getOrCreate(BaseConfig.class, System.getenv());
+
+    /**
+     * Хранилища текущего профиля
+     */
+    private static final ProductRepository products = config.warehouseStub()
+            ? new InMemoryProductRepository(WarehouseStub.shared().getStore()) : new ProductSqlSteps();
+    private static final OrderRepository orders = config.warehouseStub()
+            ? new InMemoryOrderRepository(WarehouseStub.shared().getStore()) : new OrderSqlSteps();
+
+    private Repositories() {
+    }
+
+    /**
+     * Метод получения хранилища product
+     *
+     * @return хранилище текущего профиля
+     */
+    public static ProductRepository products() {
+        return products;
+    }
+
+    /**
+     * Метод получения хранилища order и customer
+     *
+     * @return хранилище текущего профиля
+     */
+    public static OrderRepository orders() {
+        return orders;
+    }
+
+    /**
+     * Метод проверки, что данные хранятся в памяти заглушки, а не в БД
+     *
+     * @return true в профиле stub
+     */
+    public static boolean inMemory() {
+        return config.warehouseStub();
+    }
+}
@@ -0,0 +1,24 @@
+package database;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO класс с идентификаторами записей, созданных в БД при подготовке заказа без обращения к API
+ */
+@Data
+@Builder
+public class SeededOrderBDModel {
+
+    /**
+     * ID созданного customer
+     */
+    private Integer customerId;
+
+    /**
+     * ID созданных продуктов в порядке переданных запросов
+     */
+    private List<String> productIds;
+}
@@ -0,0 +1,147 @@
+package database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Класс выполнения параметризованных запросов к БД через PreparedStatement.
+ * Тексты запросов неизменны между вызовами, поэтому драйвер переиспользует серверные prepared statements
+ * из кэша подключения (параметры prepareThreshold и preparedStatementCacheQueries в DataBasePool)
+ */
+public final class SqlRunner {
+
+    private SqlRunner() {
+    }
+
+    /**
+     * Интерфейс преобразования текущей строки ResultSet в объект
+     *
+     * @param <T> тип объекта
+     */
+    @FunctionalInterface
+    public interface RowMapper<T> {
+
+        /**
+         * Метод преобразования текущей строки
+         *
+         * @param result результат запроса, установленный на строку
+         * @return объект строки
+         * @throws SQLException если ошибки при чтении полей
+         */
+        T map(ResultSet result) throws SQLException;
+    }
+
+    /**
+     * Интерфейс потоковой обработки строк ResultSet без накопления промежуточного списка
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+
+        /**
+         * Метод обработки текущей строки
+         *
+         * @param result результат запроса, установленный на строку
+         * @throws SQLException если ошибки при чтении полей
+         */
+        void handle(ResultSet result) throws SQLException;
+    }
+
+    /**
+     * Метод выполнения запроса, возвращающего не более одной строки
+     *
+     * @param connection подключение к БД
+     * @param sql        запрос с параметрами "?"
+     * @param mapper     преобразование строки в объект
+     * @param params     значения параметров по порядку
+     * @param <T>        тип объекта
+     * @return объект первой строки или null, если строк нет
+     * @throws SQLException если ошибки при выполнении запроса
+     */
+    public static <T> T queryOne(Connection connection, String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        try (PreparedStatement stmt = prepare(connection, sql, params);
+             ResultSet result = stmt.executeQuery()) {
+            return result.next() ? mapper.map(result) : null;
+        }
+    }
+
+    /**
+     * Метод выполнения запроса, возвращающего список строк
+     *
+     * @param connection подключение к БД
+     * @param sql        запрос с параметрами "?"
+     * @param mapper     преобразование строки в объект
+     * @param params     значения параметров по порядку
+     * @param <T>        тип объекта
+     * @return список объектов
+     * @throws SQLException если ошибки при выполнении запроса
+     */
+    public static <T> List<T> queryList(Connection connection, String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        List<T> rows = new ArrayList<>();
+        try (PreparedStatement stmt = prepare(connection, sql, params);
+             ResultSet result = stmt.executeQuery()) {
+            while (result.next()) {
+                rows.add(mapper.map(result));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Метод выполнения запроса с потоковой обработкой каждой строки
+     *
+     * @param connection подключение к БД
+     * @param sql        запрос с параметрами "?"
+     * @param handler    обработчик строки
+     * @param params     значения параметров по порядку
+     * @throws SQLException если ошибки при выполнении запроса
+     */
+    public static void forEach(Connection connection, String sql, RowHandler handler, Object... params) throws SQLException {
+        try (PreparedStatement stmt = prepare(connection, sql, params);
+             ResultSet result = stmt.executeQuery()) {
+            while (result.next()) {
+                handler.handle(result);
+            }
+        }
+    }
+
+    /**
+     * Метод выполнения запроса на изменение данных
+     *
+     * @param connection подключение к БД
+     * @param sql        запрос с параметрами "?"
+     * @param params     значения параметров по порядку
+     * @return количество измененных строк
+     * @throws SQLException если ошибки при выполнении запроса
+     */
+    public static int update(Connection connection, String sql, Object... params) throws SQLException {
+        try (PreparedStatement stmt = prepare(connection, sql, params)) {
+            return stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Метод подготовки запроса и установки параметров
+     *
+     * @param connection подключение к БД
+     * @param sql        запрос с параметрами "?"
+     * @param params     значения параметров по порядку
+     * @return подготовленный запрос
+     * @throws SQLException если ошибки при подготовке запроса
+     */
+    private static PreparedStatement prepare(Connection connection, String sql, Object... params) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement(sql);
+        try {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+        } catch (SQLException e) {
+            stmt.close();
+            throw e;
+        }
+        return stmt;
+    }
+}
@@ -0,0 +1,215 @@
+package database;
+
+import config.BaseConfig;
+import org.aeonbits.owner.ConfigCache;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Учет остатков продуктов, используемых в заказах во время прогона, и проверка их сохранения.
+ * Для каждого продукта хранится ожидаемый запас: начальный остаток при создании, плюс количество,
+ * добавленное сбросом остатка (пул фикстур возвращает продукту исходное qty, пока заказы еще держат резерв),
+ * минус резерв заказов CREATED, удаленных очисткой (удаление строк не возвращает резерв в product.qty).
+ * Проверка выполняется CleanupRegistry перед удалением продуктов и сверяет набором агрегирующих запросов:
+ * product.qty + сумма qty позиций заказов CREATED равна ожидаемому запасу, qty не отрицателен,
+ * у отмененных заказов с этими продуктами не осталось строк ordered_product.
+ * Нарушения выводятся сразу и итоговым отчетом финальной очистки, после последнего тестового класса
+ * StockAuditExtension забирает их через takeViolations и роняет прогон. Если запрос проверки не выполнен, продукты не считаются нарушением,
+ * а исключаются из учета как непроверенные
+ */
+public final class StockLedger {
+
+    /**
+     * Экземпляр конфигурации
+     */
+    private static final BaseConfig config = ConfigCache.getOrCreate(BaseConfig.class, System.getenv());
+
+    /**
+     * Ожидаемый запас по id продукта
+     */
+    private static final Map<String, BigDecimal> expected = new ConcurrentHashMap<>();
+
+    /**
+     * Найденные нарушения и итоговая статистика
+     */
+    private static final List<String> violations = new CopyOnWriteArrayList<>();
+    private static final AtomicLong auditedProducts = new AtomicLong();
+    private static final AtomicLong audits = new AtomicLong();
+    private static final AtomicLong skippedProducts = new AtomicLong();
+
+    /**
+     * Нарушения, еще не переданные тестам
+     */
+    private static final Queue<String> pending = new ConcurrentLinkedQueue<>();
+
+    private StockLedger() {
+    }
+
+    /**
+     * Метод учета продукта, созданного с начальным остатком
+     *
+     * @param productId id продукта
+     * @param qty       начальный остаток
+     */
+    public static void opened(String productId, int qty) {
+        if (config.stockAudit() && productId != null) {
+            expected.put(productId, BigDecimal.valueOf(qty));
+        }
+    }
+
+    /**
+     * Метод учета сброса остатка продукта: разница между новым и прежним количеством добавляется к запасу
+     *
+     * @param productId id продукта
+     * @param qty       установленное количество
+     * @param previous  количество до сброса, null если продукт не найден
+     */
+    public static void reset(String productId, int qty, BigDecimal previous) {
+        if (previous != null) {
+            expected.computeIfPresent(productId, (id, stock) -> stock.add(BigDecimal.valueOf(qty)).subtract(previous));
+        }
+    }
+
+    /**
+     * Метод учета заказов перед их удалением очисткой: резерв заказов CREATED вычитается из запаса.
+     * Если резерв не прочитан, неизвестно, каких продуктов касаются заказы, поэтому из учета исключаются все продукты
+     *
+     * @param orderIds удаляемые заказы
+     */
+    static void beforeOrdersDeleted(Collection<String> orderIds) {
+        if (orderIds.isEmpty() || expected.isEmpty()) {
+            return;
+        }
+        Map<String, BigDecimal> reserved;
+        try {
+            reserved = Repositories.orders().getReservedQtyByProduct(orderIds);
+        } catch (RuntimeException e) {
+            skip(new ArrayList<>(expected.keySet()), e);
+            return;
+        }
+        reserved.forEach((productId, qty) -> expected.computeIfPresent(productId, (id, stock) -> stock.subtract(qty)));
+    }
+
+    /**
+     * Метод проверки продуктов перед их удалением очисткой, после проверки продукты исключаются из учета
+     *
+     * @param productIds удаляемые продукты
+     */
+    static void beforeProductsDeleted(Collection<String> productIds) {
+        if (expected.isEmpty()) {
+            return;
+        }
+        List<String> audited = new ArrayList<>();
+        for (String id : productIds) {
+            if (expected.containsKey(id)) {
+                audited.add(id);
+            }
+        }
+        if (!audited.isEmpty()) {
+            try {
+                audit(audited).forEach(System.err::println);
+            } catch (RuntimeException e) {
+                skip(audited, e);
+            }
+            audited.forEach(expected::remove);
+        }
+    }
+
+    /**
+     * Метод исключения продуктов из учета без проверки, когда запрос проверки не выполнен
+     *
+     * @param productIds продукты
+     * @param cause      ошибка запроса
+     */
+    private static void skip(Collection<String> productIds, RuntimeException cause) {
+        productIds.forEach(expected::remove);
+        skippedProducts.addAndGet(productIds.size());
+        System.err.println("Stock audit: " + productIds.size() + " products not audited, query failed: " + cause.getMessage()
+                + (cause.getCause() == null ? "" : " (" + cause.getCause().getMessage() + ")"));
+    }
+
+    /**
+     * Метод получения нарушений, найденных после предыдущего вызова
+     *
+     * @return описания нарушений
+     */
+    public static List<String> takeViolations() {
+        List<String> taken = new ArrayList<>();
+        String violation;
+        while ((violation = pending.poll()) != null) {
+            taken.add(violation);
+        }
+        return taken;
+    }
+
+    /**
+     * Метод проверки сохранения остатков продуктов
+     *
+     * @param productIds продукты, учтенные в StockLedger
+     * @return описания нарушений, пустой список если нарушений нет
+     * @throws RuntimeException если запрос проверки не выполнен
+     */
+    public static List<String> audit(Collection<String> productIds) {
+        List<String> found = new ArrayList<>();
+        Map<String, ProductStockBDModel> stocks = Repositories.products().getProductStocks(productIds);
+        for (String id : productIds) {
+            BigDecimal stock = expected.get(id);
+            ProductStockBDModel actual = stocks.get(id);
+            if (stock == null) {
+                continue;
+            }
+            if (actual == null) {
+                found.add(String.format("Stock audit: product %s was deleted before audit", id));
+                continue;
+            }
+            BigDecimal total = actual.getQty().add(actual.getOrderedQty());
+            if (total.compareTo(stock) != 0) {
+                found.add(String.format("Stock audit: product %s qty %s + reserved %s by %d CREATED orders = %s, expected %s",
+                        id, plain(actual.getQty()), plain(actual.getOrderedQty()), actual.getOrders(), plain(total), plain(stock)));
+            }
+            if (actual.getQty().signum() < 0) {
+                found.add(String.format("Stock audit: product %s qty is negative: %s", id, plain(actual.getQty())));
+            }
+        }
+        Repositories.orders().findCancelledOrdersWithLines(productIds).forEach((orderId, lines) ->
+                found.add(String.format("Stock audit: CANCELLED order %s still has %d ordered_product rows", orderId, lines)));
+        auditedProducts.addAndGet(productIds.size());
+        audits.incrementAndGet();
+        violations.addAll(found);
+        pending.addAll(found);
+        return found;
+    }
+
+    /**
+     * Метод итогового отчета при завершении JVM: продукты, оставшиеся в учете, проверяются без удаления
+     */
+    static void report() {
+        if (!expected.isEmpty()) {
+            List<String> remaining = new ArrayList<>(expected.keySet());
+            try {
+                audit(remaining).forEach(System.err::println);
+            } catch (RuntimeException e) {
+                skip(remaining, e);
+            }
+        }
+        if (audits.get() == 0 && skippedProducts.get() == 0) {
+            return;
+        }
+        System.out.printf("Stock audit: %d products in %d audits, %d violations, %d products not audited%n",
+                auditedProducts.get(), audits.get(), violations.size(), skippedProducts.get());
+        violations.forEach(violation -> System.out.println("  " + violation));
+    }
+
+    private static String plain(BigDecimal value) {
+        return value.stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,162 @@
+package database;
+
+import config.BaseConfig;
+import helpers.TestRun;
+import org.aeonbits.owner.ConfigCache;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Удаление тестовых данных, оставшихся от старых прогонов (например, упавших до очистки).
+ * Данные прогона находятся по меткам TestRun в артикулах product и логинах customer: удаляются записи прогонов,
+ * стартовавших раньше sweepStaleAfterMinutes назад (текущий прогон не затрагивается никогда).
+ * Идентификаторы собираются одним проходом по таблицам во временные таблицы, затем удаляются пакетами по sweepBatchSize
+ * в порядке внешних ключей: ordered_product, "order", customer, product. Каждый пакет - отдельная короткая транзакция,
+ * после пакета выполняется пауза не короче sweepPauseMs и не короче самого пакета, чтобы очистка занимала
+ * не больше половины времени БД. Запуск: ./gradlew sweepTestData или перед прогоном через TestDataSweepExtension
+ */
+public final class TestDataSweeper {
+
+    /**
+     * Экземпляр конфигурации
+     */
+    private static final BaseConfig config = ConfigCache.getOrCreate(BaseConfig.class, System.getenv());
+
+    /**
+     * Условия отбора данных старых прогонов, параметры - граница ID прогона и ID текущего прогона
+     */
+    private static final String STALE_PRODUCT_CONDITION = "article::text LIKE '%-" + TestRun.ARTICLE_MARKER + "____' "
+            + "AND left(article::text, 8) < ? AND left(article::text, 8) <> ?";
+    private static final String STALE_CUSTOMER_CONDITION = "login LIKE '" + TestRun.LOGIN_PREFIX.replace("_", "\\_") + "%' "
+            + "AND substr(login, " + (TestRun.LOGIN_PREFIX.length() + 1) + ", 8) < ? "
+            + "AND substr(login, " + (TestRun.LOGIN_PREFIX.length() + 1) + ", 8) <> ?";
+
+    /**
+     * Константы запросов сбора идентификаторов во временные таблицы
+     */
+    private static final String DROP_SWEEP_TABLES_SQL = "DROP TABLE IF EXISTS pg_temp.sweep_order, pg_temp.sweep_customer, pg_temp.sweep_product";
+    private static final String COLLECT_PRODUCTS_SQL = "CREATE TEMP TABLE sweep_product AS "
+            + "SELECT row_number() OVER () AS n, id FROM product WHERE " + STALE_PRODUCT_CONDITION;
+    private static final String COLLECT_CUSTOMERS_SQL = "CREATE TEMP TABLE sweep_customer AS "
+            + "SELECT row_number() OVER () AS n, id FROM customer WHERE " + STALE_CUSTOMER_CONDITION;
+    private static final String COLLECT_ORDERS_SQL = "CREATE TEMP TABLE sweep_order AS "
+            + "SELECT row_number() OVER () AS n, id FROM ("
+            + "SELECT id FROM \"order\" WHERE customer_id IN (SELECT id FROM sweep_customer) "
+            + "UNION SELECT order_id FROM ordered_product WHERE product_id IN (SELECT id FROM sweep_product)) stale";
+    private static final String COUNT_SQL = "SELECT count(*) FROM %s";
+
+    /**
+     * Константы запросов пакетного удаления, параметры - границы номеров строк пакета (n > ? AND n <= ?)
+     */
+    private static final String DELETE_ORDERED_PRODUCT_SQL = "DELETE FROM ordered_product WHERE order_id IN "
+            + "(SELECT id FROM sweep_order WHERE n > ? AND n <= ?)";
+    private static final String DELETE_ORDER_SQL = "DELETE FROM \"order\" WHERE id IN (SELECT id FROM sweep_order WHERE n > ? AND n <= ?)";
+    private static final String DELETE_CUSTOMER_SQL = "DELETE FROM customer WHERE id IN (SELECT id FROM sweep_customer WHERE n > ? AND n <= ?)";
+    private static final String DELETE_PRODUCT_SQL = "DELETE FROM product WHERE id IN (SELECT id FROM sweep_product WHERE n > ? AND n <= ?)";
+
+    /**
+     * Количество выполненных пакетов за текущую очистку
+     */
+    private static int batches;
+
+    private TestDataSweeper() {
+    }
+
+    /**
+     * Метод удаления данных прогонов, стартовавших раньше sweepStaleAfterMinutes назад
+     *
+     * @return количество удаленных строк
+     * @throws InterruptedException если поток прерван во время паузы между пакетами
+     */
+    public static synchronized long sweep() throws InterruptedException {
+        long cutoffSeconds = System.currentTimeMillis() / 1000 - TimeUnit.MINUTES.toSeconds(config.sweepStaleAfterMinutes());
+        return sweep(TestRun.toRunId(cutoffSeconds));
+    }
+
+    /**
+     * Метод удаления данных прогонов с ID меньше заданного
+     *
+     * @param cutoffRunId граница ID прогона
+     * @return количество удаленных строк
+     * @throws InterruptedException если поток прерван во время паузы между пакетами
+     */
+    public static synchronized long sweep(String cutoffRunId) throws InterruptedException {
+        long start = System.nanoTime();
+        batches = 0;
+        try (Connection connection = DataBasePool.getConnection()) {
+            try {
+                SqlRunner.update(connection, DROP_SWEEP_TABLES_SQL);
+                SqlRunner.update(connection, COLLECT_PRODUCTS_SQL, cutoffRunId, TestRun.id());
+                SqlRunner.update(connection, COLLECT_CUSTOMERS_SQL, cutoffRunId, TestRun.id());
+                SqlRunner.update(connection, COLLECT_ORDERS_SQL);
+
+                long orders = count(connection, "sweep_order");
+                long customers = count(connection, "sweep_customer");
+                long products = count(connection, "sweep_product");
+                long orderedProducts = deleteInBatches(connection, DELETE_ORDERED_PRODUCT_SQL, orders);
+                long deletedOrders = deleteInBatches(connection, DELETE_ORDER_SQL, orders);
+                long deletedCustomers = deleteInBatches(connection, DELETE_CUSTOMER_SQL, customers);
+                long deletedProducts = deleteInBatches(connection, DELETE_PRODUCT_SQL, products);
+
+                System.out.printf("Sweeper: runs before %s: deleted %d ordered_product, %d order, %d customer, %d product "
+                                + "in %d ms (%d batches)%n",
+                        cutoffRunId, orderedProducts, deletedOrders, deletedCustomers, deletedProducts,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), batches);
+                return orderedProducts + deletedOrders + deletedCustomers + deletedProducts;
+            } finally {
+                SqlRunner.update(connection, DROP_SWEEP_TABLES_SQL);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to sweep stale test data", e);
+        }
+    }
+
+    /**
+     * Метод удаления пакетами по sweepBatchSize строк временной таблицы с паузой после каждого пакета
+     *
+     * @param sql   запрос удаления с границами номеров строк
+     * @param total количество строк во временной таблице
+     * @return количество удаленных строк
+     * @throws SQLException         если ошибки при удалении
+     * @throws InterruptedException если поток прерван во время паузы
+     */
+    private static long deleteInBatches(Connection connection, String sql, long total) throws SQLException, InterruptedException {
+        int batchSize = Math.max(1, config.sweepBatchSize());
+        long deleted = 0;
+        for (long from = 0; from < total; from += batchSize) {
+            long batchStart = System.nanoTime();
+            deleted += SqlRunner.update(connection, sql, from, from + batchSize);
+            batches++;
+            long batchMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batchStart);
+            Thread.sleep(Math.max(config.sweepPauseMs(), batchMs));
+        }
+        return deleted;
+    }
+
+    /**
+     * Метод подсчета строк временной таблицы
+     *
+     * @return количество строк
+     * @throws SQLException если ошибки при запросе
+     */
+    private static long count(Connection connection, String table) throws SQLException {
+        Long count = SqlRunner.queryOne(connection, String.format(COUNT_SQL, table), result -> result.getLong(1));
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Точка входа для запуска из Gradle
+     *
+     * @param args "[граница ID прогона]", по умолчанию - прогоны старше sweepStaleAfterMinutes
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length == 1) {
+            sweep(args[0]);
+        } else {
+            sweep();
+        }
+        System.exit(0);
+    }
+}
@@ -31,6 +31,8 @@ public class OrderCreateRequest {
      */
     @Data
     @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
     public static class Products {
 
         /**
@@ -26,6 +26,8 @@ public class OrderUpdateRequest {
      */
     @Data
     @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
     public static class Products {
 
         /**
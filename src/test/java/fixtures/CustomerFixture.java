@@ -0,0 +1,25 @@
+package fixtures;
+
+/**
+ * Customer, подготовленный для теста из CustomerPool
+ */
+public final class CustomerFixture {
+
+    /**
+     * ID customer
+     */
+    private final int id;
+
+    CustomerFixture(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Метод получения ID customer
+     *
+     * @return ID customer
+     */
+    public int getId() {
+        return id;
+    }
+}
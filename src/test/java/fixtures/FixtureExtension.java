@@ -0,0 +1,398 @@
+package fixtures;
+
+import config.BaseConfig;
+import database.CleanupRegistry;
+import database.CustomerPool;
+import database.Repositories;
+import database.SeededOrderBDModel;
+import database.StockLedger;
+import dto.order.OrderCreateRequest;
+import dto.order.OrderCreateResponse;
+import dto.product.ProductCreateRequest;
+import org.aeonbits.owner.ConfigCache;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionConfigurationException;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolutionException;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static helpers.DataHelper.*;
+import static io.restassured.RestAssured.given;
+
+/**
+ * Расширение JUnit, подготавливающее фикстуры по аннотациям @WithProducts, @WithCustomer и @WithOrder.
+ * Фикстуры образуют граф зависимостей: продукты и customer независимы и подготавливаются параллельно,
+ * заказ создается, как только готовы оба, поэтому время подготовки равно длине критического пути графа,
+ * а не сумме всех вызовов. После теста продукты и customer возвращаются в пулы, заказ передается в CleanupRegistry.
+ * С @FixtureSeeding(DB) фикстуры вставляются напрямую в БД (заказ со всеми зависимостями - одним запросом)
+ * и после теста передаются в CleanupRegistry.
+ * Аннотация на методе имеет приоритет над аннотацией на классе
+ */
+public class FixtureExtension implements BeforeEachCallback, AfterEachCallback, ParameterResolver {
+
+    /**
+     * Экземпляр конфигурации
+     */
+    private static final BaseConfig config = ConfigCache.getOrCreate(BaseConfig.class, System.getenv());
+
+    /**
+     * Пространство хранения подготовленных фикстур теста
+     */
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(FixtureExtension.class);
+
+    /**
+     * Потоки подготовки фикстур, общие для всех тестов
+     */
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+    private static final ExecutorService executor = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "fixture-provisioner-" + threadCounter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        Optional<WithProducts> withProducts = findAnnotation(context, WithProducts.class);
+        Optional<WithCustomer> withCustomer = findAnnotation(context, WithCustomer.class);
+        Optional<WithOrder> withOrder = findAnnotation(context, WithOrder.class);
+        int orderLines = withOrder.map(WithOrder::lines).orElse(0);
+        int productCount = Math.max(withProducts.map(WithProducts::count).orElse(0), orderLines);
+        boolean sharedProducts = withProducts.map(WithProducts::shared).orElse(false);
+        if (sharedProducts && withOrder.isPresent()) {
+            throw new ExtensionConfigurationException("@WithProducts(shared = true) несовместима с @WithOrder: "
+                    + "заказ резервирует остаток продуктов, которые одновременно арендуют другие тесты");
+        }
+        boolean needCustomer = withCustomer.isPresent() || withOrder.isPresent();
+        FixtureSeeding.Mode seeding = findAnnotation(context, FixtureSeeding.class)
+                .map(FixtureSeeding::value)
+                .orElse(FixtureSeeding.Mode.API);
+
+        Provisioned provisioned;
+        if (seeding == FixtureSeeding.Mode.DB && withOrder.isPresent()) {
+            provisioned = seedOrder(productCount, orderLines);
+        } else if (seeding == FixtureSeeding.Mode.DB) {
+            provisioned = seedProducts(productCount, needCustomer);
+        } else {
+            provisioned = provisionThroughApi(productCount, sharedProducts, needCustomer, withOrder.isPresent() ? orderLines : -1);
+        }
+        context.getStore(NAMESPACE).put(Provisioned.class, provisioned);
+        try {
+            CompletableFuture.allOf(provisioned.products, provisioned.customer, provisioned.order).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        Provisioned provisioned = context.getStore(NAMESPACE).remove(Provisioned.class, Provisioned.class);
+        if (provisioned == null) {
+            return;
+        }
+        OrderFixture order = completed(provisioned.order);
+        if (order != null) {
+            CleanupRegistry.registerOrder(order.getId());
+        }
+        CustomerFixture customer = completed(provisioned.customer);
+        if (customer != null && provisioned.pooledCustomer) {
+            CustomerPool.release(customer.getId());
+        } else if (customer != null) {
+            CleanupRegistry.registerCustomer(customer.getId());
+        }
+        List<ProductFixture> products = completed(provisioned.products);
+        if (products != null && provisioned.pooledProducts) {
+            ProductFixturePool.release(products);
+        } else if (products != null) {
+            products.forEach(product -> CleanupRegistry.registerProduct(product.getId()));
+        }
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        Class<?> type = parameterContext.getParameter().getType();
+        return type == ProductFixture.class || type == CustomerFixture.class || type == OrderFixture.class
+                || isProductList(parameterContext.getParameter());
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        Provisioned provisioned = extensionContext.getStore(NAMESPACE).get(Provisioned.class, Provisioned.class);
+        if (provisioned == null) {
+            throw new ParameterResolutionException("Фикстуры не подготовлены: нет аннотаций @WithProducts, @WithCustomer, @WithOrder");
+        }
+        Parameter parameter = parameterContext.getParameter();
+        Class<?> type = parameter.getType();
+        if (type == CustomerFixture.class) {
+            return required(provisioned.customer.join(), "@WithCustomer");
+        }
+        if (type == OrderFixture.class) {
+            return required(provisioned.order.join(), "@WithOrder");
+        }
+        List<ProductFixture> products = provisioned.products.join();
+        if (type != ProductFixture.class) {
+            return products;
+        }
+        // ProductFixture-параметры получают продукты по порядку своего появления в сигнатуре метода
+        int position = 0;
+        Parameter[] parameters = parameterContext.getDeclaringExecutable().getParameters();
+        for (int i = 0; i < parameterContext.getIndex(); i++) {
+            if (parameters[i].getType() == ProductFixture.class) {
+                position++;
+            }
+        }
+        if (position >= products.size()) {
+            throw new ParameterResolutionException("Недостаточно продуктов для параметра " + parameter.getName()
+                    + ": подготовлено " + products.size() + ", увеличьте @WithProducts(count)");
+        }
+        return products.get(position);
+    }
+
+    /**
+     * Метод подготовки фикстур через API: продукты из ProductFixturePool и customer из CustomerPool
+     * подготавливаются параллельно, заказ создается, как только готовы оба
+     *
+     * @param productCount   количество продуктов
+     * @param sharedProducts совместная аренда продуктов
+     * @param needCustomer   нужен ли customer
+     * @param orderLines     количество позиций заказа, -1 если заказ не нужен
+     * @return подготавливаемые фикстуры
+     */
+    private static Provisioned provisionThroughApi(int productCount, boolean sharedProducts, boolean needCustomer, int orderLines) {
+        CompletableFuture<List<ProductFixture>> products = productCount == 0
+                ? CompletableFuture.completedFuture(Collections.emptyList())
+                : CompletableFuture.supplyAsync(() -> sharedProducts
+                ? ProductFixturePool.leaseShared(productCount)
+                : ProductFixturePool.leaseExclusive(productCount), executor);
+        CompletableFuture<CustomerFixture> customer = needCustomer
+                ? CompletableFuture.supplyAsync(() -> new CustomerFixture(CustomerPool.lease()), executor)
+                : CompletableFuture.completedFuture(null);
+        CompletableFuture<OrderFixture> order = orderLines >= 0
+                ? products.thenCombineAsync(customer,
+                (leased, leasedCustomer) -> createOrder(leasedCustomer, leased.subList(0, orderLines)), executor)
+                : CompletableFuture.completedFuture(null);
+        return new Provisioned(products, customer, order, true, true);
+    }
+
+    /**
+     * Метод подготовки фикстур без заказа напрямую в БД: продукты вставляются одним запросом,
+     * параллельно customer берется из CustomerPool
+     *
+     * @param productCount количество продуктов
+     * @param needCustomer нужен ли customer
+     * @return подготавливаемые фикстуры
+     */
+    private static Provisioned seedProducts(int productCount, boolean needCustomer) {
+        CompletableFuture<List<ProductFixture>> products = productCount == 0
+                ? CompletableFuture.completedFuture(Collections.emptyList())
+                : CompletableFuture.supplyAsync(() -> {
+            List<ProductCreateRequest> requests = newProductRequests(productCount);
+            List<String> ids = Repositories.products().createProducts(requests);
+            if (ids.size() != productCount) {
+                throw new IllegalStateException("Не удалось создать product в БД");
+            }
+            return toProductFixtures(ids, requests);
+        }, executor);
+        CompletableFuture<CustomerFixture> customer = needCustomer
+                ? CompletableFuture.supplyAsync(() -> new CustomerFixture(CustomerPool.lease()), executor)
+                : CompletableFuture.completedFuture(null);
+        return new Provisioned(products, customer, CompletableFuture.completedFuture(null), false, true);
+    }
+
+    /**
+     * Метод подготовки заказа напрямую в БД: продукты, customer, заказ и его позиции вставляются одним запросом
+     *
+     * @param productCount количество продуктов (первые orderLines образуют позиции заказа)
+     * @param orderLines   количество позиций заказа
+     * @return подготовленные фикстуры
+     */
+    private static Provisioned seedOrder(int productCount, int orderLines) {
+        List<ProductCreateRequest> requests = newProductRequests(productCount);
+        List<Integer> lineQty = new ArrayList<>(orderLines);
+        for (ProductCreateRequest request : requests.subList(0, orderLines)) {
+            lineQty.add(generateRandomQtyForOrderCreateTest(request.getQty()));
+        }
+        String orderId = getUUID();
+        String deliveryAddress = generateSimpleAddress();
+
+        SeededOrderBDModel seeded = Repositories.orders().seedOrder(orderId, getCustomerRandomNickName(),
+                getCustomerRandomEmail(), deliveryAddress, requests, lineQty);
+        if (seeded == null) {
+            throw new IllegalStateException("Не удалось создать заказ в БД");
+        }
+        List<ProductFixture> products = toProductFixtures(seeded.getProductIds(), requests);
+        List<OrderCreateRequest.Products> productsList = new ArrayList<>(orderLines);
+        for (int i = 0; i < orderLines; i++) {
+            productsList.add(OrderCreateRequest.Products.builder()
+                    .id(products.get(i).getId())
+                    .qty(lineQty.get(i))
+                    .build());
+        }
+        OrderCreateRequest orderCreateRequest = OrderCreateRequest.builder()
+                .deliveryAddress(deliveryAddress)
+                .products(productsList)
+                .build();
+        OrderCreateResponse orderCreateResponse = OrderCreateResponse.builder()
+                .id(orderId)
+                .build();
+        CustomerFixture customer = new CustomerFixture(seeded.getCustomerId());
+        OrderFixture order = new OrderFixture(orderCreateRequest, orderCreateResponse, customer, products.subList(0, orderLines));
+        return new Provisioned(CompletableFuture.completedFuture(products), CompletableFuture.completedFuture(customer),
+                CompletableFuture.completedFuture(order), false, false);
+    }
+
+    /**
+     * Метод генерации данных новых продуктов
+     *
+     * @param count количество продуктов
+     * @return запросы создания продуктов
+     */
+    private static List<ProductCreateRequest> newProductRequests(int count) {
+        List<ProductCreateRequest> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            requests.add(ProductFixturePool.newProductRequest());
+        }
+        return requests;
+    }
+
+    /**
+     * Метод создания фикстур продуктов, вставленных в БД
+     *
+     * @param ids      id продуктов в порядке запросов
+     * @param requests данные продуктов
+     * @return фикстуры продуктов
+     */
+    private static List<ProductFixture> toProductFixtures(List<String> ids, List<ProductCreateRequest> requests) {
+        List<ProductFixture> products = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            StockLedger.opened(ids.get(i), requests.get(i).getQty());
+            products.add(new ProductFixture(ids.get(i), requests.get(i)));
+        }
+        return products;
+    }
+
+    /**
+     * Метод создания заказа через API
+     *
+     * @param customer customer заказа
+     * @param products продукты позиций заказа
+     * @return созданный заказ
+     */
+    private static OrderFixture createOrder(CustomerFixture customer, List<ProductFixture> products) {
+        List<OrderCreateRequest.Products> productsList = new ArrayList<>(products.size());
+        for (ProductFixture product : products) {
+            productsList.add(OrderCreateRequest.Products.builder()
+                    .id(product.getId())
+                    .qty(generateRandomQtyForOrderCreateTest(product.getQty()))
+                    .build());
+        }
+
+        OrderCreateRequest orderCreateRequest = OrderCreateRequest.builder()
+                .deliveryAddress(generateSimpleAddress())
+                .products(productsList)
+                .build();
+
+        OrderCreateResponse orderCreateResponse = given()
+                .spec(FixtureRequests.requestSpecification())
+                .header(CUSTOMER_ID, customer.getId())
+                .body(orderCreateRequest)
+                .when()
+                .post(config.createOrderEndpoint())
+                .then()
+                .statusCode(STATUS_CODE_OK)
+                .extract().as(OrderCreateResponse.class);
+        return new OrderFixture(orderCreateRequest, orderCreateResponse, customer, products);
+    }
+
+    /**
+     * Метод поиска аннотации на тестовом методе, затем на тестовом классе
+     *
+     * @return аннотация, если она задана
+     */
+    private static <A extends Annotation> Optional<A> findAnnotation(ExtensionContext context, Class<A> annotationType) {
+        Optional<A> onMethod = AnnotationSupport.findAnnotation(context.getTestMethod(), annotationType);
+        return onMethod.isPresent() ? onMethod : AnnotationSupport.findAnnotation(context.getTestClass(), annotationType);
+    }
+
+    /**
+     * Метод проверки, что параметр имеет тип List&lt;ProductFixture&gt;
+     *
+     * @return true, если параметр - список продуктов
+     */
+    private static boolean isProductList(Parameter parameter) {
+        if (parameter.getType() != List.class || !(parameter.getParameterizedType() instanceof ParameterizedType)) {
+            return false;
+        }
+        Type[] arguments = ((ParameterizedType) parameter.getParameterizedType()).getActualTypeArguments();
+        return arguments.length == 1 && arguments[0] == ProductFixture.class;
+    }
+
+    /**
+     * Метод получения результата подготовки, если она завершилась успешно
+     *
+     * @return результат или null
+     */
+    private static <T> T completed(CompletableFuture<T> future) {
+        return future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+    }
+
+    /**
+     * Метод проверки, что фикстура запрошена аннотацией
+     *
+     * @return фикстура
+     */
+    private static <T> T required(T fixture, String annotation) {
+        if (fixture == null) {
+            throw new ParameterResolutionException("Фикстура не подготовлена: добавьте " + annotation);
+        }
+        return fixture;
+    }
+
+    /**
+     * Подготовленные для теста фикстуры
+     */
+    private static class Provisioned {
+
+        private final CompletableFuture<List<ProductFixture>> products;
+        private final CompletableFuture<CustomerFixture> customer;
+        private final CompletableFuture<OrderFixture> order;
+
+        /**
+         * Признаки того, что продукты и customer взяты из пулов и возвращаются в них, а не удаляются после теста
+         */
+        private final boolean pooledProducts;
+        private final boolean pooledCustomer;
+
+        Provisioned(CompletableFuture<List<ProductFixture>> products, CompletableFuture<CustomerFixture> customer,
+                    CompletableFuture<OrderFixture> order, boolean pooledProducts, boolean pooledCustomer) {
+            this.products = products;
+            this.customer = customer;
+            this.order = order;
+            this.pooledProducts = pooledProducts;
+            this.pooledCustomer = pooledCustomer;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package fixtures;
+
+import config.BaseConfig;
+import helpers.BaseRequests;
+import io.restassured.specification.RequestSpecification;
+import org.aeonbits.owner.ConfigCache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Спецификации запросов для создания фикстур через API, своя для каждого потока
+ */
+final class FixtureRequests {
+
+    /**
+     * Экземпляр класса BaseRequests для создания спецификаций запросов
+     */
+    private static final BaseRequests baseRequests = new BaseRequests(ConfigCache.getOrCreate(BaseConfig.class, System.getenv()));
+
+    /**
+     * Спецификация RestAssured, своя для каждого потока
+     */
+    private static final ThreadLocal<RequestSpecification> requestSpecification =
+            ThreadLocal.withInitial(FixtureRequests::initRequestSpecification);
+
+    private FixtureRequests() {
+    }
+
+    /**
+     * Метод получения спецификации запроса текущего потока
+     *
+     * @return экземпляр спецификации RestAssured
+     */
+    static RequestSpecification requestSpecification() {
+        return requestSpecification.get();
+    }
+
+    /**
+     * Метод создания спецификации запроса для нового потока
+     *
+     * @return экземпляр спецификации RestAssured
+     */
+    private static RequestSpecification initRequestSpecification() {
+        try {
+            return baseRequests.initRequestSpecification();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to init request specification", e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package fixtures;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Аннотация выбора способа подготовки фикстур @WithProducts, @WithCustomer и @WithOrder.
+ * По умолчанию фикстуры создаются через API. Тестам, которые проверяют только эндпоинты заказа,
+ * достаточно записей в БД: в режиме DB заказ вместе с продуктами и customer вставляется одним запросом, минуя сервис.
+ * Аннотация на методе имеет приоритет над аннотацией на классе
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface FixtureSeeding {
+
+    /**
+     * Способ подготовки фикстур
+     */
+    Mode value();
+
+    /**
+     * Способы подготовки фикстур
+     */
+    enum Mode {
+
+        /**
+         * Продукты из ProductFixturePool и заказ создаются через API
+         */
+        API,
+
+        /**
+         * Продукты, customer и заказ вставляются напрямую в БД и удаляются после теста
+         */
+        DB
+    }
+}
@@ -0,0 +1,84 @@
+package fixtures;
+
+import dto.order.OrderCreateRequest;
+import dto.order.OrderCreateResponse;
+
+import java.util.List;
+
+/**
+ * Заказ, созданный для теста, вместе с customer и продуктами, из которых он состоит
+ */
+public final class OrderFixture {
+
+    /**
+     * Запрос, которым заказ был создан
+     */
+    private final OrderCreateRequest request;
+
+    /**
+     * Ответ на создание заказа
+     */
+    private final OrderCreateResponse response;
+
+    /**
+     * Customer заказа
+     */
+    private final CustomerFixture customer;
+
+    /**
+     * Продукты позиций заказа в порядке позиций
+     */
+    private final List<ProductFixture> products;
+
+    OrderFixture(OrderCreateRequest request, OrderCreateResponse response, CustomerFixture customer, List<ProductFixture> products) {
+        this.request = request;
+        this.response = response;
+        this.customer = customer;
+        this.products = products;
+    }
+
+    /**
+     * Метод получения ID заказа
+     *
+     * @return ID заказа
+     */
+    public String getId() {
+        return response.getId();
+    }
+
+    /**
+     * Метод получения запроса, которым заказ был создан
+     *
+     * @return запрос создания заказа
+     */
+    public OrderCreateRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * Метод получения ответа на создание заказа
+     *
+     * @return ответ создания заказа
+     */
+    public OrderCreateResponse getResponse() {
+        return response;
+    }
+
+    /**
+     * Метод получения ID customer заказа
+     *
+     * @return ID customer
+     */
+    public int getCustomerId() {
+        return customer.getId();
+    }
+
+    /**
+     * Метод получения продуктов позиций заказа
+     *
+     * @return продукты в порядке позиций
+     */
+    public List<ProductFixture> getProducts() {
+        return products;
+    }
+}
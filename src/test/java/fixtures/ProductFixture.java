@@ -0,0 +1,69 @@
+package fixtures;
+
+import dto.product.ProductCreateRequest;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Product из пула фикстур: данные, с которыми он был создан, и состояние аренды
+ */
+public final class ProductFixture {
+
+    /**
+     * ID продукта
+     */
+    private final String id;
+
+    /**
+     * Запрос, которым продукт был создан
+     */
+    private final ProductCreateRequest request;
+
+    /**
+     * Состояние аренды: 0 - свободен, EXCLUSIVE - эксклюзивная аренда, больше 0 - количество совместных аренд.
+     * Аренда не привязана к потоку, поэтому продукт можно получить в одном потоке и вернуть в другом
+     */
+    final AtomicInteger leases = new AtomicInteger();
+
+    /**
+     * Значение leases при эксклюзивной аренде
+     */
+    static final int EXCLUSIVE = -1;
+
+    /**
+     * Признак того, что количество продукта могло измениться с момента последнего сброса
+     */
+    volatile boolean dirty;
+
+    ProductFixture(String id, ProductCreateRequest request) {
+        this.id = id;
+        this.request = request;
+    }
+
+    /**
+     * Метод получения ID продукта
+     *
+     * @return ID продукта
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Метод получения запроса, которым продукт был создан
+     *
+     * @return запрос создания продукта
+     */
+    public ProductCreateRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * Метод получения количества продукта на момент выдачи из пула (при эксклюзивной аренде совпадает с БД)
+     *
+     * @return количество продукта
+     */
+    public int getQty() {
+        return request.getQty();
+    }
+}
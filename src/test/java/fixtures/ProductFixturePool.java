@@ -0,0 +1,268 @@
+package fixtures;
+
+import config.BaseConfig;
+import database.CleanupRegistry;
+import database.Repositories;
+import database.StockLedger;
+import dto.product.ProductCreateRequest;
+import dto.product.ProductCreateResponse;
+import org.aeonbits.owner.ConfigCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static helpers.DataHelper.*;
+import static io.restassured.RestAssured.given;
+
+/**
+ * Пул product, общих для всех тестовых классов JVM.
+ * При первом обращении пул параллельно создает productPoolSize продуктов через API.
+ * Тестам, изменяющим остатки, продукты выдаются эксклюзивно, тестам, которым важен только сам продукт, - совместно.
+ * При возврате количество продукта сбрасывается в БД к исходному значению.
+ * Если свободных продуктов не хватает, пул создает новые, а не ждет возврата, поэтому аренда нескольких продуктов
+ * не может привести к взаимной блокировке тестов. Продукты пула удаляются через CleanupRegistry при завершении JVM
+ */
+public final class ProductFixturePool {
+
+    /**
+     * Экземпляр конфигурации
+     */
+    private static final BaseConfig config = ConfigCache.getOrCreate(BaseConfig.class, System.getenv());
+
+    /**
+     * Все продукты пула
+     */
+    private static final List<ProductFixture> products = new CopyOnWriteArrayList<>();
+
+    /**
+     * Признак начального наполнения пула
+     */
+    private static volatile boolean prefilled;
+
+    static {
+        CleanupRegistry.beforeDrain(() -> products.forEach(product -> CleanupRegistry.registerProduct(product.getId())));
+    }
+
+    private ProductFixturePool() {
+    }
+
+    /**
+     * Метод эксклюзивной аренды одного продукта
+     *
+     * @return продукт с исходным количеством в БД
+     */
+    public static ProductFixture leaseExclusive() {
+        return leaseExclusive(1).get(0);
+    }
+
+    /**
+     * Метод эксклюзивной аренды продуктов для тестов, изменяющих остатки.
+     * Количество выданных продуктов в БД равно getQty()
+     *
+     * @param count количество продуктов
+     * @return разные продукты в эксклюзивной аренде
+     */
+    public static List<ProductFixture> leaseExclusive(int count) {
+        prefill();
+        List<ProductFixture> leased = new ArrayList<>(count);
+        for (ProductFixture product : products) {
+            if (leased.size() == count) {
+                break;
+            }
+            if (product.leases.compareAndSet(0, ProductFixture.EXCLUSIVE)) {
+                leased.add(product);
+            }
+        }
+        for (ProductFixture product : createProducts(count - leased.size())) {
+            product.leases.set(ProductFixture.EXCLUSIVE);
+            products.add(product);
+            leased.add(product);
+        }
+        for (ProductFixture product : leased) {
+            if (product.dirty) {
+                resetQty(product);
+            }
+        }
+        return leased;
+    }
+
+    /**
+     * Метод совместной аренды продуктов для тестов, которые не проверяют остатки.
+     * Продукт может одновременно использоваться другими тестами в совместной аренде, поэтому его количество в БД
+     * может быть меньше getQty()
+     *
+     * @param count количество продуктов
+     * @return разные продукты в совместной аренде
+     */
+    public static List<ProductFixture> leaseShared(int count) {
+        prefill();
+        List<ProductFixture> leased = new ArrayList<>(count);
+        for (ProductFixture product : products) {
+            if (leased.size() == count) {
+                break;
+            }
+            if (tryLeaseShared(product)) {
+                product.dirty = true;
+                leased.add(product);
+            }
+        }
+        for (ProductFixture product : createProducts(count - leased.size())) {
+            product.leases.set(1);
+            product.dirty = true;
+            products.add(product);
+            leased.add(product);
+        }
+        return leased;
+    }
+
+    /**
+     * Метод возврата продуктов в пул. Если продукт больше никем не арендован, его количество сбрасывается в БД
+     *
+     * @param leased арендованные продукты, null пропускаются
+     */
+    public static void release(ProductFixture... leased) {
+        for (ProductFixture product : leased) {
+            if (product == null) {
+                continue;
+            }
+            if (product.leases.get() == ProductFixture.EXCLUSIVE) {
+                resetQty(product);
+                product.leases.set(0);
+            } else if (product.leases.get() > 0 && product.leases.decrementAndGet() == 0
+                    && product.leases.compareAndSet(0, ProductFixture.EXCLUSIVE)) {
+                try {
+                    if (product.dirty) {
+                        resetQty(product);
+                    }
+                } finally {
+                    product.leases.set(0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Метод возврата продуктов в пул
+     *
+     * @param leased арендованные продукты
+     */
+    public static void release(List<ProductFixture> leased) {
+        release(leased.toArray(new ProductFixture[0]));
+    }
+
+    /**
+     * Метод начального наполнения пула, выполняется один раз
+     */
+    private static void prefill() {
+        if (prefilled) {
+            return;
+        }
+        synchronized (ProductFixturePool.class) {
+            if (!prefilled) {
+                products.addAll(createProducts(config.productPoolSize()));
+                prefilled = true;
+            }
+        }
+    }
+
+    /**
+     * Метод совместной аренды продукта, если он не арендован эксклюзивно
+     *
+     * @return true, если аренда получена
+     */
+    private static boolean tryLeaseShared(ProductFixture product) {
+        int current = product.leases.get();
+        while (current >= 0) {
+            if (product.leases.compareAndSet(current, current + 1)) {
+                return true;
+            }
+            current = product.leases.get();
+        }
+        return false;
+    }
+
+    /**
+     * Метод сброса количества продукта в БД к исходному значению
+     */
+    private static void resetQty(ProductFixture product) {
+        StockLedger.reset(product.getId(), product.getQty(),
+                Repositories.products().setProductQty(product.getId(), product.getQty()));
+        product.dirty = false;
+    }
+
+    /**
+     * Метод параллельного создания продуктов через API
+     *
+     * @param count количество продуктов
+     * @return созданные продукты
+     */
+    private static List<ProductFixture> createProducts(int count) {
+        List<ProductFixture> created = new ArrayList<>(Math.max(0, count));
+        if (count <= 0) {
+            return created;
+        }
+        if (count == 1) {
+            created.add(createProduct());
+            return created;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(count, config.productPoolInitThreads())));
+        try {
+            List<CompletableFuture<ProductFixture>> futures = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                futures.add(CompletableFuture.supplyAsync(ProductFixturePool::createProduct, executor));
+            }
+            for (CompletableFuture<ProductFixture> future : futures) {
+                created.add(future.join());
+            }
+            return created;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Метод создания одного продукта через API
+     *
+     * @return созданный продукт
+     */
+    private static ProductFixture createProduct() {
+        ProductCreateRequest productCreateRequest = newProductRequest();
+
+        ProductCreateResponse productCreateResponse = given()
+                .spec(FixtureRequests.requestSpecification())
+                .body(productCreateRequest)
+                .when()
+                .post(config.createProductEndpoint())
+                .then()
+                .statusCode(STATUS_CODE_CREATED)
+                .extract().as(ProductCreateResponse.class);
+        StockLedger.opened(productCreateResponse.getId(), productCreateRequest.getQty());
+        return new ProductFixture(productCreateResponse.getId(), productCreateRequest);
+    }
+
+    /**
+     * Метод генерации данных нового продукта
+     *
+     * @return запрос создания продукта
+     */
+    static ProductCreateRequest newProductRequest() {
+        return ProductCreateRequest.builder()
+                .name(getNameProduct())
+                .article(getArticle())
+                .category(getCategoryProduct())
+                .dictionary(getDictionaryProduct())
+                .price(generateRandomPrice())
+                .qty(generateRandomQty())
+                .build();
+    }
+}
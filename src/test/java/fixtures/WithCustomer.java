@@ -0,0 +1,18 @@
+package fixtures;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Аннотация подготовки customer из CustomerPool перед каждым тестом.
+ * Customer передается в тест параметром CustomerFixture
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(FixtureExtension.class)
+public @interface WithCustomer {
+}
@@ -0,0 +1,24 @@
+package fixtures;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Аннотация создания заказа перед каждым тестом (через API или в БД, см. @FixtureSeeding).
+ * Для заказа подготавливаются customer и продукты (первые lines продуктов из @WithProducts, если она задана),
+ * заказ передается в тест параметром OrderFixture
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(FixtureExtension.class)
+public @interface WithOrder {
+
+    /**
+     * Количество позиций заказа
+     */
+    int lines() default 1;
+}
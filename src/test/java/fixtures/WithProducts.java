@@ -0,0 +1,30 @@
+package fixtures;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Аннотация подготовки product из ProductFixturePool перед каждым тестом.
+ * Продукты передаются в тест параметрами ProductFixture (по порядку) или List&lt;ProductFixture&gt;
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(FixtureExtension.class)
+public @interface WithProducts {
+
+    /**
+     * Количество продуктов
+     */
+    int count() default 1;
+
+    /**
+     * Совместная аренда продуктов для тестов, которые не проверяют и не меняют остатки.
+     * С @WithOrder не допускается (заказ резервирует остаток), при @FixtureSeeding(DB) не действует:
+     * продукты создаются в БД отдельно для каждого теста
+     */
+    boolean shared() default false;
+}
@@ -1,14 +1,15 @@
 package helpers;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import config.BaseConfig;
 import io.qameta.allure.Description;
-import io.restassured.RestAssured;
 import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.LogConfig;
 import io.restassured.config.ObjectMapperConfig;
+import io.restassured.config.RestAssuredConfig;
 import io.restassured.http.ContentType;
 import io.restassured.specification.RequestSpecification;
+import stub.WarehouseStub;
 
 import java.io.IOException;
 
@@ -22,6 +23,17 @@ public class BaseRequests {
      */
     private final BaseConfig config;
 
+    /**
+     * Настройки RestAssured, передаваемые через спецификацию (глобальные RestAssured.config и фильтры не изменяются,
+     * чтобы настройки не переходили между тестовыми классами в одной JVM)
+     */
+    private final RestAssuredConfig restAssuredConfig;
+
+    /**
+     * Адрес API: сервис из apiUrl или встроенная заглушка в профиле stub
+     */
+    private final String baseUri;
+
     /**
      * Конструктор BaseConfig с инициализацией настройки RestAssured
      *
@@ -29,13 +41,14 @@ public class BaseRequests {
      */
     public BaseRequests(BaseConfig config) {
         this.config = config;
-        RestAssured.config = RestAssured.config()
+        this.restAssuredConfig = RestAssuredConfig.config()
                 .objectMapperConfig(new ObjectMapperConfig()
-                        .jackson2ObjectMapperFactory((cls, charset) -> {
-                            ObjectMapper mapper = new ObjectMapper();
-                            mapper.registerModule(new JavaTimeModule());
-                            return mapper;
-                        }));
+                        .jackson2ObjectMapperFactory((cls, charset) -> JsonMapper.get()))
+                .httpClient(HttpClientConfig.httpClientConfig()
+                        .httpClientFactory(HttpConnectionPool::createHttpClient))
+                .logConfig(LogConfig.logConfig()
+                        .enableLoggingOfRequestAndResponseIfValidationFails());
+        this.baseUri = WarehouseStub.apiUrl();
     }
 
     /**
@@ -46,12 +59,30 @@ public class BaseRequests {
      */
     @Description("Создание базовой спецификации REST-запроса с настройками из конфигурации")
     public RequestSpecification initRequestSpecification() throws IOException {
-        RestAssured.enableLoggingOfRequestAndResponseIfValidationFails();
         RequestSpecBuilder requestSpecBuilder = new RequestSpecBuilder();
         requestSpecBuilder
-                .setBaseUri(config.apiUrl())
+                .setConfig(restAssuredConfig)
+                .setBaseUri(baseUri)
                 .setContentType(ContentType.JSON)
-                .setAccept(ContentType.JSON);
+                .setAccept(ContentType.JSON)
+                .addFilter(StartupProfiler.requestTimingFilter())
+                .addFilter(HttpConnectionPool.releaseConnectionFilter());
         return requestSpecBuilder.build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Метод для получения спецификации RestAssured для запросов, тело ответа которых читается потоком через asInputStream().
+     * В спецификации нет фильтров и логирования при ошибке проверки (оно тоже добавляет фильтр): при любом фильтре в цепочке
+     * RestAssured вычитывает тело ответа целиком до возврата из get(), поэтому такой запрос не попадает в замеры StartupProfiler.
+     * Подключение возвращается в пул при закрытии потока тела ответа
+     *
+     * @return объект RequestSpecification без фильтров
+     */
+    public RequestSpecification initStreamingRequestSpecification() {
+        return new RequestSpecBuilder()
+                .setConfig(restAssuredConfig.logConfig(LogConfig.logConfig()))
+                .setBaseUri(baseUri)
+                .setAccept(ContentType.JSON)
+                .build();
+    }
+}
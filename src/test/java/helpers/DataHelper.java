@@ -1,9 +1,9 @@
 package helpers;
 
+import com.github.javafaker.Address;
 import com.github.javafaker.Faker;
 
 import java.math.BigDecimal;
-import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -13,14 +13,9 @@ import java.util.concurrent.ThreadLocalRandom;
 public class DataHelper {
 
     /**
-     * Экземпляр для Faker
+     * Экземпляр Faker, свой для каждого потока (Faker не потокобезопасен)
      */
-    private static final Faker faker = new Faker();
-
-    /**
-     * Экземпляр для Random
-     */
-    private static final Random random = new Random();
+    private static final ThreadLocal<Faker> faker = ThreadLocal.withInitial(() -> StartupProfiler.fakerInit(Faker::new));
 
     /**
      * Константы кодов ответов выполнения запросов
@@ -54,7 +49,7 @@ public class DataHelper {
      * @return сгенерированное название продукта
      */
     public static String getNameProduct() {
-        return NAME_PRODUCT[random.nextInt(NAME_PRODUCT.length)];
+        return NAME_PRODUCT[ThreadLocalRandom.current().nextInt(NAME_PRODUCT.length)];
     }
 
     /**
@@ -66,13 +61,22 @@ public class DataHelper {
         return UUID.randomUUID().toString();
     }
 
+    /**
+     * Метод генерации артикула продукта, помеченного ID текущего прогона
+     *
+     * @return сгенерированный артикул (UUID)
+     */
+    public static String getArticle() {
+        return TestRun.article();
+    }
+
     /**
      * Метод генерации категории продукта из представленных в CATEGORY_PRODUCT
      *
      * @return сгенерированная категория
      */
     public static String getCategoryProduct() {
-        return CATEGORY_PRODUCT[random.nextInt(CATEGORY_PRODUCT.length)];
+        return CATEGORY_PRODUCT[ThreadLocalRandom.current().nextInt(CATEGORY_PRODUCT.length)];
     }
 
     /**
@@ -81,7 +85,7 @@ public class DataHelper {
      * @return сгенерированное Dictionary
      */
     public static String getDictionaryProduct() {
-        return faker.regexify(DICTIONARY_PRODUCT);
+        return faker.get().regexify(DICTIONARY_PRODUCT);
     }
 
     /**
@@ -121,16 +125,16 @@ public class DataHelper {
      * @return сгенерированный email
      */
     public static String getCustomerRandomEmail() {
-        return faker.regexify(EMAIL_CUSTOMER);
+        return faker.get().regexify(EMAIL_CUSTOMER);
     }
 
     /**
-     * Метод генерации login для customer
+     * Метод генерации login для customer, помеченного ID текущего прогона
      *
      * @return сгенерированный login
      */
     public static String getCustomerRandomNickName() {
-        return faker.funnyName().name();
+        return TestRun.login(faker.get().funnyName().name());
     }
 
     /**
@@ -139,9 +143,10 @@ public class DataHelper {
      * @return сгенерированный адрес
      */
     public static String generateSimpleAddress() {
-        return faker.address().streetAddressNumber() + " " +
-                faker.address().streetName() + " " +
-                faker.address().city() + " " +
-                faker.address().zipCode().split("-")[0];
+        Address address = faker.get().address();
+        return address.streetAddressNumber() + " " +
+                address.streetName() + " " +
+                address.city() + " " +
+                address.zipCode().split("-")[0];
     }
 }
\ No newline at end of file
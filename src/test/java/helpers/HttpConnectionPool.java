@@ -0,0 +1,199 @@
+package helpers;
+
+import config.BaseConfig;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.aeonbits.owner.ConfigCache;
+import org.apache.http.HttpHost;
+import org.apache.http.client.HttpClient;
+import org.apache.http.conn.ClientConnectionRequest;
+import org.apache.http.conn.ClientConnectionOperator;
+import org.apache.http.conn.OperatedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.DefaultClientConnectionOperator;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Класс общего пула HTTP-подключений с keep-alive для всех запросов RestAssured.
+ * RestAssured создает HttpClient на каждый запрос через фабрику, все клиенты берут подключения из одного пула.
+ * Используется API DefaultHttpClient, так как RestAssured работает только с ним.
+ * Подключение возвращается в пул, когда тело ответа прочитано до конца или поток тела закрыт,
+ * поэтому в спецификацию запросов добавляется releaseConnectionFilter().
+ * Запросы, тело ответа которых читается потоком, выполняются по спецификации без фильтров
+ * (BaseRequests.initStreamingRequestSpecification()) и освобождают подключение при закрытии потока
+ */
+@SuppressWarnings("deprecation")
+public final class HttpConnectionPool {
+
+    /**
+     * Экземпляр конфигурации
+     */
+    private static final BaseConfig config = ConfigCache.getOrCreate(BaseConfig.class, System.getenv());
+
+    /**
+     * Метрики использования пула
+     */
+    private static final LongAdder leaseCount = new LongAdder();
+    private static final LongAdder openedConnections = new LongAdder();
+    private static final AtomicInteger maxLeased = new AtomicInteger();
+    private static final AtomicInteger maxPending = new AtomicInteger();
+
+    /**
+     * Менеджер подключений, общий для всех клиентов
+     */
+    private static final SharedConnectionManager connectionManager = createConnectionManager();
+
+    /**
+     * Фильтр, дочитывающий тело ответа, чтобы подключение сразу вернулось в пул
+     */
+    private static final Filter RELEASE_CONNECTION = new ReleaseConnectionFilter();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(HttpConnectionPool::shutdown, "http-pool-shutdown"));
+    }
+
+    private HttpConnectionPool() {
+    }
+
+    /**
+     * Метод создания HttpClient поверх общего пула, используется как фабрика HttpClientConfig RestAssured
+     *
+     * @return экземпляр HttpClient
+     */
+    public static HttpClient createHttpClient() {
+        DefaultHttpClient client = new DefaultHttpClient(connectionManager);
+        HttpParams params = client.getParams();
+        HttpConnectionParams.setConnectionTimeout(params, config.httpConnectTimeoutMs());
+        HttpConnectionParams.setSoTimeout(params, config.httpReadTimeoutMs());
+        long keepAliveMs = config.httpKeepAliveMs();
+        // Значение keep-alive из ответа сервера ограничивается сверху значением из конфигурации
+        client.setKeepAliveStrategy((response, context) -> {
+            long serverKeepAliveMs = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAliveMs > 0 ? Math.min(serverKeepAliveMs, keepAliveMs) : keepAliveMs;
+        });
+        return client;
+    }
+
+    /**
+     * Метод получения фильтра, который читает тело каждого ответа сразу после получения.
+     * Без него подключение ответа, тело которого не запрашивалось, остается занятым
+     *
+     * @return фильтр RestAssured
+     */
+    public static Filter releaseConnectionFilter() {
+        return RELEASE_CONNECTION;
+    }
+
+    /**
+     * Метод получения текущих метрик пула в виде строки для отчета
+     *
+     * @return метрики пула
+     */
+    public static String getStats() {
+        PoolStats stats = connectionManager.getTotalStats();
+        long leases = leaseCount.sum();
+        long opened = openedConnections.sum();
+        double reuseRatio = leases == 0 ? 0 : Math.max(0, leases - opened) * 100.0 / leases;
+        return String.format("HTTP pool: leased=%d, available=%d, pending=%d, max=%d, maxLeased=%d, maxPending=%d, "
+                        + "leases=%d, opened=%d, reuse=%.1f%%",
+                stats.getLeased(), stats.getAvailable(), stats.getPending(), stats.getMax(),
+                maxLeased.get(), maxPending.get(), leases, opened, reuseRatio);
+    }
+
+    /**
+     * Метод создания менеджера подключений по параметрам из config.properties
+     *
+     * @return менеджер подключений
+     */
+    private static SharedConnectionManager createConnectionManager() {
+        SharedConnectionManager manager = new SharedConnectionManager(SchemeRegistryFactory.createDefault());
+        manager.setMaxTotal(config.httpMaxTotal());
+        manager.setDefaultMaxPerRoute(config.httpMaxPerRoute());
+        return manager;
+    }
+
+    /**
+     * Метод закрытия пула с выводом итоговых метрик по завершении прогона
+     */
+    private static void shutdown() {
+        if (leaseCount.sum() > 0) {
+            System.out.println(getStats());
+        }
+        connectionManager.close();
+    }
+
+    /**
+     * Фильтр, буферизующий тело ответа каждого запроса
+     */
+    private static class ReleaseConnectionFilter implements Filter {
+
+        @Override
+        public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                               FilterContext ctx) {
+            Response response = ctx.next(requestSpec, responseSpec);
+            response.asByteArray();
+            return response;
+        }
+    }
+
+    /**
+     * Менеджер подключений, который не закрывается клиентами RestAssured после каждого ответа
+     * и считает выдачи и открытия физических подключений
+     */
+    private static class SharedConnectionManager extends PoolingClientConnectionManager {
+
+        SharedConnectionManager(SchemeRegistry schemeRegistry) {
+            super(schemeRegistry);
+        }
+
+        @Override
+        public ClientConnectionRequest requestConnection(HttpRoute route, Object state) {
+            leaseCount.increment();
+            PoolStats stats = getTotalStats();
+            maxLeased.accumulateAndGet(stats.getLeased() + 1, Math::max);
+            maxPending.accumulateAndGet(stats.getPending(), Math::max);
+            return super.requestConnection(route, state);
+        }
+
+        @Override
+        protected ClientConnectionOperator createConnectionOperator(SchemeRegistry schemeRegistry) {
+            return new DefaultClientConnectionOperator(schemeRegistry) {
+
+                @Override
+                public void openConnection(OperatedClientConnection connection, HttpHost target, InetAddress local,
+                                           HttpContext context, HttpParams params) throws IOException {
+                    openedConnections.increment();
+                    super.openConnection(connection, target, local, context, params);
+                }
+            };
+        }
+
+        @Override
+        public void shutdown() {
+            // RestAssured закрывает менеджер подключений после чтения каждого ответа, общий пул закрывается только в close()
+        }
+
+        /**
+         * Метод закрытия пула и всех подключений
+         */
+        void close() {
+            super.shutdown();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package helpers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import config.BaseConfig;
+import dto.order.OrderCreateRequest;
+import dto.order.OrderCreateResponse;
+import dto.order.OrderGetResponse;
+import dto.order.OrderUpdateRequest;
+import dto.product.ProductCreateRequest;
+import dto.product.ProductCreateResponse;
+import dto.product.ProductGetByIdResponse;
+import dto.product.ProductUpdateRequest;
+import dto.product.ProductUpdateResponse;
+import org.aeonbits.owner.ConfigCache;
+
+/**
+ * Общий ObjectMapper для сериализации тел запросов и ответов.
+ * Создается один раз на JVM, кэши сериализаторов Jackson сохраняются между запросами,
+ * сериализаторы и десериализаторы всех DTO строятся заранее при инициализации класса
+ */
+public final class JsonMapper {
+
+    /**
+     * Классы DTO, для которых сериализаторы строятся заранее
+     */
+    private static final Class<?>[] DTO_CLASSES = {
+            ProductCreateRequest.class, ProductCreateResponse.class, ProductGetByIdResponse.class,
+            ProductUpdateRequest.class, ProductUpdateResponse.class,
+            OrderCreateRequest.class, OrderCreateRequest.Products.class, OrderCreateResponse.class,
+            OrderGetResponse.class, OrderGetResponse.Products.class,
+            OrderUpdateRequest.class, OrderUpdateRequest.Products.class
+    };
+
+    /**
+     * Экземпляр ObjectMapper (потокобезопасен после настройки)
+     */
+    private static final ObjectMapper MAPPER = create(ConfigCache.getOrCreate(BaseConfig.class, System.getenv()).jacksonBlackbird());
+
+    private JsonMapper() {
+    }
+
+    /**
+     * Метод получения общего ObjectMapper
+     *
+     * @return ObjectMapper
+     */
+    public static ObjectMapper get() {
+        return MAPPER;
+    }
+
+    /**
+     * Метод создания ObjectMapper с заранее построенными сериализаторами DTO
+     *
+     * @param blackbird подключать ли модуль Blackbird (доступ к полям через сгенерированные лямбды вместо reflection)
+     * @return ObjectMapper
+     */
+    public static ObjectMapper create(boolean blackbird) {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        if (blackbird) {
+            mapper.registerModule(new BlackbirdModule());
+        }
+        for (Class<?> dtoClass : DTO_CLASSES) {
+            if (!mapper.canSerialize(dtoClass) || !mapper.canDeserialize(mapper.constructType(dtoClass))) {
+                System.err.println("Jackson: no serializer for " + dtoClass.getName());
+            }
+        }
+        return mapper;
+    }
+}
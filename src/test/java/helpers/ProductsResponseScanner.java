@@ -0,0 +1,68 @@
+package helpers;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Класс потокового разбора ответа GET products (массив объектов product).
+ * Тело читается потоковым JsonParser прямо из InputStream ответа: в памяти находится только текущий токен,
+ * чтение прекращается, как только найдены все искомые id
+ */
+public final class ProductsResponseScanner {
+
+    /**
+     * Общая фабрика парсеров (потокобезопасна и переиспользуется между вызовами)
+     */
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * Имя поля идентификатора продукта
+     */
+    private static final String ID_FIELD = "id";
+
+    private ProductsResponseScanner() {
+    }
+
+    /**
+     * Метод поиска id продуктов в теле ответа
+     *
+     * @param body   тело ответа, закрывается после разбора
+     * @param wanted искомые id
+     * @return найденные id (подмножество wanted)
+     */
+    public static Set<String> findIds(InputStream body, Collection<String> wanted) {
+        Set<String> remaining = new HashSet<>(wanted);
+        Set<String> found = new HashSet<>();
+        try (InputStream in = body;
+             JsonParser parser = JSON_FACTORY.createParser(in)) {
+            if (remaining.isEmpty() || parser.nextToken() != JsonToken.START_ARRAY) {
+                return found;
+            }
+            while (!remaining.isEmpty() && parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    JsonToken value = parser.nextToken();
+                    if (ID_FIELD.equals(field) && value == JsonToken.VALUE_STRING) {
+                        String id = parser.getText();
+                        if (remaining.remove(id)) {
+                            found.add(id);
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to parse products response", e);
+        }
+        return found;
+    }
+}
@@ -0,0 +1,151 @@
+package helpers;
+
+import io.restassured.filter.Filter;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Класс учета стоимости запуска тестовой JVM: время от старта JVM до первого теста и количество загруженных классов,
+ * инициализация общих настроек (RestAssured, Jackson, пул HTTP), создание Faker и прогрев на первом HTTP-запросе.
+ * Итог выводится при завершении JVM вместе с оценкой (не замером) экономии от запуска нескольких тестовых классов в одной JVM:
+ * стоимость запуска одного класса, умноженная на количество классов без первого
+ */
+public final class StartupProfiler {
+
+    /**
+     * Время от старта JVM до загрузки профилировщика и количество загруженных к этому моменту классов
+     */
+    private static final long jvmUptimeMs = ManagementFactory.getRuntimeMXBean().getUptime();
+    private static final long classesAtStart = ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount();
+
+    /**
+     * Инициализация общих настроек тестов
+     */
+    private static final AtomicLong bootstrapNanos = new AtomicLong(-1);
+    private static final AtomicLong bootstrapClasses = new AtomicLong();
+
+    /**
+     * Создание экземпляров Faker (по одному на поток)
+     */
+    private static final LongAdder fakerInitNanos = new LongAdder();
+    private static final LongAdder fakerInits = new LongAdder();
+
+    /**
+     * Первый HTTP-запрос JVM и все последующие
+     */
+    private static final AtomicLong firstRequestNanos = new AtomicLong(-1);
+    private static final LongAdder nextRequestsNanos = new LongAdder();
+    private static final LongAdder nextRequests = new LongAdder();
+
+    /**
+     * Тестовые классы, выполненные в этой JVM
+     */
+    private static final Set<String> testClasses = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Фильтр RestAssured, измеряющий время запросов
+     */
+    private static final Filter REQUEST_TIMING = (requestSpec, responseSpec, ctx) -> {
+        long start = System.nanoTime();
+        try {
+            return ctx.next(requestSpec, responseSpec);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (!firstRequestNanos.compareAndSet(-1, elapsed)) {
+                nextRequestsNanos.add(elapsed);
+                nextRequests.increment();
+            }
+        }
+    };
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(StartupProfiler::report, "startup-profiler-report"));
+    }
+
+    private StartupProfiler() {
+    }
+
+    /**
+     * Метод замера инициализации общих настроек тестов, учитывается только первый вызов
+     *
+     * @param initializer инициализация
+     * @return результат инициализации
+     */
+    public static <T> T bootstrap(Supplier<T> initializer) {
+        ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+        long classesBefore = classLoading.getTotalLoadedClassCount();
+        long start = System.nanoTime();
+        T result = initializer.get();
+        if (bootstrapNanos.compareAndSet(-1, System.nanoTime() - start)) {
+            bootstrapClasses.set(classLoading.getTotalLoadedClassCount() - classesBefore);
+        }
+        return result;
+    }
+
+    /**
+     * Метод замера создания экземпляра Faker
+     *
+     * @param factory создание Faker
+     * @return экземпляр Faker
+     */
+    public static <T> T fakerInit(Supplier<T> factory) {
+        long start = System.nanoTime();
+        T faker = factory.get();
+        fakerInitNanos.add(System.nanoTime() - start);
+        fakerInits.increment();
+        return faker;
+    }
+
+    /**
+     * Метод регистрации тестового класса, выполняемого в этой JVM
+     *
+     * @param testClass тестовый класс
+     */
+    public static void testClass(Class<?> testClass) {
+        testClasses.add(testClass.getName());
+    }
+
+    /**
+     * Метод получения фильтра, измеряющего время HTTP-запросов для оценки прогрева
+     *
+     * @return фильтр RestAssured
+     */
+    public static Filter requestTimingFilter() {
+        return REQUEST_TIMING;
+    }
+
+    /**
+     * Метод вывода итогов по завершении JVM
+     */
+    private static void report() {
+        if (testClasses.isEmpty()) {
+            return;
+        }
+        long bootstrapMs = TimeUnit.NANOSECONDS.toMillis(Math.max(0, bootstrapNanos.get()));
+        long inits = fakerInits.sum();
+        long fakerMs = inits == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(fakerInitNanos.sum() / inits);
+        long firstRequestMs = TimeUnit.NANOSECONDS.toMillis(Math.max(0, firstRequestNanos.get()));
+        long requests = nextRequests.sum();
+        long nextRequestMs = requests == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(nextRequestsNanos.sum() / requests);
+        long warmupMs = Math.max(0, firstRequestMs - nextRequestMs);
+        CompilationMXBean compilation = ManagementFactory.getCompilationMXBean();
+        long jitMs = compilation != null && compilation.isCompilationTimeMonitoringSupported()
+                ? compilation.getTotalCompilationTime() : 0;
+        // Оценка, а не замер: без общей JVM каждый следующий класс заново платил бы за старт JVM, инициализацию, Faker и прогрев
+        long perClassMs = jvmUptimeMs + bootstrapMs + fakerMs + warmupMs;
+        System.out.printf("Startup profile: classes=%d, jvmStart=%d ms, loadedClassesAtStart=%d, bootstrap=%d ms, loadedClassesByBootstrap=%d, "
+                        + "fakerInit=%d ms x%d, firstRequest=%d ms, nextRequestAvg=%d ms, warmup=%d ms, jit=%d ms, "
+                        + "estimatedStartupPerClass=%d ms, estimatedSavedBySharedJvm=%d ms%n",
+                testClasses.size(), jvmUptimeMs, classesAtStart, bootstrapMs, bootstrapClasses.get(),
+                fakerMs, inits, firstRequestMs, nextRequestMs, warmupMs, jitMs,
+                perClassMs, perClassMs * (testClasses.size() - 1));
+    }
+}
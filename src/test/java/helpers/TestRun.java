@@ -0,0 +1,71 @@
+package helpers;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Идентификатор текущего прогона тестов и пометка создаваемых тестами данных.
+ * ID прогона - время его старта в секундах Unix, 8 hex-символов, поэтому ID прогонов сравниваются как строки.
+ * Артикулы product остаются UUID: первая группа - ID прогона, последняя начинается с маркера тестовых данных.
+ * Логины customer начинаются с префикса и ID прогона. По этим меткам TestDataSweeper находит данные старых прогонов
+ */
+public final class TestRun {
+
+    /**
+     * Маркер тестовых данных в последней группе UUID артикула
+     */
+    public static final String ARTICLE_MARKER = "7e57da7a";
+
+    /**
+     * Префикс логина customer
+     */
+    public static final String LOGIN_PREFIX = "tst_";
+
+    /**
+     * ID текущего прогона
+     */
+    private static final String ID = toRunId(System.currentTimeMillis() / 1000);
+
+    private TestRun() {
+    }
+
+    /**
+     * Метод получения ID текущего прогона
+     *
+     * @return ID прогона
+     */
+    public static String id() {
+        return ID;
+    }
+
+    /**
+     * Метод получения ID прогона, стартовавшего в заданный момент
+     *
+     * @param epochSeconds время старта в секундах Unix
+     * @return ID прогона
+     */
+    public static String toRunId(long epochSeconds) {
+        return String.format("%08x", epochSeconds & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Метод генерации артикула, помеченного ID текущего прогона (UUID версии 4)
+     *
+     * @return артикул
+     */
+    public static String article() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return String.format("%s-%04x-4%03x-%04x-%s%04x", ID,
+                random.nextInt(0x10000), random.nextInt(0x1000), 0x8000 | random.nextInt(0x4000),
+                ARTICLE_MARKER, random.nextInt(0x10000));
+    }
+
+    /**
+     * Метод пометки логина customer ID текущего прогона
+     *
+     * @param name сгенерированное имя
+     * @return логин
+     */
+    public static String login(String name) {
+        return LOGIN_PREFIX + ID + "_" + name;
+    }
+}
@@ -0,0 +1,172 @@
+package helpers;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Компактное множество UUID на примитивах: каждый UUID хранится как два long в одном массиве
+ * с открытой адресацией и линейным пробированием, без объектов-оберток на элемент.
+ * Не потокобезопасно
+ */
+public class UuidHashSet {
+
+    /**
+     * Максимальная доля заполнения таблицы до увеличения
+     */
+    private static final double LOAD_FACTOR = 0.5;
+
+    /**
+     * Таблица пар (старшие 64 бита, младшие 64 бита). Пара (0, 0) означает пустую ячейку
+     */
+    private long[] table;
+
+    /**
+     * Маска индекса ячейки, количество ячеек - степень двойки
+     */
+    private int mask;
+
+    /**
+     * Количество элементов, кроме нулевого UUID
+     */
+    private int size;
+
+    /**
+     * Признак наличия нулевого UUID, который нельзя хранить в таблице
+     */
+    private boolean containsZero;
+
+    /**
+     * Конструктор множества с ожидаемым количеством элементов
+     *
+     * @param expectedSize ожидаемое количество элементов
+     */
+    public UuidHashSet(int expectedSize) {
+        int slots = Integer.highestOneBit((int) Math.max(16, Math.min(1 << 29, expectedSize / LOAD_FACTOR)) - 1) << 1;
+        table = new long[slots * 2];
+        mask = slots - 1;
+    }
+
+    /**
+     * Метод добавления UUID
+     *
+     * @param uuid добавляемый UUID
+     * @return true, если элемента не было в множестве
+     */
+    public boolean add(UUID uuid) {
+        return add(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Метод добавления UUID, заданного двумя половинами
+     *
+     * @param hi старшие 64 бита
+     * @param lo младшие 64 бита
+     * @return true, если элемента не было в множестве
+     */
+    public boolean add(long hi, long lo) {
+        if (hi == 0 && lo == 0) {
+            boolean added = !containsZero;
+            containsZero = true;
+            return added;
+        }
+        int slot = findSlot(table, mask, hi, lo);
+        if (table[slot * 2] != 0 || table[slot * 2 + 1] != 0) {
+            return false;
+        }
+        table[slot * 2] = hi;
+        table[slot * 2 + 1] = lo;
+        if (++size > (mask + 1) * LOAD_FACTOR) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Метод проверки наличия UUID
+     *
+     * @param uuid проверяемый UUID
+     * @return true, если элемент есть в множестве
+     */
+    public boolean contains(UUID uuid) {
+        long hi = uuid.getMostSignificantBits();
+        long lo = uuid.getLeastSignificantBits();
+        if (hi == 0 && lo == 0) {
+            return containsZero;
+        }
+        int slot = findSlot(table, mask, hi, lo);
+        return table[slot * 2] != 0 || table[slot * 2 + 1] != 0;
+    }
+
+    /**
+     * Метод проверки наличия всех UUID из коллекции строк
+     *
+     * @param uuids строковые представления UUID
+     * @return true, если все элементы есть в множестве
+     */
+    public boolean containsAll(Collection<String> uuids) {
+        for (String uuid : uuids) {
+            if (!contains(UUID.fromString(uuid))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Метод получения количества элементов
+     *
+     * @return количество элементов
+     */
+    public int size() {
+        return size + (containsZero ? 1 : 0);
+    }
+
+    /**
+     * Метод поиска ячейки с элементом или первой пустой ячейки на пути пробирования
+     *
+     * @return номер ячейки
+     */
+    private static int findSlot(long[] table, int mask, long hi, long lo) {
+        int slot = mix(hi ^ lo) & mask;
+        while (true) {
+            long slotHi = table[slot * 2];
+            long slotLo = table[slot * 2 + 1];
+            if ((slotHi == 0 && slotLo == 0) || (slotHi == hi && slotLo == lo)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Метод перемешивания битов хэша (финализатор MurmurHash3)
+     *
+     * @return хэш
+     */
+    private static int mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        return (int) value;
+    }
+
+    /**
+     * Метод увеличения таблицы в два раза с переносом элементов
+     */
+    private void grow() {
+        long[] oldTable = table;
+        int newMask = (mask + 1) * 2 - 1;
+        long[] newTable = new long[(newMask + 1) * 2];
+        for (int i = 0; i < oldTable.length; i += 2) {
+            long hi = oldTable[i];
+            long lo = oldTable[i + 1];
+            if (hi != 0 || lo != 0) {
+                int slot = findSlot(newTable, newMask, hi, lo);
+                newTable[slot * 2] = hi;
+                newTable[slot * 2 + 1] = lo;
+            }
+        }
+        table = newTable;
+        mask = newMask;
+    }
+}
@@ -0,0 +1,194 @@
+package load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Запись задержек нагрузки в HdrHistogram отдельно для каждой пары "операция статус" (например, "CREATE_ORDER 200",
+ * "GET_ORDER ERR" - ошибка транспорта или таймаут). Значения записываются в микросекундах без блокировок
+ * (Recorder), фоновый поток раз в интервал забирает интервальные гистограммы, пишет их в журнал .hlog
+ * с тегом пары и накапливает итоги по ступени и по прогону
+ */
+public class LatencyRecorder implements AutoCloseable {
+
+    /**
+     * Количество значащих цифр гистограмм
+     */
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    /**
+     * Процентили таблицы итогов
+     */
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    /**
+     * Гистограммы, в которые пишут потоки ответов
+     */
+    private final Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+
+    /**
+     * Запросы, которые не были отправлены, по причине: DROPPED (превышен loadMaxInFlight), NO_DATA (нет данных для операции)
+     */
+    private final Map<String, LongAdder> skipped = new ConcurrentHashMap<>();
+
+    /**
+     * Накопленные гистограммы текущей ступени и всего прогона, изменяются под блокировкой экземпляра
+     */
+    private final Map<String, Histogram> stepHistograms = new TreeMap<>();
+    private final Map<String, Histogram> totalHistograms = new TreeMap<>();
+    private final Map<String, Histogram> recycled = new ConcurrentHashMap<>();
+
+    /**
+     * Журнал интервальных гистограмм
+     */
+    private final HistogramLogWriter log;
+
+    /**
+     * Фоновый поток записи журнала
+     */
+    private final ScheduledExecutorService logger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "load-histogram-log");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param logFile    файл журнала интервальных гистограмм
+     * @param intervalMs интервал записи журнала, мс
+     * @throws FileNotFoundException если файл журнала нельзя создать
+     */
+    public LatencyRecorder(File logFile, long intervalMs) throws FileNotFoundException {
+        File dir = logFile.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new FileNotFoundException("Не удалось создать каталог " + dir);
+        }
+        long now = System.currentTimeMillis();
+        this.log = new HistogramLogWriter(logFile);
+        log.outputLogFormatVersion();
+        log.outputStartTime(now);
+        log.setBaseTime(now);
+        log.outputLegend();
+        logger.scheduleAtFixedRate(this::collectQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Метод записи задержки ответа
+     *
+     * @param operation    операция
+     * @param status       HTTP-статус или ERR
+     * @param latencyNanos задержка, нс
+     */
+    public void record(String operation, String status, long latencyNanos) {
+        recorders.computeIfAbsent(operation + " " + status, key -> new Recorder(SIGNIFICANT_DIGITS))
+                .recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+    }
+
+    /**
+     * Метод учета неотправленного запроса
+     *
+     * @param operation операция
+     * @param reason    причина: DROPPED или NO_DATA
+     */
+    public void skip(String operation, String reason) {
+        skipped.computeIfAbsent(operation + " " + reason, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Метод получения таблицы процентилей текущей ступени с обнулением накопленных значений ступени.
+     * Ответ относится к ступени, в которой он получен, а не к той, в которой запрос был запланирован
+     *
+     * @param title   заголовок таблицы
+     * @param seconds длительность ступени для расчета частоты ответов
+     * @return таблица
+     */
+    public synchronized String stepTable(String title, double seconds) {
+        collect();
+        String table = table(title, stepHistograms, seconds);
+        stepHistograms.clear();
+        return table;
+    }
+
+    /**
+     * Метод получения таблицы процентилей всего прогона вместе со счетчиками неотправленных запросов
+     *
+     * @param title   заголовок таблицы
+     * @param seconds длительность прогона для расчета частоты ответов
+     * @return таблица
+     */
+    public synchronized String totalTable(String title, double seconds) {
+        collect();
+        StringBuilder table = new StringBuilder(table(title, totalHistograms, seconds));
+        new TreeMap<>(skipped).forEach((key, count) -> table.append(String.format("%-28s %10d not sent%n", key, count.sum())));
+        return table.toString();
+    }
+
+    /**
+     * Метод сбора интервальных гистограмм: запись в журнал и добавление к итогам ступени и прогона
+     */
+    private synchronized void collect() {
+        for (Map.Entry<String, Recorder> entry : new TreeMap<>(recorders).entrySet()) {
+            String key = entry.getKey();
+            Histogram interval = entry.getValue().getIntervalHistogram(recycled.remove(key));
+            if (interval.getTotalCount() > 0) {
+                interval.setTag(key.replace(' ', '_'));
+                log.outputIntervalHistogram(interval);
+                stepHistograms.computeIfAbsent(key, k -> new Histogram(SIGNIFICANT_DIGITS)).add(interval);
+                totalHistograms.computeIfAbsent(key, k -> new Histogram(SIGNIFICANT_DIGITS)).add(interval);
+            }
+            recycled.put(key, interval);
+        }
+    }
+
+    /**
+     * Метод фоновой записи журнала: ошибки не должны останавливать периодическую задачу
+     */
+    private void collectQuietly() {
+        try {
+            collect();
+        } catch (RuntimeException e) {
+            System.err.println("Ошибка при записи журнала гистограмм: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Метод форматирования таблицы процентилей, задержки в миллисекундах
+     *
+     * @return таблица
+     */
+    private static String table(String title, Map<String, Histogram> histograms, double seconds) {
+        StringBuilder table = new StringBuilder(String.format("%n%s%n", title));
+        table.append(String.format("%-28s %10s %9s %9s %9s %9s %9s %9s %9s%n",
+                "operation status", "count", "rps", "p50", "p90", "p99", "p99.9", "max", "mean"));
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            table.append(String.format("%-28s %10d %9.1f", entry.getKey(), histogram.getTotalCount(),
+                    seconds > 0 ? histogram.getTotalCount() / seconds : 0));
+            for (double percentile : PERCENTILES) {
+                table.append(String.format(" %9.3f", histogram.getValueAtPercentile(percentile) / 1000d));
+            }
+            table.append(String.format(" %9.3f %9.3f%n", histogram.getMaxValue() / 1000d, histogram.getMean() / 1000d));
+        }
+        return table.toString();
+    }
+
+    /**
+     * Метод остановки записи журнала с выгрузкой последнего интервала
+     */
+    @Override
+    public synchronized void close() {
+        logger.shutdownNow();
+        collect();
+        log.close();
+    }
+}
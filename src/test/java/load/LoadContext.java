@@ -0,0 +1,440 @@
+package load;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import config.BaseConfig;
+import database.CleanupRegistry;
+import database.Repositories;
+import database.StockLedger;
+import dto.order.OrderCreateRequest;
+import dto.order.OrderUpdateRequest;
+import dto.product.ProductCreateRequest;
+import dto.product.ProductCreateResponse;
+import helpers.JsonMapper;
+import org.aeonbits.owner.ConfigCache;
+import stub.WarehouseStub;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static helpers.DataHelper.*;
+
+/**
+ * Общие данные нагрузочного прогона: HTTP-клиент, заранее созданные продукты и customer,
+ * а также заказы, созданные во время прогона (для операций чтения и изменения заказа).
+ * Продукты создаются с большим остатком loadProductQty, чтобы заказы не упирались в нехватку товара.
+ * Все созданные записи отдаются в CleanupRegistry после прогона (close())
+ */
+public class LoadContext implements AutoCloseable {
+
+    /**
+     * Экземпляр конфигурации
+     */
+    private static final BaseConfig config = ConfigCache.getOrCreate(BaseConfig.class, System.getenv());
+
+    /**
+     * Размер кольцевого буфера последних созданных заказов
+     */
+    private static final int RECENT_ORDERS = 4096;
+
+    /**
+     * Количество заранее сгенерированных адресов, логинов и email. Faker хранится в DataHelper по экземпляру
+     * на поток и дорог в создании, поэтому потоки нагрузки берут готовые значения, а не вызывают Faker сами
+     */
+    private static final int GENERATED_VALUES = 256;
+
+    /**
+     * Адрес API: сервис из apiUrl или встроенная заглушка в профиле stub
+     */
+    private final String baseUri;
+
+    /**
+     * Асинхронный HTTP-клиент: запросы отправляются без ожидания ответов на предыдущие
+     */
+    private final HttpClient client;
+
+    /**
+     * Общий ObjectMapper для тел запросов и ответов
+     */
+    private final ObjectMapper mapper = JsonMapper.get();
+
+    /**
+     * Продукты и customer, подготовленные до прогона
+     */
+    private final List<String> productIds = new ArrayList<>();
+    private final List<Integer> customerIds = new ArrayList<>();
+
+    /**
+     * Заранее сгенерированные адреса доставки, логины и email customer
+     */
+    private final List<String> addresses = new ArrayList<>();
+    private final List<String> logins = new ArrayList<>();
+    private final List<String> emails = new ArrayList<>();
+
+    /**
+     * Последние созданные заказы для выбора случайного заказа
+     */
+    private final AtomicReferenceArray<OrderRef> recentOrders = new AtomicReferenceArray<>(RECENT_ORDERS);
+    private final AtomicLong orderSequence = new AtomicLong();
+
+    /**
+     * Все созданные во время прогона заказы, удаляются после прогона
+     */
+    private final Queue<String> createdOrders = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Продукты, созданные во время прогона, удаляются после прогона
+     */
+    private final Queue<String> createdProducts = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Customer, созданные во время прогона, удаляются после прогона
+     */
+    private final Queue<Integer> createdCustomers = new ConcurrentLinkedQueue<>();
+
+    public LoadContext() {
+        this.baseUri = WarehouseStub.apiUrl();
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(config.httpConnectTimeoutMs()))
+                .executor(Executors.newCachedThreadPool(runnable -> {
+                    Thread thread = new Thread(runnable, "load-http");
+                    thread.setDaemon(true);
+                    return thread;
+                }))
+                .build();
+    }
+
+    /**
+     * Метод подготовки данных прогона: сгенерированные значения, loadProducts продуктов через API
+     * и loadCustomers customer одним запросом
+     *
+     * @throws IllegalStateException если данные не удалось создать
+     */
+    public void prepare() {
+        for (int i = 0; i < GENERATED_VALUES; i++) {
+            addresses.add(generateSimpleAddress());
+            logins.add(getCustomerRandomNickName());
+            emails.add(getCustomerRandomEmail());
+        }
+        for (int i = 0; i < config.loadProducts(); i++) {
+            productIds.add(createProduct(config.loadProductQty()));
+        }
+        List<String> customerLogins = new ArrayList<>();
+        List<String> customerEmails = new ArrayList<>();
+        for (int i = 0; i < config.loadCustomers(); i++) {
+            customerLogins.add(logins.get(i % GENERATED_VALUES));
+            customerEmails.add(emails.get(i % GENERATED_VALUES));
+        }
+        customerIds.addAll(Repositories.orders().createCustomers(customerLogins, customerEmails));
+        if (productIds.isEmpty() || customerIds.isEmpty()) {
+            throw new IllegalStateException("Для нагрузки нужен хотя бы один product и один customer");
+        }
+    }
+
+    /**
+     * Метод создания продукта через API. Продукт не передается в CleanupRegistry: это делает вызывающий код
+     *
+     * @param qty остаток продукта
+     * @return id продукта
+     */
+    public String createProduct(int qty) {
+        ProductCreateRequest request = newProductRequest(qty);
+        try {
+            HttpResponse<String> response = client.send(request(config.createProductEndpoint())
+                    .POST(json(request))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != STATUS_CODE_CREATED) {
+                throw new IllegalStateException("Не удалось создать product для нагрузки: " + response.statusCode() + " " + response.body());
+            }
+            String id = mapper.readValue(response.body(), ProductCreateResponse.class).getId();
+            StockLedger.opened(id, qty);
+            return id;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Подготовка нагрузки прервана", e);
+        }
+    }
+
+    /**
+     * Метод генерации данных нового продукта
+     *
+     * @param qty остаток продукта
+     * @return запрос создания продукта
+     */
+    public ProductCreateRequest newProductRequest(int qty) {
+        return ProductCreateRequest.builder()
+                .name(getNameProduct())
+                .article(getArticle())
+                .category(getCategoryProduct())
+                .dictionary(getDictionaryProduct())
+                .price(generateRandomPrice())
+                .qty(qty)
+                .build();
+    }
+
+    /**
+     * Метод получения заготовки запроса к эндпоинту API
+     *
+     * @param path эндпоинт из конфигурации, при необходимости с id
+     * @return заготовка запроса с Content-Type и таймаутом loadRequestTimeoutMs
+     */
+    public HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUri + path.replaceFirst("^/+", "")))
+                .timeout(Duration.ofMillis(config.loadRequestTimeoutMs()))
+                .header("Content-Type", "application/json");
+    }
+
+    /**
+     * Метод построения запроса создания заказа из продуктов по одной штуке
+     *
+     * @param customerId владелец заказа
+     * @param productIds продукты заказа
+     * @return запрос POST createOrderEndpoint
+     */
+    public HttpRequest createOrderRequest(int customerId, List<String> productIds) {
+        return request(config.createOrderEndpoint())
+                .header(CUSTOMER_ID, String.valueOf(customerId))
+                .POST(json(newOrderRequest(productIds)))
+                .build();
+    }
+
+    /**
+     * Метод генерации данных нового заказа из продуктов по одной штуке
+     *
+     * @param productIds продукты заказа
+     * @return запрос создания заказа
+     */
+    public OrderCreateRequest newOrderRequest(List<String> productIds) {
+        List<OrderCreateRequest.Products> lines = new ArrayList<>(productIds.size());
+        for (String productId : productIds) {
+            lines.add(OrderCreateRequest.Products.builder().id(productId).qty(1).build());
+        }
+        return OrderCreateRequest.builder()
+                .deliveryAddress(addresses.get(ThreadLocalRandom.current().nextInt(addresses.size())))
+                .products(lines)
+                .build();
+    }
+
+    /**
+     * Метод построения запроса получения заказа
+     *
+     * @return запрос GET getOrderByIdEndpoint
+     */
+    public HttpRequest getOrderRequest(OrderRef order) {
+        return request(config.getOrderByIdEndpoint() + order.getId())
+                .header(CUSTOMER_ID, String.valueOf(order.getCustomerId()))
+                .GET()
+                .build();
+    }
+
+    /**
+     * Метод построения запроса замены состава заказа на одну штуку продукта
+     *
+     * @return запрос PATCH updateOrderEndpoint
+     */
+    public HttpRequest updateOrderRequest(OrderRef order, String productId) {
+        return request(config.updateOrderEndpoint() + order.getId())
+                .header(CUSTOMER_ID, String.valueOf(order.getCustomerId()))
+                .method("PATCH", json(newUpdateRequest(productId)))
+                .build();
+    }
+
+    /**
+     * Метод генерации данных замены состава заказа на одну штуку продукта
+     *
+     * @return запрос изменения заказа
+     */
+    public OrderUpdateRequest newUpdateRequest(String productId) {
+        return OrderUpdateRequest.builder()
+                .products(List.of(OrderUpdateRequest.Products.builder().id(productId).qty(1).build()))
+                .build();
+    }
+
+    /**
+     * Метод построения запроса отмены заказа
+     *
+     * @return запрос DELETE deleteOrderEndpoint
+     */
+    public HttpRequest deleteOrderRequest(OrderRef order) {
+        return request(config.deleteOrderEndpoint() + order.getId())
+                .header(CUSTOMER_ID, String.valueOf(order.getCustomerId()))
+                .DELETE()
+                .build();
+    }
+
+    /**
+     * Метод сериализации тела запроса
+     *
+     * @param body DTO запроса
+     * @return тело запроса
+     */
+    public HttpRequest.BodyPublisher json(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Метод разбора тела ответа
+     *
+     * @return DTO ответа
+     */
+    public <T> T read(String body, Class<T> type) {
+        try {
+            return mapper.readValue(body, type);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public HttpClient getClient() {
+        return client;
+    }
+
+    /**
+     * Метод выбора случайного подготовленного продукта
+     *
+     * @return id продукта
+     */
+    public String randomProduct(Random random) {
+        return productIds.get(random.nextInt(productIds.size()));
+    }
+
+    /**
+     * Метод выбора нескольких разных случайных подготовленных продуктов
+     *
+     * @param count количество продуктов, не больше подготовленных
+     * @return id продуктов
+     */
+    public List<String> randomProducts(Random random, int count) {
+        Set<String> picked = new LinkedHashSet<>();
+        int limit = Math.min(count, productIds.size());
+        while (picked.size() < limit) {
+            picked.add(randomProduct(random));
+        }
+        return new ArrayList<>(picked);
+    }
+
+    /**
+     * Метод выбора случайного подготовленного customer
+     *
+     * @return id customer
+     */
+    public int randomCustomer(Random random) {
+        return customerIds.get(random.nextInt(customerIds.size()));
+    }
+
+    /**
+     * Метод создания нового customer из заранее сгенерированных логина и email
+     *
+     * @return id customer или null при ошибке
+     */
+    public Integer createCustomer(Random random) {
+        return Repositories.orders().createCustomer(logins.get(random.nextInt(logins.size())),
+                emails.get(random.nextInt(emails.size())));
+    }
+
+    /**
+     * Метод регистрации заказа, созданного во время прогона
+     *
+     * @param id         заказа
+     * @param customerId владелец заказа
+     */
+    public void orderCreated(String id, int customerId) {
+        createdOrders.add(id);
+        long index = orderSequence.getAndIncrement();
+        recentOrders.set((int) (index % RECENT_ORDERS), new OrderRef(id, customerId));
+    }
+
+    /**
+     * Метод регистрации продукта, созданного во время прогона
+     *
+     * @param id  продукта
+     * @param qty остаток продукта при создании
+     */
+    public void productCreated(String id, int qty) {
+        StockLedger.opened(id, qty);
+        createdProducts.add(id);
+    }
+
+    /**
+     * Метод регистрации customer, созданного во время прогона
+     *
+     * @param id customer, null игнорируется
+     */
+    public void customerCreated(Integer id) {
+        if (id != null) {
+            createdCustomers.add(id);
+        }
+    }
+
+    /**
+     * Метод выбора случайного заказа среди последних созданных
+     *
+     * @return заказ или null, если заказов еще нет
+     */
+    public OrderRef randomOrder(Random random) {
+        long created = orderSequence.get();
+        if (created == 0) {
+            return null;
+        }
+        int bound = (int) Math.min(created, RECENT_ORDERS);
+        return recentOrders.get(random.nextInt(bound));
+    }
+
+    /**
+     * Метод передачи созданных данных на удаление в CleanupRegistry. Данные регистрируются только после прогона,
+     * чтобы фоновая очистка не удаляла их во время нагрузки
+     */
+    @Override
+    public void close() {
+        createdOrders.forEach(CleanupRegistry::registerOrder);
+        createdCustomers.forEach(CleanupRegistry::registerCustomer);
+        customerIds.forEach(CleanupRegistry::registerCustomer);
+        productIds.forEach(CleanupRegistry::registerProduct);
+        createdProducts.forEach(CleanupRegistry::registerProduct);
+    }
+
+    /**
+     * Заказ, созданный во время прогона, вместе с владельцем
+     */
+    public static final class OrderRef {
+
+        private final String id;
+        private final int customerId;
+
+        public OrderRef(String id, int customerId) {
+            this.id = id;
+            this.customerId = customerId;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public int getCustomerId() {
+            return customerId;
+        }
+    }
+}
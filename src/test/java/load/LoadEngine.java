@@ -0,0 +1,191 @@
+package load;
+
+import config.BaseConfig;
+import helpers.TestRun;
+import org.aeonbits.owner.ConfigCache;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Генератор нагрузки открытой модели: запросы отправляются с заданной частотой (RateProfile) независимо от того,
+ * успел ли сервис ответить на предыдущие, операции выбираются из смеси LoadMix.
+ * Для каждого запроса заранее вычисляется запланированное время отправки, задержка считается от него,
+ * а не от фактической отправки, поэтому отставание планировщика и очереди на стороне сервиса попадают в задержку
+ * (без coordinated omission). Запросы сверх loadMaxInFlight одновременно ожидающих ответа не отправляются
+ * и учитываются как DROPPED. Результат: таблицы процентилей по ступеням и за прогон, журнал гистограмм .hlog
+ * и копия таблиц в .txt в каталоге loadOutputDir.
+ * Запуск: ./gradlew load -Prate=50:30,100:30 -Pmix=CREATE_ORDER:5,GET_ORDER:4,UPDATE_ORDER:1 [-Pprofile=stub]
+ */
+public class LoadEngine {
+
+    /**
+     * Экземпляр конфигурации
+     */
+    private static final BaseConfig config = ConfigCache.getOrCreate(BaseConfig.class, System.getenv());
+
+    /**
+     * Причины, по которым запрос не был отправлен
+     */
+    private static final String DROPPED = "DROPPED";
+    private static final String NO_DATA = "NO_DATA";
+
+    /**
+     * Статус запроса, завершившегося ошибкой транспорта или таймаутом
+     */
+    private static final String ERROR = "ERR";
+
+    private final LoadContext context;
+    private final RateProfile profile;
+    private final LoadMix mix;
+    private final LatencyRecorder recorder;
+
+    /**
+     * Количество запросов, ожидающих ответа
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * Источник случайных чисел планировщика (используется только потоком планировщика)
+     */
+    private final Random random = new Random();
+
+    public LoadEngine(LoadContext context, RateProfile profile, LoadMix mix, LatencyRecorder recorder) {
+        this.context = context;
+        this.profile = profile;
+        this.mix = mix;
+        this.recorder = recorder;
+    }
+
+    /**
+     * Метод выполнения профиля нагрузки с выводом таблицы после каждой ступени
+     *
+     * @return таблицы всех ступеней и итоговая таблица
+     * @throws InterruptedException если поток прерван
+     */
+    public String run() throws InterruptedException {
+        StringBuilder report = new StringBuilder();
+        long start = System.nanoTime();
+        long stepStart = start;
+        int stepNumber = 0;
+        for (RateProfile.Step step : profile.getSteps()) {
+            stepNumber++;
+            long arrivals = step.arrivals();
+            for (long i = 0; i < arrivals; i++) {
+                long intended = stepStart + step.offsetNanos(i);
+                parkUntil(intended);
+                fire(intended);
+            }
+            stepStart += TimeUnit.SECONDS.toNanos(step.getSeconds());
+            parkUntil(stepStart);
+            String table = recorder.stepTable(String.format("Step %d: %s rps:s (latency, ms)", stepNumber, step),
+                    step.getSeconds());
+            System.out.print(table);
+            report.append(table);
+        }
+        awaitInFlight();
+        String total = recorder.totalTable(String.format("Total: %s, mix %s (latency, ms)", profile, mix),
+                (System.nanoTime() - start) / 1e9);
+        System.out.print(total);
+        report.append(total);
+        return report.toString();
+    }
+
+    /**
+     * Метод отправки одного запроса, запланированного на момент intended
+     *
+     * @param intended запланированное время отправки, System.nanoTime()
+     */
+    private void fire(long intended) {
+        LoadOperation operation = mix.pick(random);
+        LoadOperation.Call call = operation.call(context, random);
+        if (call == null) {
+            recorder.skip(operation.name(), NO_DATA);
+            return;
+        }
+        if (inFlight.incrementAndGet() > config.loadMaxInFlight()) {
+            inFlight.decrementAndGet();
+            recorder.skip(operation.name(), DROPPED);
+            return;
+        }
+        context.getClient().sendAsync(call.request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    long latency = System.nanoTime() - intended;
+                    try {
+                        if (error != null) {
+                            recorder.record(operation.name(), ERROR, latency);
+                            return;
+                        }
+                        recorder.record(operation.name(), String.valueOf(response.statusCode()), latency);
+                        if (call.onSuccess != null && response.statusCode() / 100 == 2) {
+                            call.onSuccess.accept(response);
+                        }
+                    } catch (RuntimeException e) {
+                        System.err.println("Ошибка обработки ответа " + operation + ": " + e.getMessage());
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+    }
+
+    /**
+     * Метод ожидания ответов на отправленные запросы, не дольше таймаута запроса
+     *
+     * @throws InterruptedException если поток прерван
+     */
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.loadRequestTimeoutMs());
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    /**
+     * Метод ожидания момента времени без активного ожидания
+     *
+     * @param deadline момент времени, System.nanoTime()
+     * @throws InterruptedException если поток прерван
+     */
+    static void parkUntil(long deadline) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Точка входа для запуска из Gradle
+     *
+     * @param args "<профиль rps:секунды,...> <смесь ОПЕРАЦИЯ:вес,...>"
+     */
+    public static void main(String[] args) throws InterruptedException, IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: LoadEngine <rps:seconds[,rps:seconds...]> <OPERATION:weight[,OPERATION:weight...]>");
+            System.exit(1);
+        }
+        RateProfile profile = RateProfile.parse(args[0]);
+        LoadMix mix = LoadMix.parse(args[1]);
+        File logFile = new File(config.loadOutputDir(), "load-" + TestRun.id() + ".hlog");
+        try (LoadContext context = new LoadContext()) {
+            context.prepare();
+            String report;
+            try (LatencyRecorder recorder = new LatencyRecorder(logFile, config.loadLogIntervalMs())) {
+                report = new LoadEngine(context, profile, mix, recorder).run();
+            }
+            File reportFile = new File(config.loadOutputDir(), "load-" + TestRun.id() + ".txt");
+            Files.write(reportFile.toPath(), report.getBytes(StandardCharsets.UTF_8));
+            System.out.printf("%nHistogram log: %s%nReport: %s%n", logFile, reportFile);
+        }
+        System.exit(0);
+    }
+}
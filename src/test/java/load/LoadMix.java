@@ -0,0 +1,79 @@
+package load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Смесь операций нагрузки с весами. Формат: "ОПЕРАЦИЯ:вес[,ОПЕРАЦИЯ:вес...]",
+ * например "CREATE_ORDER:5,GET_ORDER:4,UPDATE_ORDER:1"
+ */
+public final class LoadMix {
+
+    /**
+     * Операции смеси
+     */
+    private final List<LoadOperation> operations = new ArrayList<>();
+
+    /**
+     * Накопленные веса операций: операция i выбирается, если случайное число меньше cumulative[i]
+     */
+    private final int[] cumulative;
+
+    private LoadMix(List<LoadOperation> operations, List<Integer> weights) {
+        this.operations.addAll(operations);
+        this.cumulative = new int[weights.size()];
+        int total = 0;
+        for (int i = 0; i < weights.size(); i++) {
+            total += weights.get(i);
+            cumulative[i] = total;
+        }
+    }
+
+    /**
+     * Метод разбора смеси из строки
+     *
+     * @param spec смесь в формате "ОПЕРАЦИЯ:вес[,ОПЕРАЦИЯ:вес...]", вес по умолчанию 1
+     * @return смесь операций
+     * @throws IllegalArgumentException если операция неизвестна или вес неположительный
+     */
+    public static LoadMix parse(String spec) {
+        List<LoadOperation> operations = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String[] values = part.trim().split(":");
+            int weight = values.length > 1 ? Integer.parseInt(values[1].trim()) : 1;
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Вес операции должен быть положительным: " + part);
+            }
+            operations.add(LoadOperation.valueOf(values[0].trim()));
+            weights.add(weight);
+        }
+        return new LoadMix(operations, weights);
+    }
+
+    /**
+     * Метод случайного выбора операции с учетом весов
+     *
+     * @param random источник случайных чисел
+     * @return операция
+     */
+    public LoadOperation pick(Random random) {
+        int value = random.nextInt(cumulative[cumulative.length - 1]);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (value < cumulative[i]) {
+                return operations.get(i);
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    @Override
+    public String toString() {
+        List<String> parts = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            parts.add(operations.get(i) + ":" + (cumulative[i] - (i == 0 ? 0 : cumulative[i - 1])));
+        }
+        return String.join(",", parts);
+    }
+}
@@ -0,0 +1,114 @@
+package load;
+
+import config.BaseConfig;
+import dto.order.OrderCreateResponse;
+import dto.product.ProductCreateResponse;
+import org.aeonbits.owner.ConfigCache;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static helpers.DataHelper.*;
+
+/**
+ * Операции нагрузки поверх эндпоинтов и DTO тестов. Каждая операция строит один HTTP-запрос
+ * и, при необходимости, обрабатывает успешный ответ (например, запоминает созданный заказ)
+ */
+public enum LoadOperation {
+
+    /**
+     * Создание продукта: POST createProductEndpoint, созданный продукт удаляется после прогона
+     */
+    CREATE_PRODUCT {
+        @Override
+        Call call(LoadContext context, Random random) {
+            int qty = generateRandomQty();
+            return new Call(context.request(config.createProductEndpoint())
+                    .POST(context.json(context.newProductRequest(qty)))
+                    .build(),
+                    response -> context.productCreated(context.read(response.body(), ProductCreateResponse.class).getId(), qty));
+        }
+    },
+
+    /**
+     * Получение подготовленного продукта: GET getProductByIdEndpoint
+     */
+    GET_PRODUCT {
+        @Override
+        Call call(LoadContext context, Random random) {
+            return new Call(context.request(config.getProductByIdEndpoint() + context.randomProduct(random))
+                    .GET()
+                    .build(), null);
+        }
+    },
+
+    /**
+     * Создание заказа из одного-двух подготовленных продуктов по одной штуке: POST createOrderEndpoint
+     */
+    CREATE_ORDER {
+        @Override
+        Call call(LoadContext context, Random random) {
+            int customerId = context.randomCustomer(random);
+            return new Call(context.createOrderRequest(customerId, context.randomProducts(random, 1 + random.nextInt(2))),
+                    response -> context.orderCreated(context.read(response.body(), OrderCreateResponse.class).getId(), customerId));
+        }
+    },
+
+    /**
+     * Получение заказа, созданного во время прогона: GET getOrderByIdEndpoint
+     */
+    GET_ORDER {
+        @Override
+        Call call(LoadContext context, Random random) {
+            LoadContext.OrderRef order = context.randomOrder(random);
+            if (order == null) {
+                return null;
+            }
+            return new Call(context.getOrderRequest(order), null);
+        }
+    },
+
+    /**
+     * Замена состава заказа, созданного во время прогона: PATCH updateOrderEndpoint
+     */
+    UPDATE_ORDER {
+        @Override
+        Call call(LoadContext context, Random random) {
+            LoadContext.OrderRef order = context.randomOrder(random);
+            if (order == null) {
+                return null;
+            }
+            return new Call(context.updateOrderRequest(order, context.randomProduct(random)), null);
+        }
+    };
+
+    /**
+     * Экземпляр конфигурации
+     */
+    private static final BaseConfig config = ConfigCache.getOrCreate(BaseConfig.class, System.getenv());
+
+    /**
+     * Метод построения запроса операции
+     *
+     * @param context данные прогона
+     * @param random  источник случайных чисел потока планировщика
+     * @return запрос или null, если для операции еще нет данных (например, заказов для GET_ORDER)
+     */
+    abstract Call call(LoadContext context, Random random);
+
+    /**
+     * Запрос операции и обработчик успешного (2xx) ответа
+     */
+    static final class Call {
+
+        final HttpRequest request;
+        final Consumer<HttpResponse<String>> onSuccess;
+
+        Call(HttpRequest request, Consumer<HttpResponse<String>> onSuccess) {
+            this.request = request;
+            this.onSuccess = onSuccess;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Профиль интенсивности открытой модели нагрузки: последовательность ступеней с постоянной частотой запросов.
+ * Формат: "rps:секунды[,rps:секунды...]", например "50:60" (постоянная частота) или "50:30,100:30,200:30" (ступени)
+ */
+public final class RateProfile {
+
+    /**
+     * Ступени профиля в порядке выполнения
+     */
+    private final List<Step> steps;
+
+    private RateProfile(List<Step> steps) {
+        this.steps = Collections.unmodifiableList(steps);
+    }
+
+    /**
+     * Метод разбора профиля из строки
+     *
+     * @param spec профиль в формате "rps:секунды[,rps:секунды...]"
+     * @return профиль
+     * @throws IllegalArgumentException если формат неверный
+     */
+    public static RateProfile parse(String spec) {
+        List<Step> steps = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String[] values = part.trim().split(":");
+            if (values.length != 2) {
+                throw new IllegalArgumentException("Ступень нагрузки должна быть задана как rps:секунды: " + part);
+            }
+            double rate = Double.parseDouble(values[0].trim());
+            long seconds = Long.parseLong(values[1].trim());
+            if (rate <= 0 || seconds <= 0) {
+                throw new IllegalArgumentException("Частота и длительность ступени должны быть положительными: " + part);
+            }
+            steps.add(new Step(rate, seconds));
+        }
+        return new RateProfile(steps);
+    }
+
+    /**
+     * Метод получения ступеней профиля
+     *
+     * @return ступени
+     */
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    @Override
+    public String toString() {
+        List<String> parts = new ArrayList<>(steps.size());
+        for (Step step : steps) {
+            parts.add(step.toString());
+        }
+        return String.join(",", parts);
+    }
+
+    /**
+     * Ступень с постоянной частотой запросов
+     */
+    public static final class Step {
+
+        /**
+         * Частота запросов в секунду
+         */
+        private final double rate;
+
+        /**
+         * Длительность ступени, секунды
+         */
+        private final long seconds;
+
+        private Step(double rate, long seconds) {
+            this.rate = rate;
+            this.seconds = seconds;
+        }
+
+        public double getRate() {
+            return rate;
+        }
+
+        public long getSeconds() {
+            return seconds;
+        }
+
+        /**
+         * Метод получения количества запросов за ступень
+         *
+         * @return количество запросов
+         */
+        public long arrivals() {
+            return (long) Math.floor(rate * seconds);
+        }
+
+        /**
+         * Метод получения запланированного смещения запроса от начала ступени
+         *
+         * @param index номер запроса в ступени
+         * @return смещение в наносекундах
+         */
+        public long offsetNanos(long index) {
+            return (long) (index * 1_000_000_000d / rate);
+        }
+
+        @Override
+        public String toString() {
+            return (rate == Math.rint(rate) ? String.valueOf((long) rate) : String.valueOf(rate)) + ":" + seconds;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package load;
+
+import config.BaseConfig;
+import database.CleanupRegistry;
+import database.ProductBDModel;
+import database.ProductStockBDModel;
+import database.Repositories;
+import dto.order.OrderCreateResponse;
+import helpers.TestRun;
+import org.aeonbits.owner.ConfigCache;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Стресс-проверка конкуренции за остаток: для каждого уровня параллельности создается "горячий" продукт
+ * с ограниченным остатком, и на него отправляется заданное количество POST order по одной штуке,
+ * не больше уровня параллельности одновременно. Заказов больше, чем остатка, поэтому часть запросов
+ * должна получить отказ. После уровня выводится таблица задержек по статусам, пропускная способность
+ * и проверка в БД: product.qty + SUM(ordered_product.qty по заказам CREATED) равно начальному остатку,
+ * остаток не отрицателен ни в конце, ни в замерах во время уровня (раз в STOCK_SAMPLE_MS).
+ * При нарушении процесс завершается с кодом 1.
+ * Запуск: ./gradlew stockContention -Pstock=500 -Porders=2000 -Pconcurrency=10,50,200,1000 [-Pprofile=stub]
+ */
+public class StockContentionRunner {
+
+    /**
+     * Экземпляр конфигурации
+     */
+    private static final BaseConfig config = ConfigCache.getOrCreate(BaseConfig.class, System.getenv());
+
+    /**
+     * Операция в таблицах задержек и статус ошибки транспорта или таймаута
+     */
+    private static final String CREATE_ORDER = "CREATE_ORDER";
+    private static final String ERROR = "ERR";
+
+    /**
+     * Интервал замера остатка горячего продукта во время уровня, мс
+     */
+    private static final long STOCK_SAMPLE_MS = 50;
+
+    private final LoadContext context;
+    private final LatencyRecorder recorder;
+    private final int stock;
+    private final int orders;
+
+    /**
+     * Горячие продукты всех уровней, передаются в CleanupRegistry после прогона
+     */
+    private final List<String> hotProducts = new ArrayList<>();
+
+    /**
+     * Источник случайных чисел потока отправки
+     */
+    private final Random random = new Random();
+
+    public StockContentionRunner(LoadContext context, LatencyRecorder recorder, int stock, int orders) {
+        this.context = context;
+        this.recorder = recorder;
+        this.stock = stock;
+        this.orders = orders;
+    }
+
+    /**
+     * Метод выполнения всех уровней параллельности
+     *
+     * @param levels уровни параллельности по возрастанию
+     * @return отчет и признак нарушения инварианта остатка
+     * @throws InterruptedException если поток прерван
+     */
+    public Result run(int[] levels) throws InterruptedException {
+        StringBuilder report = new StringBuilder();
+        boolean violated = false;
+        long start = System.nanoTime();
+        for (int level : levels) {
+            String productId = context.createProduct(stock);
+            hotProducts.add(productId);
+            Level result = runLevel(productId, level);
+            String table = recorder.stepTable(String.format("Concurrency %d: %d orders for stock %d (latency, ms)", level, orders, stock),
+                    result.seconds);
+            Audit audit = audit(productId, result);
+            violated |= !audit.violations.isEmpty();
+            System.out.print(table + audit.report());
+            report.append(table).append(audit.report());
+        }
+        String total = recorder.totalTable(String.format("Total: %d levels (latency, ms)", levels.length),
+                (System.nanoTime() - start) / 1e9);
+        System.out.print(total);
+        report.append(total);
+        return new Result(report.toString(), violated);
+    }
+
+    /**
+     * Метод отправки заказов на горячий продукт с ограничением одновременных запросов
+     *
+     * @param productId горячий продукт
+     * @param level     максимальное количество одновременных запросов
+     * @return итоги уровня
+     * @throws InterruptedException если поток прерван
+     */
+    private Level runLevel(String productId, int level) throws InterruptedException {
+        Level result = new Level();
+        Semaphore permits = new Semaphore(level);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleWithFixedDelay(() -> sample(productId, result), 0, STOCK_SAMPLE_MS, TimeUnit.MILLISECONDS);
+        long started = System.nanoTime();
+        try {
+            for (int i = 0; i < orders; i++) {
+                permits.acquire();
+                int customerId = context.randomCustomer(random);
+                long sent = System.nanoTime();
+                context.getClient().sendAsync(context.createOrderRequest(customerId, List.of(productId)), HttpResponse.BodyHandlers.ofString())
+                        .whenComplete((response, error) -> {
+                            long latency = System.nanoTime() - sent;
+                            try {
+                                if (error != null) {
+                                    recorder.record(CREATE_ORDER, ERROR, latency);
+                                    result.errors.incrementAndGet();
+                                    return;
+                                }
+                                recorder.record(CREATE_ORDER, String.valueOf(response.statusCode()), latency);
+                                if (response.statusCode() / 100 == 2) {
+                                    result.accepted.incrementAndGet();
+                                    context.orderCreated(context.read(response.body(), OrderCreateResponse.class).getId(), customerId);
+                                } else {
+                                    result.rejected.incrementAndGet();
+                                }
+                            } catch (RuntimeException e) {
+                                System.err.println("Ошибка обработки ответа " + CREATE_ORDER + ": " + e.getMessage());
+                            } finally {
+                                permits.release();
+                            }
+                        });
+            }
+            permits.acquire(level);
+            permits.release(level);
+        } finally {
+            result.seconds = (System.nanoTime() - started) / 1e9;
+            sampler.shutdownNow();
+            sampler.awaitTermination(1, TimeUnit.SECONDS);
+        }
+        return result;
+    }
+
+    /**
+     * Метод замера остатка горячего продукта во время уровня
+     */
+    private static void sample(String productId, Level result) {
+        ProductBDModel product = Repositories.products().getProductBDModel(productId);
+        if (product != null) {
+            result.minQty.accumulateAndGet(product.getQty().longValue(), Math::min);
+            result.samples.incrementAndGet();
+        }
+    }
+
+    /**
+     * Метод проверки сохранения остатка горячего продукта после уровня
+     *
+     * @return строки отчета и найденные нарушения
+     */
+    private Audit audit(String productId, Level result) {
+        StringBuilder line = new StringBuilder(String.format(
+                "Throughput: %.1f accepted/s, %.1f responses/s (accepted %d, rejected %d, errors %d)%n",
+                result.accepted.get() / result.seconds,
+                (result.accepted.get() + result.rejected.get() + result.errors.get()) / result.seconds,
+                result.accepted.get(), result.rejected.get(), result.errors.get()));
+        ProductStockBDModel balance;
+        try {
+            balance = Repositories.products().getProductStock(productId);
+        } catch (RuntimeException e) {
+            line.append("Stock audit: product ").append(productId).append(": ");
+            return new Audit(line.toString(), List.of("stock query failed: " + e.getMessage()));
+        }
+        if (balance == null) {
+            line.append("Stock audit: product ").append(productId).append(": ");
+            return new Audit(line.toString(), List.of("product not found"));
+        }
+        BigDecimal initial = BigDecimal.valueOf(stock);
+        BigDecimal total = balance.getQty().add(balance.getOrderedQty());
+        line.append(String.format("Stock audit: qty %s + ordered %s (%d orders) = %s, initial %d, min sampled qty %s (%d samples): ",
+                balance.getQty().stripTrailingZeros().toPlainString(), balance.getOrderedQty().stripTrailingZeros().toPlainString(),
+                balance.getOrders(), total.stripTrailingZeros().toPlainString(), stock,
+                result.samples.get() > 0 ? String.valueOf(result.minQty.get()) : "-", result.samples.get()));
+        List<String> violations = new ArrayList<>();
+        if (total.compareTo(initial) != 0) {
+            violations.add("stock is not conserved");
+        }
+        if (balance.getQty().signum() < 0 || result.minQty.get() < 0) {
+            violations.add("qty went negative");
+        }
+        if (balance.getOrderedQty().compareTo(initial) > 0) {
+            violations.add("oversold by " + balance.getOrderedQty().subtract(initial).stripTrailingZeros().toPlainString());
+        }
+        if (result.errors.get() == 0 && balance.getOrders() != result.accepted.get()) {
+            violations.add("accepted " + result.accepted.get() + " orders, stored " + balance.getOrders());
+        }
+        return new Audit(line.toString(), violations);
+    }
+
+    /**
+     * Итоги проверки остатка уровня: строки отчета и нарушения, по которым определяется код завершения
+     */
+    private static final class Audit {
+
+        private final String summary;
+        private final List<String> violations;
+
+        private Audit(String summary, List<String> violations) {
+            this.summary = summary;
+            this.violations = violations;
+        }
+
+        /**
+         * Метод форматирования отчета: сводка и OK или перечень нарушений
+         *
+         * @return строки отчета
+         */
+        private String report() {
+            return summary + (violations.isEmpty() ? "OK" : "VIOLATED: " + String.join(", ", violations)) + '\n';
+        }
+    }
+
+    /**
+     * Итоги одного уровня параллельности
+     */
+    private static final class Level {
+
+        private final AtomicInteger accepted = new AtomicInteger();
+        private final AtomicInteger rejected = new AtomicInteger();
+        private final AtomicInteger errors = new AtomicInteger();
+        private final AtomicLong minQty = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicInteger samples = new AtomicInteger();
+        private double seconds;
+    }
+
+    /**
+     * Отчет прогона и признак нарушения инварианта остатка
+     */
+    public static final class Result {
+
+        private final String report;
+        private final boolean violated;
+
+        private Result(String report, boolean violated) {
+            this.report = report;
+            this.violated = violated;
+        }
+
+        public String getReport() {
+            return report;
+        }
+
+        public boolean isViolated() {
+            return violated;
+        }
+    }
+
+    /**
+     * Метод передачи горячих продуктов в CleanupRegistry после прогона
+     */
+    private void registerHotProducts() {
+        hotProducts.forEach(CleanupRegistry::registerProduct);
+    }
+
+    /**
+     * Точка входа для запуска из Gradle
+     *
+     * @param args "<остаток> <заказов на уровень> <уровни параллельности через запятую>"
+     */
+    public static void main(String[] args) throws InterruptedException, IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: StockContentionRunner <stock> <ordersPerLevel> <concurrency[,concurrency...]>");
+            System.exit(1);
+        }
+        int stock = Integer.parseInt(args[0]);
+        int orders = Integer.parseInt(args[1]);
+        String[] levelArgs = args[2].split(",");
+        int[] levels = new int[levelArgs.length];
+        for (int i = 0; i < levels.length; i++) {
+            levels[i] = Integer.parseInt(levelArgs[i].trim());
+            if (levels[i] <= 0) {
+                throw new IllegalArgumentException("Concurrency must be positive: " + levelArgs[i]);
+            }
+        }
+        File logFile = new File(config.loadOutputDir(), "stock-contention-" + TestRun.id() + ".hlog");
+        Result result;
+        try (LoadContext context = new LoadContext()) {
+            context.prepare();
+            try (LatencyRecorder recorder = new LatencyRecorder(logFile, config.loadLogIntervalMs())) {
+                StockContentionRunner runner = new StockContentionRunner(context, recorder, stock, orders);
+                try {
+                    result = runner.run(levels);
+                } finally {
+                    runner.registerHotProducts();
+                }
+            }
+            File reportFile = new File(config.loadOutputDir(), "stock-contention-" + TestRun.id() + ".txt");
+            Files.write(reportFile.toPath(), result.getReport().getBytes(StandardCharsets.UTF_8));
+            System.out.printf("%nHistogram log: %s%nReport: %s%n", logFile, reportFile);
+        }
+        System.exit(result.isViolated() ? 1 : 0);
+    }
+}
@@ -0,0 +1,302 @@
+package load;
+
+import config.BaseConfig;
+import helpers.TestRun;
+import org.aeonbits.owner.ConfigCache;
+import scenario.OrderScenarios;
+import scenario.Scenario;
+import scenario.ScenarioPlan;
+import scenario.Session;
+import scenario.StepListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Нагрузка закрытой моделью: заданное количество виртуальных пользователей, каждый в своем потоке
+ * повторяет сценарий покупателя с паузами на обдумывание: создание customer и OrderScenarios.orderLifecycle
+ * (POST order, GET order/{id}, PATCH order/{id}, DELETE order/{id}). План сценария собирается один раз,
+ * каждый пользователь переиспользует свою Session между итерациями. Пользователи запускаются равномерно за rampUp, работают hold
+ * и останавливаются равномерно за rampDown (после завершения текущей итерации).
+ * Потоки пользователей - виртуальные (Thread.ofVirtual), поэтому задача virtualUsers запускается на JDK 21;
+ * без виртуальных потоков запуск завершается ошибкой.
+ * Задержка шага считается от фактической отправки запроса, паузы в нее не входят. Раз в loadLogIntervalMs
+ * выводится текущая пропускная способность, после каждой фазы - таблица процентилей по шагам сценария.
+ * Запуск: ./gradlew virtualUsers -Pusers=1000 -PrampUp=30 -Phold=60 -PrampDown=10 [-Pprofile=stub]
+ */
+public class VirtualUserRunner {
+
+    /**
+     * Экземпляр конфигурации
+     */
+    private static final BaseConfig config = ConfigCache.getOrCreate(BaseConfig.class, System.getenv());
+
+    /**
+     * Шаг создания customer перед шагами заказа
+     */
+    private static final String CREATE_CUSTOMER = "CREATE_CUSTOMER";
+
+    private final LoadContext context;
+    private final ScenarioPlan plan;
+    private final LatencyRecorder recorder;
+    private final int users;
+    private final long rampUpNanos;
+    private final long holdNanos;
+    private final long rampDownNanos;
+
+    /**
+     * Счетчики для вывода текущей пропускной способности
+     */
+    private final LongAdder iterations = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicInteger activeUsers = new AtomicInteger();
+
+    public VirtualUserRunner(LoadContext context, LatencyRecorder recorder, int users, long rampUpSeconds,
+                             long holdSeconds, long rampDownSeconds) {
+        this.context = context;
+        this.plan = OrderScenarios.orderLifecycle(Scenario.named("virtual user")
+                        .action(CREATE_CUSTOMER, OrderScenarios.CUSTOMER, session -> context.createCustomer(session.random()))
+                        .feed(OrderScenarios.CREATE_REQUEST, session -> context.newOrderRequest(
+                                context.randomProducts(session.random(), 1 + session.random().nextInt(2))))
+                        .feed(OrderScenarios.UPDATE_REQUEST, session -> context.newUpdateRequest(
+                                context.randomProduct(session.random()))))
+                .build();
+        this.recorder = recorder;
+        this.users = users;
+        this.rampUpNanos = TimeUnit.SECONDS.toNanos(rampUpSeconds);
+        this.holdNanos = TimeUnit.SECONDS.toNanos(holdSeconds);
+        this.rampDownNanos = TimeUnit.SECONDS.toNanos(rampDownSeconds);
+    }
+
+    /**
+     * Метод выполнения нагрузки с выводом таблицы после каждой фазы
+     *
+     * @return таблицы фаз и итоговая таблица
+     * @throws InterruptedException если поток прерван
+     */
+    public String run() throws InterruptedException {
+        ThreadFactory factory = userThreadFactory();
+        CountDownLatch finished = new CountDownLatch(users);
+        long start = System.nanoTime();
+        long holdStart = start + rampUpNanos;
+        long rampDownStart = holdStart + holdNanos;
+        for (int i = 0; i < users; i++) {
+            long startAt = start + rampUpNanos * i / users;
+            long stopAt = rampDownStart + rampDownNanos * (i + 1) / users;
+            factory.newThread(() -> {
+                try {
+                    runUser(startAt, stopAt);
+                } finally {
+                    finished.countDown();
+                }
+            }).start();
+        }
+
+        ScheduledExecutorService readout = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "virtual-users-readout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = config.loadLogIntervalMs();
+        readout.scheduleAtFixedRate(new Readout(start, interval), interval, interval, TimeUnit.MILLISECONDS);
+
+        StringBuilder report = new StringBuilder();
+        try {
+            LoadEngine.parkUntil(holdStart);
+            report.append(phaseTable("Ramp-up", rampUpNanos));
+            LoadEngine.parkUntil(rampDownStart);
+            report.append(phaseTable("Hold", holdNanos));
+            long rampDownBegan = System.nanoTime();
+            finished.await();
+            report.append(phaseTable("Ramp-down", System.nanoTime() - rampDownBegan));
+        } finally {
+            readout.shutdownNow();
+        }
+        String total = recorder.totalTable(String.format("Total: %d users, %d iterations (latency, ms)", users, iterations.sum()),
+                (System.nanoTime() - start) / 1e9);
+        System.out.print(total);
+        report.append(total);
+        return report.toString();
+    }
+
+    /**
+     * Метод получения и вывода таблицы фазы
+     *
+     * @return таблица
+     */
+    private String phaseTable(String phase, long nanos) {
+        String table = recorder.stepTable(String.format("%s: %d s (latency, ms)", phase, TimeUnit.NANOSECONDS.toSeconds(nanos)),
+                nanos / 1e9);
+        System.out.print(table);
+        return table;
+    }
+
+    /**
+     * Метод работы одного пользователя: повторение сценария от startAt до stopAt
+     *
+     * @param startAt момент запуска, System.nanoTime()
+     * @param stopAt  момент, после которого новая итерация не начинается
+     */
+    private void runUser(long startAt, long stopAt) {
+        Random random = new Random();
+        Session session = plan.newSession(context.getClient(), random);
+        StepListener listener = new StepListener() {
+            @Override
+            public void beforeStep(String step, int index) throws InterruptedException {
+                if (index > 0) {
+                    think(random);
+                }
+            }
+
+            @Override
+            public void afterStep(String step, String status, long latencyNanos) {
+                recorder.record(step, status, latencyNanos);
+                if (!CREATE_CUSTOMER.equals(step)) {
+                    requests.increment();
+                }
+            }
+        };
+        try {
+            LoadEngine.parkUntil(startAt);
+            activeUsers.incrementAndGet();
+            try {
+                while (System.nanoTime() < stopAt) {
+                    iteration(session, listener);
+                    think(random);
+                }
+            } finally {
+                activeUsers.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            System.err.println("Пользователь остановлен из-за ошибки: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Метод одной итерации сценария. Если шаг не удался, итерация прерывается, созданные данные
+     * в любом случае запоминаются в LoadContext и передаются в CleanupRegistry после прогона
+     *
+     * @throws InterruptedException если поток прерван во время паузы или запроса
+     */
+    private void iteration(Session session, StepListener listener) throws InterruptedException {
+        try {
+            if (plan.execute(session, listener) == null) {
+                iterations.increment();
+            } else {
+                errors.increment();
+            }
+        } finally {
+            String orderId = session.get(OrderScenarios.ORDER);
+            Integer customerId = session.get(OrderScenarios.CUSTOMER);
+            if (orderId != null && customerId != null) {
+                context.orderCreated(orderId, customerId);
+            }
+            context.customerCreated(customerId);
+            session.clear();
+        }
+    }
+
+    /**
+     * Метод паузы на обдумывание: loadThinkTimeMs плюс случайная добавка до loadThinkTimeJitterMs
+     *
+     * @throws InterruptedException если поток прерван
+     */
+    private static void think(Random random) throws InterruptedException {
+        long jitter = config.loadThinkTimeJitterMs() > 0 ? (long) (random.nextDouble() * config.loadThinkTimeJitterMs()) : 0;
+        long pause = config.loadThinkTimeMs() + jitter;
+        if (pause > 0) {
+            Thread.sleep(pause);
+        }
+    }
+
+    /**
+     * Метод получения фабрики виртуальных потоков пользователей. Потоки создаются через отражение,
+     * потому что проект компилируется под JDK 17, а Thread.ofVirtual есть только в JDK 21+
+     *
+     * @return фабрика потоков
+     * @throws IllegalStateException если виртуальные потоки недоступны в текущей JVM
+     */
+    static ThreadFactory userThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "virtual-user-", 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (NoSuchMethodException | ClassNotFoundException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Виртуальные потоки недоступны в JDK " + Runtime.version().feature()
+                    + ": запустите ./gradlew virtualUsers на JDK 21+", e);
+        }
+    }
+
+    /**
+     * Вывод текущей пропускной способности за последний интервал
+     */
+    private class Readout implements Runnable {
+
+        private final long start;
+        private final long intervalMs;
+        private long lastIterations;
+        private long lastRequests;
+        private long lastErrors;
+
+        private Readout(long start, long intervalMs) {
+            this.start = start;
+            this.intervalMs = intervalMs;
+        }
+
+        @Override
+        public void run() {
+            long currentIterations = iterations.sum();
+            long currentRequests = requests.sum();
+            long currentErrors = errors.sum();
+            double seconds = intervalMs / 1000d;
+            System.out.printf("t=%4ds users=%5d iterations/s=%8.1f requests/s=%8.1f errors/s=%7.1f%n",
+                    TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), activeUsers.get(),
+                    (currentIterations - lastIterations) / seconds, (currentRequests - lastRequests) / seconds,
+                    (currentErrors - lastErrors) / seconds);
+            lastIterations = currentIterations;
+            lastRequests = currentRequests;
+            lastErrors = currentErrors;
+        }
+    }
+
+    /**
+     * Точка входа для запуска из Gradle
+     *
+     * @param args "<пользователи> <rampUp, с> <hold, с> <rampDown, с>"
+     */
+    public static void main(String[] args) throws InterruptedException, IOException {
+        if (args.length != 4) {
+            System.err.println("Usage: VirtualUserRunner <users> <rampUpSeconds> <holdSeconds> <rampDownSeconds>");
+            System.exit(1);
+        }
+        int users = Integer.parseInt(args[0]);
+        File logFile = new File(config.loadOutputDir(), "virtual-users-" + TestRun.id() + ".hlog");
+        try (LoadContext context = new LoadContext()) {
+            context.prepare();
+            String report;
+            try (LatencyRecorder recorder = new LatencyRecorder(logFile, config.loadLogIntervalMs())) {
+                report = new VirtualUserRunner(context, recorder, users, Long.parseLong(args[1]),
+                        Long.parseLong(args[2]), Long.parseLong(args[3])).run();
+            }
+            File reportFile = new File(config.loadOutputDir(), "virtual-users-" + TestRun.id() + ".txt");
+            Files.write(reportFile.toPath(), report.getBytes(StandardCharsets.UTF_8));
+            System.out.printf("%nHistogram log: %s%nReport: %s%n", logFile, reportFile);
+        }
+        System.exit(0);
+    }
+}
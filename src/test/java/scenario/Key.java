@@ -0,0 +1,81 @@
+package scenario;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Типизированный ключ значения сессии сценария. Ключи регистрируются по имени один раз на JVM
+ * и получают постоянный номер ячейки, поэтому сессия хранит значения в массиве, а не в Map,
+ * а подстановки {имя} в путях шагов разрешаются в ключи при сборке плана
+ *
+ * @param <T> тип значения
+ */
+public final class Key<T> {
+
+    /**
+     * Зарегистрированные ключи по имени
+     */
+    private static final Map<String, Key<?>> KEYS = new ConcurrentHashMap<>();
+
+    /**
+     * Количество зарегистрированных ключей, номер следующей ячейки
+     */
+    private static final AtomicInteger COUNT = new AtomicInteger();
+
+    private final String name;
+    private final Class<T> type;
+    private final int index;
+
+    private Key(String name, Class<T> type, int index) {
+        this.name = name;
+        this.type = type;
+        this.index = index;
+    }
+
+    /**
+     * Метод получения ключа по имени с регистрацией при первом обращении
+     *
+     * @param name имя ключа, используется в подстановках {имя}
+     * @param type тип значения
+     * @return ключ
+     * @throws IllegalArgumentException если ключ с таким именем уже зарегистрирован с другим типом
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Key<T> of(String name, Class<T> type) {
+        Key<?> key = KEYS.computeIfAbsent(name, n -> new Key<>(n, type, COUNT.getAndIncrement()));
+        if (key.type != type) {
+            throw new IllegalArgumentException("Key " + name + " is already registered with type " + key.type.getName());
+        }
+        return (Key<T>) key;
+    }
+
+    /**
+     * Метод поиска зарегистрированного ключа по имени
+     *
+     * @return ключ или null, если ключ не зарегистрирован
+     */
+    static Key<?> named(String name) {
+        return KEYS.get(name);
+    }
+
+    /**
+     * Метод получения количества зарегистрированных ключей (размер массива значений сессии)
+     */
+    static int count() {
+        return COUNT.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    int index() {
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,76 @@
+package scenario;
+
+import config.BaseConfig;
+import dto.order.OrderCreateRequest;
+import dto.order.OrderCreateResponse;
+import dto.order.OrderGetResponse;
+import dto.order.OrderUpdateRequest;
+import org.aeonbits.owner.ConfigCache;
+
+import static helpers.DataHelper.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Сценарии заказа, общие для функциональных тестов и нагрузки
+ */
+public final class OrderScenarios {
+
+    /**
+     * Экземпляр конфигурации
+     */
+    private static final BaseConfig config = ConfigCache.getOrCreate(BaseConfig.class, System.getenv());
+
+    /**
+     * Ключи сессии: владелец заказа, запросы создания и изменения (задаются до шагов заказа), id созданного заказа
+     */
+    public static final Key<Integer> CUSTOMER = Key.of("customerId", Integer.class);
+    public static final Key<OrderCreateRequest> CREATE_REQUEST = Key.of("orderCreateRequest", OrderCreateRequest.class);
+    public static final Key<OrderUpdateRequest> UPDATE_REQUEST = Key.of("orderUpdateRequest", OrderUpdateRequest.class);
+    public static final Key<String> ORDER = Key.of("orderId", String.class);
+
+    /**
+     * Имена шагов
+     */
+    public static final String CREATE_ORDER = "CREATE_ORDER";
+    public static final String GET_ORDER = "GET_ORDER";
+    public static final String UPDATE_ORDER = "UPDATE_ORDER";
+    public static final String DELETE_ORDER = "DELETE_ORDER";
+
+    private OrderScenarios() {
+    }
+
+    /**
+     * Метод добавления жизненного цикла заказа: создание, получение с проверкой состава, замена состава, отмена.
+     * Значения CUSTOMER, CREATE_REQUEST и UPDATE_REQUEST должны быть заданы в сессии или подставлены
+     * предыдущими шагами сценария
+     *
+     * @param scenario описание сценария
+     * @return то же описание
+     */
+    public static Scenario orderLifecycle(Scenario scenario) {
+        return scenario
+                .post(CREATE_ORDER, config.createOrderEndpoint())
+                .header(CUSTOMER_ID, CUSTOMER)
+                .body(CREATE_REQUEST)
+                .expectStatus(STATUS_CODE_OK)
+                .extract(OrderCreateResponse.class, OrderCreateResponse::getId, ORDER)
+
+                .get(GET_ORDER, config.getOrderByIdEndpoint() + "{orderId}")
+                .header(CUSTOMER_ID, CUSTOMER)
+                .expectStatus(STATUS_CODE_OK)
+                .check(OrderGetResponse.class, (session, order) -> {
+                    assertEquals(session.get(ORDER), order.getOrderId(), "Получен другой заказ");
+                    assertEquals(session.get(CREATE_REQUEST).getProducts().size(), order.getProducts().size(),
+                            "Состав заказа не совпадает с запросом создания");
+                })
+
+                .patch(UPDATE_ORDER, config.updateOrderEndpoint() + "{orderId}")
+                .header(CUSTOMER_ID, CUSTOMER)
+                .body(UPDATE_REQUEST)
+                .expectStatus(STATUS_CODE_UPDATE)
+
+                .delete(DELETE_ORDER, config.deleteOrderEndpoint() + "{orderId}")
+                .header(CUSTOMER_ID, CUSTOMER)
+                .expectStatus(STATUS_CODE_OK);
+    }
+}
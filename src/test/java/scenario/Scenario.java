@@ -0,0 +1,314 @@
+package scenario;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import config.BaseConfig;
+import helpers.JsonMapper;
+import org.aeonbits.owner.ConfigCache;
+import stub.WarehouseStub;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Описание сценария: последовательность подстановок данных (feed), действий без HTTP (action) и HTTP-шагов
+ * с заголовками, телом, ожидаемым статусом, извлечением значений из ответа и проверками.
+ * Методы header, body, expectStatus, extract и check относятся к последнему добавленному HTTP-шагу.
+ * Описание собирается в неизменяемый ScenarioPlan один раз: пути разбираются, ключи подстановок разрешаются,
+ * для тел запросов и ответов создаются ObjectWriter и ObjectReader. План затем выполняется многократно
+ * из любого количества потоков, каждый со своей Session. Пример:
+ * <pre>
+ * Scenario.named("order")
+ *         .post("CREATE_ORDER", "api/order").header("customer_id", CUSTOMER_ID).body(CREATE_REQUEST)
+ *         .expectStatus(200).extract(OrderCreateResponse.class, OrderCreateResponse::getId, ORDER_ID)
+ *         .get("GET_ORDER", "api/order/{orderId}").header("customer_id", CUSTOMER_ID).expectStatus(200)
+ *         .build();
+ * </pre>
+ */
+public final class Scenario {
+
+    /**
+     * Экземпляр конфигурации
+     */
+    private static final BaseConfig config = ConfigCache.getOrCreate(BaseConfig.class, System.getenv());
+
+    private final String name;
+    private final List<StepDraft> steps = new ArrayList<>();
+    private Duration timeout = Duration.ofMillis(config.loadRequestTimeoutMs());
+
+    private Scenario(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Метод начала описания сценария
+     *
+     * @param name имя сценария для сообщений об ошибках
+     * @return описание сценария
+     */
+    public static Scenario named(String name) {
+        return new Scenario(name);
+    }
+
+    /**
+     * Метод задания таймаута HTTP-шагов, по умолчанию loadRequestTimeoutMs
+     *
+     * @return это описание
+     */
+    public Scenario timeout(Duration timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    /**
+     * Метод добавления подстановки данных: значение вычисляется при выполнении и сохраняется в сессии.
+     * Подстановка не считается шагом: не наблюдается StepListener и не записывается в задержки
+     *
+     * @param key    ключ значения
+     * @param feeder источник значения, null - ошибка сценария
+     * @return это описание
+     */
+    public <T> Scenario feed(Key<T> key, Function<Session, T> feeder) {
+        steps.add(new StepDraft(StepDraft.FEED, null, null, key, feeder));
+        return this;
+    }
+
+    /**
+     * Метод добавления действия без HTTP (например, создания customer в БД) со статусом OK или ERR
+     *
+     * @param step   имя шага
+     * @param key    ключ результата
+     * @param action действие, null - ошибка шага
+     * @return это описание
+     */
+    public <T> Scenario action(String step, Key<T> key, Function<Session, T> action) {
+        steps.add(new StepDraft(StepDraft.ACTION, step, null, key, action));
+        return this;
+    }
+
+    /**
+     * Методы добавления HTTP-шага
+     *
+     * @param step имя шага
+     * @param path путь относительно адреса API, значения ключей подставляются вместо {имя}
+     * @return это описание
+     */
+    public Scenario post(String step, String path) {
+        return http(step, "POST", path);
+    }
+
+    public Scenario get(String step, String path) {
+        return http(step, "GET", path);
+    }
+
+    public Scenario patch(String step, String path) {
+        return http(step, "PATCH", path);
+    }
+
+    public Scenario delete(String step, String path) {
+        return http(step, "DELETE", path);
+    }
+
+    private Scenario http(String step, String method, String path) {
+        steps.add(new StepDraft(StepDraft.HTTP, step, method, null, null));
+        current().path = path.replaceFirst("^/+", "");
+        return this;
+    }
+
+    /**
+     * Метод добавления заголовка со значением ключа
+     *
+     * @return это описание
+     */
+    public Scenario header(String header, Key<?> key) {
+        current().headers.add(header);
+        current().headerKeys.add(key);
+        return this;
+    }
+
+    /**
+     * Метод задания тела запроса из значения ключа (DTO сериализуется в JSON)
+     *
+     * @return это описание
+     */
+    public Scenario body(Key<?> key) {
+        return body(session -> session.get(key));
+    }
+
+    /**
+     * Метод задания тела запроса, вычисляемого при выполнении
+     *
+     * @return это описание
+     */
+    public Scenario body(Function<Session, ?> body) {
+        current().body = body;
+        return this;
+    }
+
+    /**
+     * Метод задания ожидаемого статуса ответа, по умолчанию 200
+     *
+     * @return это описание
+     */
+    public Scenario expectStatus(int status) {
+        current().expectedStatus = status;
+        return this;
+    }
+
+    /**
+     * Метод извлечения значения из тела ответа в сессию
+     *
+     * @param responseType DTO ответа, один на шаг
+     * @param extractor    функция извлечения, null - ошибка шага
+     * @param key          ключ значения
+     * @return это описание
+     */
+    @SuppressWarnings("unchecked")
+    public <R, T> Scenario extract(Class<R> responseType, Function<R, T> extractor, Key<T> key) {
+        responseType(responseType);
+        current().handlers.add((session, response) -> {
+            T value = extractor.apply((R) response);
+            if (value == null) {
+                throw new AssertionError("Response has no value for " + key);
+            }
+            session.set(key, value);
+        });
+        return this;
+    }
+
+    /**
+     * Метод добавления проверки тела ответа. Проверка сообщает об ошибке исключением AssertionError
+     * (например, из Assertions JUnit)
+     *
+     * @param responseType DTO ответа, один на шаг
+     * @param check        проверка
+     * @return это описание
+     */
+    @SuppressWarnings("unchecked")
+    public <R> Scenario check(Class<R> responseType, BiConsumer<Session, R> check) {
+        responseType(responseType);
+        current().handlers.add((session, response) -> check.accept(session, (R) response));
+        return this;
+    }
+
+    private void responseType(Class<?> responseType) {
+        StepDraft step = current();
+        if (step.responseType != null && step.responseType != responseType) {
+            throw new IllegalStateException("Step " + step.name + " already reads " + step.responseType.getSimpleName());
+        }
+        step.responseType = responseType;
+    }
+
+    /**
+     * Метод получения последнего HTTP-шага
+     *
+     * @throws IllegalStateException если последний шаг - не HTTP
+     */
+    private StepDraft current() {
+        StepDraft step = steps.isEmpty() ? null : steps.get(steps.size() - 1);
+        if (step == null || step.kind != StepDraft.HTTP) {
+            throw new IllegalStateException("Scenario " + name + ": header, body, expectStatus, extract and check follow an HTTP step");
+        }
+        return step;
+    }
+
+    /**
+     * Метод сборки плана для адреса API: сервис из apiUrl или встроенная заглушка в профиле stub
+     *
+     * @return план сценария
+     */
+    public ScenarioPlan build() {
+        return build(WarehouseStub.apiUrl());
+    }
+
+    /**
+     * Метод сборки плана
+     *
+     * @param baseUri адрес API
+     * @return план сценария
+     * @throws IllegalArgumentException если в пути шага есть подстановка незарегистрированного ключа
+     */
+    public ScenarioPlan build(String baseUri) {
+        ObjectMapper mapper = JsonMapper.get();
+        String base = baseUri.endsWith("/") ? baseUri : baseUri + "/";
+        List<ScenarioPlan.Step> compiled = new ArrayList<>(steps.size());
+        for (int i = 0; i < steps.size(); i++) {
+            StepDraft step = steps.get(i);
+            switch (step.kind) {
+                case StepDraft.FEED:
+                    compiled.add(new ScenarioPlan.FeedStep(i, step.key, step.supplier));
+                    break;
+                case StepDraft.ACTION:
+                    compiled.add(new ScenarioPlan.ActionStep(i, step.name, step.key, step.supplier));
+                    break;
+                default:
+                    List<String> literals = new ArrayList<>();
+                    List<Key<?>> pathKeys = new ArrayList<>();
+                    parsePath(step, literals, pathKeys);
+                    compiled.add(new ScenarioPlan.HttpStep(i, step.name, step.method, base, timeout,
+                            literals.toArray(new String[0]), pathKeys.toArray(new Key<?>[0]),
+                            step.headers.toArray(new String[0]), step.headerKeys.toArray(new Key<?>[0]),
+                            step.body, step.body == null ? null : mapper.writer(), step.expectedStatus,
+                            step.responseType == null ? null : mapper.readerFor(step.responseType),
+                            step.handlers));
+            }
+        }
+        return new ScenarioPlan(name, compiled);
+    }
+
+    /**
+     * Метод разбора пути шага на литералы и ключи подстановок: литералов всегда на один больше, чем ключей
+     */
+    private void parsePath(StepDraft step, List<String> literals, List<Key<?>> keys) {
+        String path = step.path;
+        int from = 0;
+        int open;
+        while ((open = path.indexOf('{', from)) >= 0) {
+            int close = path.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Step " + step.name + ": unclosed { in " + path);
+            }
+            Key<?> key = Key.named(path.substring(open + 1, close));
+            if (key == null) {
+                throw new IllegalArgumentException("Step " + step.name + ": unknown key in " + path);
+            }
+            literals.add(path.substring(from, open));
+            keys.add(key);
+            from = close + 1;
+        }
+        literals.add(path.substring(from));
+    }
+
+    /**
+     * Шаг в процессе описания
+     */
+    private static final class StepDraft {
+
+        private static final int FEED = 0;
+        private static final int ACTION = 1;
+        private static final int HTTP = 2;
+
+        private final int kind;
+        private final String name;
+        private final String method;
+        private final Key<?> key;
+        private final Function<Session, ?> supplier;
+        private final List<String> headers = new ArrayList<>();
+        private final List<Key<?>> headerKeys = new ArrayList<>();
+        private final List<BiConsumer<Session, Object>> handlers = new ArrayList<>();
+        private String path;
+        private Function<Session, ?> body;
+        private int expectedStatus = 200;
+        private Class<?> responseType;
+
+        private StepDraft(int kind, String name, String method, Key<?> key, Function<Session, ?> supplier) {
+            this.kind = kind;
+            this.name = name;
+            this.method = method;
+            this.key = key;
+            this.supplier = supplier;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package scenario;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Собранный план сценария (Scenario.build()). План неизменяем и не хранит состояния выполнения,
+ * поэтому один экземпляр выполняется однократно в тесте (runOnce) и многократно в нагрузке (execute)
+ * без повторного разбора путей и создания сериализаторов. Ошибка шага (неожиданный статус, ошибка транспорта,
+ * непрошедшая проверка) останавливает итерацию
+ */
+public final class ScenarioPlan {
+
+    /**
+     * Статусы шагов без HTTP-статуса
+     */
+    static final String OK = "OK";
+    static final String ERROR = "ERR";
+
+    /**
+     * Строковые HTTP-статусы, чтобы не создавать строку на каждый ответ
+     */
+    private static final String[] STATUSES = new String[600];
+
+    static {
+        for (int i = 0; i < STATUSES.length; i++) {
+            STATUSES[i] = String.valueOf(i);
+        }
+    }
+
+    private final String name;
+    private final Step[] steps;
+
+    ScenarioPlan(String name, List<Step> steps) {
+        this.name = name;
+        this.steps = steps.toArray(new Step[0]);
+    }
+
+    /**
+     * Метод создания сессии исполнителя
+     *
+     * @param client HTTP-клиент
+     * @param random источник случайных чисел исполнителя
+     * @return новая сессия
+     */
+    public Session newSession(HttpClient client, Random random) {
+        return new Session(client, random);
+    }
+
+    /**
+     * Метод выполнения сценария. Значения, заданные в сессии до вызова, доступны шагам;
+     * значения, полученные шагами, остаются в сессии после вызова (в том числе при ошибке)
+     *
+     * @param session  сессия исполнителя
+     * @param listener наблюдатель шагов
+     * @return null, если все шаги прошли, иначе описание ошибки
+     * @throws InterruptedException если поток прерван
+     */
+    public String execute(Session session, StepListener listener) throws InterruptedException {
+        for (Step step : steps) {
+            try {
+                String failure = step.run(session, listener);
+                if (failure != null) {
+                    return name + ", " + step + ": " + failure;
+                }
+            } catch (AssertionError | RuntimeException e) {
+                return name + ", " + step + ": " + e.getMessage();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Метод однократного выполнения сценария в тесте
+     *
+     * @param session сессия с данными теста
+     * @throws AssertionError если шаг не прошел
+     */
+    public void runOnce(Session session) throws InterruptedException {
+        String failure = execute(session, StepListener.NONE);
+        if (failure != null) {
+            throw new AssertionError(failure);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Шаг плана
+     */
+    abstract static class Step {
+
+        final int index;
+        final String name;
+
+        Step(int index, String name) {
+            this.index = index;
+            this.name = name;
+        }
+
+        /**
+         * @return null, если шаг прошел, иначе описание ошибки
+         */
+        abstract String run(Session session, StepListener listener) throws InterruptedException;
+
+        @Override
+        public String toString() {
+            return "step " + index + (name == null ? "" : " " + name);
+        }
+    }
+
+    /**
+     * Подстановка данных в сессию
+     */
+    static final class FeedStep extends Step {
+
+        private final Key<Object> key;
+        private final Function<Session, ?> feeder;
+
+        @SuppressWarnings("unchecked")
+        FeedStep(int index, Key<?> key, Function<Session, ?> feeder) {
+            super(index, null);
+            this.key = (Key<Object>) key;
+            this.feeder = feeder;
+        }
+
+        @Override
+        String run(Session session, StepListener listener) {
+            Object value = feeder.apply(session);
+            if (value == null) {
+                return "no data for " + key;
+            }
+            session.set(key, value);
+            return null;
+        }
+    }
+
+    /**
+     * Действие без HTTP со статусом OK или ERR
+     */
+    static final class ActionStep extends Step {
+
+        private final Key<Object> key;
+        private final Function<Session, ?> action;
+
+        @SuppressWarnings("unchecked")
+        ActionStep(int index, String name, Key<?> key, Function<Session, ?> action) {
+            super(index, name);
+            this.key = (Key<Object>) key;
+            this.action = action;
+        }
+
+        @Override
+        String run(Session session, StepListener listener) throws InterruptedException {
+            listener.beforeStep(name, index);
+            long started = System.nanoTime();
+            Object value = action.apply(session);
+            listener.afterStep(name, value == null ? ERROR : OK, System.nanoTime() - started);
+            if (value == null) {
+                return "action returned no value for " + key;
+            }
+            session.set(key, value);
+            return null;
+        }
+    }
+
+    /**
+     * HTTP-запрос с заранее разобранным путем, сериализатором тела и десериализатором ответа
+     */
+    static final class HttpStep extends Step {
+
+        private final String method;
+        private final String baseUri;
+        private final Duration timeout;
+        private final String[] pathLiterals;
+        private final Key<?>[] pathKeys;
+        private final String[] headers;
+        private final Key<?>[] headerKeys;
+        private final Function<Session, ?> body;
+        private final ObjectWriter writer;
+        private final int expectedStatus;
+        private final ObjectReader reader;
+        private final List<BiConsumer<Session, Object>> handlers;
+
+        HttpStep(int index, String name, String method, String baseUri, Duration timeout, String[] pathLiterals,
+                 Key<?>[] pathKeys, String[] headers, Key<?>[] headerKeys, Function<Session, ?> body,
+                 ObjectWriter writer, int expectedStatus, ObjectReader reader, List<BiConsumer<Session, Object>> handlers) {
+            super(index, name);
+            this.method = method;
+            this.baseUri = baseUri;
+            this.timeout = timeout;
+            this.pathLiterals = pathLiterals;
+            this.pathKeys = pathKeys;
+            this.headers = headers;
+            this.headerKeys = headerKeys;
+            this.body = body;
+            this.writer = writer;
+            this.expectedStatus = expectedStatus;
+            this.reader = reader;
+            this.handlers = List.copyOf(handlers);
+        }
+
+        @Override
+        String run(Session session, StepListener listener) throws InterruptedException {
+            StringBuilder uri = new StringBuilder(baseUri).append(pathLiterals[0]);
+            for (int i = 0; i < pathKeys.length; i++) {
+                Object value = session.get(pathKeys[i]);
+                if (value == null) {
+                    return "no value for " + pathKeys[i];
+                }
+                uri.append(value).append(pathLiterals[i + 1]);
+            }
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(uri.toString())).timeout(timeout);
+            for (int i = 0; i < headers.length; i++) {
+                Object value = session.get(headerKeys[i]);
+                if (value == null) {
+                    return "no value for " + headerKeys[i];
+                }
+                request.header(headers[i], value.toString());
+            }
+            HttpRequest.BodyPublisher publisher = HttpRequest.BodyPublishers.noBody();
+            if (body != null) {
+                try {
+                    publisher = HttpRequest.BodyPublishers.ofByteArray(writer.writeValueAsBytes(body.apply(session)));
+                } catch (IOException e) {
+                    return "body is not serializable: " + e.getMessage();
+                }
+                request.header("Content-Type", "application/json");
+            }
+            HttpRequest built = request.method(method, publisher).build();
+
+            listener.beforeStep(name, index);
+            long started = System.nanoTime();
+            HttpResponse<byte[]> response;
+            try {
+                response = session.client().send(built, HttpResponse.BodyHandlers.ofByteArray());
+            } catch (IOException e) {
+                listener.afterStep(name, ERROR, System.nanoTime() - started);
+                return method + " " + built.uri() + " failed: " + e;
+            }
+            int status = response.statusCode();
+            listener.afterStep(name, status >= 0 && status < STATUSES.length ? STATUSES[status] : String.valueOf(status),
+                    System.nanoTime() - started);
+            if (status != expectedStatus) {
+                return "expected status " + expectedStatus + ", got " + status + " "
+                        + new String(response.body(), StandardCharsets.UTF_8);
+            }
+            if (reader != null) {
+                Object parsed;
+                try {
+                    parsed = reader.readValue(response.body());
+                } catch (IOException e) {
+                    return "response is not " + reader.getValueType() + ": " + e.getMessage();
+                }
+                for (BiConsumer<Session, Object> handler : handlers) {
+                    handler.accept(session, parsed);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package scenario;
+
+import java.net.http.HttpClient;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Состояние одного исполнителя сценария: HTTP-клиент, источник случайных чисел и значения ключей.
+ * Сессия не потокобезопасна и переиспользуется между итерациями одного исполнителя (clear()),
+ * чтобы итерация не создавала новых объектов состояния
+ */
+public final class Session {
+
+    private final HttpClient client;
+    private final Random random;
+    private Object[] values;
+
+    Session(HttpClient client, Random random) {
+        this.client = client;
+        this.random = random;
+        this.values = new Object[Key.count()];
+    }
+
+    /**
+     * Метод получения значения ключа
+     *
+     * @return значение или null, если значение не задано
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Key<T> key) {
+        int index = key.index();
+        return index < values.length ? (T) values[index] : null;
+    }
+
+    /**
+     * Метод задания значения ключа
+     *
+     * @return эта сессия
+     */
+    public <T> Session set(Key<T> key, T value) {
+        int index = key.index();
+        if (index >= values.length) {
+            values = Arrays.copyOf(values, Key.count());
+        }
+        values[index] = value;
+        return this;
+    }
+
+    /**
+     * Метод сброса значений перед следующей итерацией
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+    }
+
+    public Random random() {
+        return random;
+    }
+
+    HttpClient client() {
+        return client;
+    }
+}
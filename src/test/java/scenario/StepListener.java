@@ -0,0 +1,33 @@
+package scenario;
+
+/**
+ * Наблюдатель выполнения шагов сценария: паузы между шагами и запись задержек в нагрузке.
+ * Вызывается только для шагов с именем (HTTP-запросы и действия), подстановки данных (feed) не наблюдаются
+ */
+public interface StepListener {
+
+    /**
+     * Наблюдатель без действий, для однократного запуска в тесте
+     */
+    StepListener NONE = (step, status, latencyNanos) -> {
+    };
+
+    /**
+     * Метод, вызываемый перед шагом
+     *
+     * @param step  имя шага
+     * @param index номер шага в плане, 0 - первый шаг
+     * @throws InterruptedException если поток прерван (например, во время паузы)
+     */
+    default void beforeStep(String step, int index) throws InterruptedException {
+    }
+
+    /**
+     * Метод, вызываемый после шага
+     *
+     * @param step         имя шага
+     * @param status       HTTP-статус, ERR при ошибке транспорта, OK/ERR для действий
+     * @param latencyNanos задержка шага, нс
+     */
+    void afterStep(String step, String status, long latencyNanos);
+}
@@ -0,0 +1,192 @@
+package stub;
+
+import database.OrderBDModel;
+import database.OrderRepository;
+import database.SeededOrderBDModel;
+import dto.product.ProductCreateRequest;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Хранилище order и customer поверх данных заглушки склада: проверки видят те же заказы и резервы,
+ * что и заглушка, без обращения к БД
+ */
+public class InMemoryOrderRepository implements OrderRepository {
+
+    /**
+     * Данные заглушки склада
+     */
+    private final WarehouseStore store;
+
+    /**
+     * Хранилище product тех же данных, используется при создании заказа минуя API
+     */
+    private final InMemoryProductRepository products;
+
+    public InMemoryOrderRepository(WarehouseStore store) {
+        this.store = store;
+        this.products = new InMemoryProductRepository(store);
+    }
+
+    @Override
+    public OrderBDModel getOrderBDModel(String id) {
+        WarehouseStore.Order order = store.findOrder(id);
+        return order == null ? null : toModel(order);
+    }
+
+    @Override
+    public Map<String, OrderBDModel> getOrderBDModels(Collection<String> ids) {
+        Map<String, OrderBDModel> orders = new LinkedHashMap<>();
+        for (String id : ids) {
+            WarehouseStore.Order order = store.findOrder(id);
+            if (order != null) {
+                orders.put(id, toModel(order));
+            }
+        }
+        return orders;
+    }
+
+    @Override
+    public Integer getQtyProductOrder(String order_id, String product_id) {
+        WarehouseStore.Order order = store.findOrder(order_id);
+        if (order == null) {
+            return null;
+        }
+        for (WarehouseStore.OrderLine line : order.getLines()) {
+            if (line.getProductId().equals(product_id)) {
+                return line.getQty();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void deleteOrder(String id) {
+        store.deleteOrder(id);
+    }
+
+    @Override
+    public String getStatusOrder(String id) {
+        WarehouseStore.Order order = store.findOrder(id);
+        return order == null ? null : order.getStatus();
+    }
+
+    @Override
+    public String availabilityCheckOrder(String id) {
+        WarehouseStore.Order order = store.findOrder(id);
+        return order == null || order.getLines().isEmpty() ? null : order.getId();
+    }
+
+    @Override
+    public Map<String, BigDecimal> getReservedQtyByProduct(Collection<String> ids) {
+        Map<String, BigDecimal> reserved = new HashMap<>();
+        for (String id : ids) {
+            WarehouseStore.Order order = store.findOrder(id);
+            if (order == null || !WarehouseStore.STATUS_CREATED.equals(order.getStatus())) {
+                continue;
+            }
+            for (WarehouseStore.OrderLine line : order.getLines()) {
+                reserved.merge(line.getProductId(), BigDecimal.valueOf(line.getQty()), BigDecimal::add);
+            }
+        }
+        return reserved;
+    }
+
+    @Override
+    public Map<String, Integer> findCancelledOrdersWithLines(Collection<String> productIds) {
+        Set<String> products = new HashSet<>(productIds);
+        Map<String, Integer> orders = new HashMap<>();
+        for (WarehouseStore.Order order : store.allOrders()) {
+            if (!WarehouseStore.STATUS_CANCELLED.equals(order.getStatus())) {
+                continue;
+            }
+            List<WarehouseStore.OrderLine> lines = order.getLines();
+            for (WarehouseStore.OrderLine line : lines) {
+                if (products.contains(line.getProductId())) {
+                    orders.put(order.getId(), lines.size());
+                    break;
+                }
+            }
+        }
+        return orders;
+    }
+
+    @Override
+    public Integer createCustomer(String login, String email) {
+        return store.createCustomer(login, email);
+    }
+
+    @Override
+    public List<Integer> createCustomers(List<String> logins, List<String> emails) {
+        List<Integer> ids = new ArrayList<>(logins.size());
+        for (int i = 0; i < logins.size(); i++) {
+            ids.add(store.createCustomer(logins.get(i), emails.get(i)));
+        }
+        return ids;
+    }
+
+    @Override
+    public void deleteCustomer(int id) {
+        store.deleteCustomer(id);
+    }
+
+    @Override
+    public SeededOrderBDModel seedOrder(String orderId, String login, String email, String deliveryAddress,
+                                        List<ProductCreateRequest> products, List<Integer> lineQty) {
+        List<String> productIds = new ArrayList<>(products.size());
+        int customerId = store.createCustomer(login, email);
+        try {
+            for (ProductCreateRequest product : products) {
+                productIds.add(this.products.createProduct(product, product.getQty()));
+            }
+            Map<String, Integer> lines = new LinkedHashMap<>();
+            for (int i = 0; i < lineQty.size(); i++) {
+                lines.put(productIds.get(i), lineQty.get(i));
+            }
+            store.createOrder(orderId, customerId, deliveryAddress, lines);
+        } catch (StubException e) {
+            System.err.println("Ошибка при создании заказа " + orderId + ": " + e.getMessage());
+            productIds.forEach(this.products::deleteProduct);
+            store.deleteCustomer(customerId);
+            return null;
+        }
+        return SeededOrderBDModel.builder()
+                .customerId(customerId)
+                .productIds(productIds)
+                .build();
+    }
+
+    /**
+     * Метод преобразования заказа заглушки в OrderBDModel
+     *
+     * @param order заказ заглушки
+     * @return экзепляр с необходимыми полями
+     */
+    private static OrderBDModel toModel(WarehouseStore.Order order) {
+        List<OrderBDModel.OrderProduct> lines = new ArrayList<>();
+        for (WarehouseStore.OrderLine line : order.getLines()) {
+            lines.add(OrderBDModel.OrderProduct.builder()
+                    .id(line.getProductId())
+                    .qty(line.getQty())
+                    .price(line.getPrice().setScale(InMemoryProductRepository.DB_SCALE, RoundingMode.HALF_UP))
+                    .name(line.getName())
+                    .build());
+        }
+        return OrderBDModel.builder()
+                .order_id(order.getId())
+                .customer_id(String.valueOf(order.getCustomerId()))
+                .status(order.getStatus())
+                .deliveryAddress(order.getDeliveryAddress())
+                .products(lines)
+                .build();
+    }
+}
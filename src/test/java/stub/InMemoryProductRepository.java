@@ -0,0 +1,183 @@
+package stub;
+
+import database.ProductBDModel;
+import database.ProductRepository;
+import database.ProductStockBDModel;
+import dto.product.ProductCreateRequest;
+import helpers.UuidHashSet;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Хранилище product поверх данных заглушки склада: проверки видят те же остатки, что и заглушка,
+ * без обращения к БД. Числа, даты и признак доступности возвращаются в том же виде, что и из PostgreSQL
+ */
+public class InMemoryProductRepository implements ProductRepository {
+
+    /**
+     * Количество знаков после запятой числовых полей в БД (price и qty - numeric с двумя знаками)
+     */
+    static final int DB_SCALE = 2;
+
+    /**
+     * Данные заглушки склада
+     */
+    private final WarehouseStore store;
+
+    public InMemoryProductRepository(WarehouseStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public ProductBDModel getProductBDModel(String id) {
+        WarehouseStore.Product product = store.findProduct(id);
+        return product == null ? null : toModel(product);
+    }
+
+    @Override
+    public Map<String, ProductBDModel> getProductBDModels(Collection<String> ids) {
+        Map<String, ProductBDModel> products = new HashMap<>();
+        for (String id : ids) {
+            WarehouseStore.Product product = store.findProduct(id);
+            if (product != null) {
+                products.put(id, toModel(product));
+            }
+        }
+        return products;
+    }
+
+    @Override
+    public List<String> findMissingProductIds(Collection<String> ids) {
+        List<String> missing = new ArrayList<>();
+        for (String id : new LinkedHashSet<>(ids)) {
+            if (store.findProduct(id) == null) {
+                missing.add(id);
+            }
+        }
+        return missing;
+    }
+
+    @Override
+    public UuidHashSet scanProductIds() {
+        Collection<WarehouseStore.Product> products = store.allProducts();
+        UuidHashSet ids = new UuidHashSet(products.size());
+        for (WarehouseStore.Product product : products) {
+            ids.add(UUID.fromString(product.getId()));
+        }
+        return ids;
+    }
+
+    @Override
+    public void deleteProduct(String id) {
+        try {
+            store.deleteProduct(id);
+        } catch (StubException e) {
+            System.err.println("Ошибка при удалении product " + id + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public BigDecimal setProductQty(String id, int qty) {
+        Integer previous = store.setProductQty(id, qty);
+        return previous == null ? null : BigDecimal.valueOf(previous).setScale(DB_SCALE);
+    }
+
+    @Override
+    public ProductStockBDModel getProductStock(String id) {
+        return getProductStocks(Collections.singletonList(id)).get(id);
+    }
+
+    @Override
+    public Map<String, ProductStockBDModel> getProductStocks(Collection<String> ids) {
+        Map<String, int[]> reserved = new HashMap<>();
+        for (String id : ids) {
+            if (store.findProduct(id) != null) {
+                reserved.put(id, new int[2]);
+            }
+        }
+        for (WarehouseStore.Order order : store.allOrders()) {
+            if (!WarehouseStore.STATUS_CREATED.equals(order.getStatus())) {
+                continue;
+            }
+            for (WarehouseStore.OrderLine line : order.getLines()) {
+                int[] sums = reserved.get(line.getProductId());
+                if (sums != null) {
+                    sums[0] += line.getQty();
+                    sums[1]++;
+                }
+            }
+        }
+        Map<String, ProductStockBDModel> stocks = new HashMap<>();
+        reserved.forEach((id, sums) -> {
+            WarehouseStore.Product product = store.findProduct(id);
+            if (product != null) {
+                stocks.put(id, ProductStockBDModel.builder()
+                        .productId(id)
+                        .qty(BigDecimal.valueOf(product.getQty()).setScale(DB_SCALE))
+                        .orderedQty(BigDecimal.valueOf(sums[0]))
+                        .orders(sums[1])
+                        .build());
+            }
+        });
+        return stocks;
+    }
+
+    @Override
+    public List<String> createProducts(List<ProductCreateRequest> requests) {
+        List<String> ids = new ArrayList<>(requests.size());
+        try {
+            for (ProductCreateRequest request : requests) {
+                ids.add(createProduct(request, request.getQty()));
+            }
+        } catch (StubException e) {
+            System.err.println("Ошибка при создании product: " + e.getMessage());
+            ids.forEach(this::deleteProduct);
+            return new ArrayList<>();
+        }
+        return ids;
+    }
+
+    /**
+     * Метод создания одного продукта в хранилище заглушки
+     *
+     * @param request данные продукта
+     * @param qty     количество продукта
+     * @return id продукта
+     * @throws StubException если артикул занят или данные некорректны
+     */
+    String createProduct(ProductCreateRequest request, int qty) {
+        return store.createProduct(request.getName(), request.getArticle(), request.getCategory(),
+                request.getDictionary(), request.getPrice(), qty).getId();
+    }
+
+    /**
+     * Метод преобразования продукта заглушки в ProductBDModel: даты заглушки хранятся в UTC без зоны,
+     * в модели они записываются с зоной, как timestamptz из БД
+     *
+     * @param product продукт заглушки
+     * @return экзепляр с необходимыми полями
+     */
+    private static ProductBDModel toModel(WarehouseStore.Product product) {
+        return ProductBDModel.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .article(product.getArticle())
+                .dictionary(product.getDictionary())
+                .category(product.getCategory())
+                .price(product.getPrice().setScale(DB_SCALE, RoundingMode.HALF_UP))
+                .qty(BigDecimal.valueOf(product.getQty()).setScale(DB_SCALE))
+                .inserted_at(product.getInsertedAt() + "Z")
+                .last_qty_changed(product.getLastQtyChanged() + "Z")
+                .is_available(product.isAvailable() ? "t" : "f")
+                .build();
+    }
+}
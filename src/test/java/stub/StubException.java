@@ -0,0 +1,28 @@
+package stub;
+
+/**
+ * Ошибка обработки запроса заглушкой склада с HTTP-статусом ответа
+ */
+public class StubException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * HTTP-статус ответа
+     */
+    private final int status;
+
+    public StubException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    /**
+     * Метод получения HTTP-статуса ответа
+     *
+     * @return HTTP-статус
+     */
+    public int getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,536 @@
+package stub;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Потокобезопасное хранилище данных заглушки склада: product, customer, order и позиции заказов.
+ * Остатки изменяются так же, как в сервисе: создание и изменение заказа резервируют количество продуктов,
+ * отмена заказа возвращает его. Изменение нескольких продуктов атомарно: блокировки продуктов берутся
+ * в порядке их id, поэтому параллельные заказы не блокируют друг друга взаимно
+ */
+public final class WarehouseStore {
+
+    /**
+     * Статусы заказа
+     */
+    public static final String STATUS_CREATED = "CREATED";
+    public static final String STATUS_CANCELLED = "CANCELLED";
+
+    /**
+     * Формат дат продукта, как в ответах сервиса: время UTC без зоны с точностью до микросекунд
+     */
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSS");
+
+    /**
+     * Данные хранилища
+     */
+    private final Map<String, Product> products = new ConcurrentHashMap<>();
+    private final Map<String, Order> orders = new ConcurrentHashMap<>();
+    private final Map<String, String> productIdsByArticle = new ConcurrentHashMap<>();
+    private final Map<Integer, String> customerLogins = new ConcurrentHashMap<>();
+    private final AtomicInteger customerSequence = new AtomicInteger();
+
+    /**
+     * Метод создания продукта
+     *
+     * @return созданный продукт
+     * @throws StubException если артикул уже занят или данные некорректны
+     */
+    public Product createProduct(String name, String article, String category, String dictionary, BigDecimal price, int qty) {
+        if (article == null || price == null || qty < 0) {
+            throw new StubException(400, "article, price and non-negative qty are required");
+        }
+        Product product = new Product(UUID.randomUUID().toString(), name, article, category, dictionary, price, qty);
+        if (productIdsByArticle.putIfAbsent(article, product.id) != null) {
+            throw new StubException(409, "Product with article " + article + " already exists");
+        }
+        products.put(product.id, product);
+        return product;
+    }
+
+    /**
+     * Метод получения продукта
+     *
+     * @param id продукта
+     * @return продукт или null
+     */
+    public Product findProduct(String id) {
+        return id == null ? null : products.get(id);
+    }
+
+    /**
+     * Метод получения всех продуктов
+     *
+     * @return продукты
+     */
+    public Collection<Product> allProducts() {
+        return Collections.unmodifiableCollection(products.values());
+    }
+
+    /**
+     * Метод получения всех заказов, включая отмененные
+     *
+     * @return заказы
+     */
+    public Collection<Order> allOrders() {
+        return Collections.unmodifiableCollection(orders.values());
+    }
+
+    /**
+     * Метод изменения продукта
+     *
+     * @return измененный продукт
+     * @throws StubException если продукт не найден
+     */
+    public Product updateProduct(String id, String name, String article, String category, String dictionary, BigDecimal price, int qty) {
+        Product product = requireProduct(id);
+        product.lock.lock();
+        try {
+            if (article != null && !article.equals(product.article)) {
+                if (productIdsByArticle.putIfAbsent(article, id) != null) {
+                    throw new StubException(409, "Product with article " + article + " already exists");
+                }
+                productIdsByArticle.remove(product.article, id);
+                product.article = article;
+            }
+            product.name = name;
+            product.category = category;
+            product.dictionary = dictionary;
+            product.price = price;
+            product.setQty(qty);
+            return product;
+        } finally {
+            product.lock.unlock();
+        }
+    }
+
+    /**
+     * Метод установки количества продукта без изменения заказов
+     *
+     * @param id  продукта
+     * @param qty количество
+     * @return количество до изменения, null если продукта нет
+     */
+    public Integer setProductQty(String id, int qty) {
+        Product product = findProduct(id);
+        if (product == null) {
+            return null;
+        }
+        product.lock.lock();
+        try {
+            int previous = product.getQty();
+            product.setQty(qty);
+            return previous;
+        } finally {
+            product.lock.unlock();
+        }
+    }
+
+    /**
+     * Метод удаления продукта. Позиции заказов меняются только под блокировкой продукта,
+     * поэтому проверка заказов под ней не пропускает заказ, создаваемый одновременно с удалением
+     *
+     * @param id продукта
+     * @throws StubException если продукт не найден или входит в активный заказ
+     */
+    public void deleteProduct(String id) {
+        Product product = requireProduct(id);
+        product.lock.lock();
+        try {
+            for (Order order : orders.values()) {
+                if (order.lines.containsKey(id)) {
+                    throw new StubException(409, "Product " + id + " is referenced by order " + order.id);
+                }
+            }
+            if (products.remove(id, product)) {
+                productIdsByArticle.remove(product.article, id);
+            }
+        } finally {
+            product.lock.unlock();
+        }
+    }
+
+    /**
+     * Метод создания customer
+     *
+     * @return id customer
+     */
+    public int createCustomer(String login, String email) {
+        int id = customerSequence.incrementAndGet();
+        customerLogins.put(id, login);
+        return id;
+    }
+
+    /**
+     * Метод удаления customer
+     *
+     * @param id customer
+     */
+    public void deleteCustomer(int id) {
+        customerLogins.remove(id);
+    }
+
+    /**
+     * Метод создания заказа с резервированием количества продуктов. Заказ становится виден в хранилище
+     * только после успешного резервирования, пока продукты еще заблокированы
+     *
+     * @param orderId    id заказа или null, чтобы сгенерировать его
+     * @param customerId id customer
+     * @param address    адрес доставки
+     * @param lines      количество по id продукта
+     * @return созданный заказ
+     * @throws StubException если продукт не найден или его недостаточно
+     */
+    public Order createOrder(String orderId, int customerId, String address, Map<String, Integer> lines) {
+        Order order = new Order(orderId == null ? UUID.randomUUID().toString() : orderId, customerId, address);
+        if (orders.containsKey(order.id)) {
+            throw new StubException(409, "Order " + order.id + " already exists");
+        }
+        List<Product> locked = lockProducts(lines.keySet());
+        try {
+            reserve(order, lines);
+            if (orders.putIfAbsent(order.id, order) != null) {
+                cancelLines(order);
+                throw new StubException(409, "Order " + order.id + " already exists");
+            }
+        } finally {
+            unlock(locked);
+        }
+        return order;
+    }
+
+    /**
+     * Метод получения заказа customer
+     *
+     * @return заказ
+     * @throws StubException если заказ не найден или принадлежит другому customer
+     */
+    public Order findOrder(String id, int customerId) {
+        Order order = id == null ? null : orders.get(id);
+        if (order == null || order.customerId != customerId) {
+            throw new StubException(404, "Order " + id + " not found");
+        }
+        return order;
+    }
+
+    /**
+     * Метод получения заказа без проверки customer
+     *
+     * @param id заказа
+     * @return заказ или null
+     */
+    public Order findOrder(String id) {
+        return id == null ? null : orders.get(id);
+    }
+
+    /**
+     * Метод замены состава заказа: прежний резерв возвращается, новый резервируется атомарно
+     *
+     * @param lines новое количество по id продукта
+     * @throws StubException если заказ не найден, отменен, продукта нет или его недостаточно
+     */
+    public void updateOrder(String id, int customerId, Map<String, Integer> lines) {
+        Order order = findOrder(id, customerId);
+        synchronized (order) {
+            if (!STATUS_CREATED.equals(order.status)) {
+                throw new StubException(409, "Order " + id + " is " + order.status);
+            }
+            Map<String, Integer> previous = new LinkedHashMap<>();
+            order.lines.forEach((productId, line) -> previous.put(productId, line.qty));
+            List<String> touched = new ArrayList<>(previous.keySet());
+            touched.addAll(lines.keySet());
+            List<Product> locked = lockProducts(touched);
+            try {
+                cancelLines(order);
+                try {
+                    reserve(order, lines);
+                } catch (StubException e) {
+                    reserve(order, previous);
+                    throw e;
+                }
+            } finally {
+                unlock(locked);
+            }
+        }
+    }
+
+    /**
+     * Метод отмены заказа: позиции удаляются, зарезервированное количество возвращается продуктам
+     *
+     * @throws StubException если заказ не найден
+     */
+    public void cancelOrder(String id, int customerId) {
+        Order order = findOrder(id, customerId);
+        synchronized (order) {
+            if (STATUS_CANCELLED.equals(order.status)) {
+                return;
+            }
+            List<Product> locked = lockProducts(order.lines.keySet());
+            try {
+                cancelLines(order);
+            } finally {
+                unlock(locked);
+            }
+            order.status = STATUS_CANCELLED;
+        }
+    }
+
+    /**
+     * Метод удаления заказа из хранилища без возврата резерва (аналог удаления строк из БД)
+     *
+     * @param id заказа
+     */
+    public void deleteOrder(String id) {
+        if (id != null) {
+            orders.remove(id);
+        }
+    }
+
+    /**
+     * Метод очистки хранилища
+     */
+    public void clear() {
+        orders.clear();
+        products.clear();
+        productIdsByArticle.clear();
+        customerLogins.clear();
+    }
+
+    /**
+     * Метод резервирования позиций заказа. Вызывается с заблокированными продуктами: сначала проверяются все позиции,
+     * затем изменяются остатки, поэтому при ошибке остатки не меняются
+     */
+    private void reserve(Order order, Map<String, Integer> lines) {
+        for (Map.Entry<String, Integer> line : lines.entrySet()) {
+            Product product = products.get(line.getKey());
+            if (product == null) {
+                throw new StubException(404, "Product " + line.getKey() + " not found");
+            }
+            if (line.getValue() <= 0 || line.getValue() > product.qty) {
+                throw new StubException(400, "Not enough product " + product.id + ": requested " + line.getValue()
+                        + ", available " + product.qty);
+            }
+        }
+        for (Map.Entry<String, Integer> line : lines.entrySet()) {
+            Product product = products.get(line.getKey());
+            product.setQty(product.qty - line.getValue());
+            order.lines.put(product.id, new OrderLine(product.id, product.name, product.price, line.getValue()));
+        }
+    }
+
+    /**
+     * Метод возврата резерва всех позиций заказа. Вызывается с заблокированными продуктами
+     */
+    private void cancelLines(Order order) {
+        for (OrderLine line : order.lines.values()) {
+            Product product = products.get(line.productId);
+            if (product != null) {
+                product.setQty(product.qty + line.qty);
+            }
+        }
+        order.lines.clear();
+    }
+
+    /**
+     * Метод блокировки продуктов в порядке id
+     *
+     * @return заблокированные продукты
+     */
+    private List<Product> lockProducts(Collection<String> ids) {
+        Map<String, Product> sorted = new TreeMap<>();
+        for (String id : ids) {
+            Product product = products.get(id);
+            if (product != null) {
+                sorted.put(id, product);
+            }
+        }
+        List<Product> locked = new ArrayList<>(sorted.size());
+        for (Product product : sorted.values()) {
+            product.lock.lock();
+            locked.add(product);
+        }
+        return locked;
+    }
+
+    private static void unlock(List<Product> locked) {
+        for (int i = locked.size() - 1; i >= 0; i--) {
+            locked.get(i).lock.unlock();
+        }
+    }
+
+    private static String now() {
+        return LocalDateTime.now(ZoneOffset.UTC).format(DATE_FORMATTER);
+    }
+
+    private Product requireProduct(String id) {
+        Product product = findProduct(id);
+        if (product == null) {
+            throw new StubException(404, "Product " + id + " not found");
+        }
+        return product;
+    }
+
+    /**
+     * Продукт хранилища
+     */
+    public static final class Product {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final String id;
+        private final String insertedAt = now();
+        private volatile String name;
+        private volatile String article;
+        private volatile String category;
+        private volatile String dictionary;
+        private volatile BigDecimal price;
+        private volatile int qty;
+        private volatile String lastQtyChanged;
+
+        private Product(String id, String name, String article, String category, String dictionary, BigDecimal price, int qty) {
+            this.id = id;
+            this.name = name;
+            this.article = article;
+            this.category = category;
+            this.dictionary = dictionary;
+            this.price = price;
+            this.qty = qty;
+            this.lastQtyChanged = insertedAt;
+        }
+
+        private void setQty(int qty) {
+            this.qty = qty;
+            this.lastQtyChanged = now();
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getArticle() {
+            return article;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public String getDictionary() {
+            return dictionary;
+        }
+
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        public int getQty() {
+            return qty;
+        }
+
+        public String getInsertedAt() {
+            return insertedAt;
+        }
+
+        public String getLastQtyChanged() {
+            return lastQtyChanged;
+        }
+
+        public boolean isAvailable() {
+            return qty > 0;
+        }
+    }
+
+    /**
+     * Заказ хранилища. Позиции изменяются под блокировкой заказа
+     */
+    public static final class Order {
+
+        private final String id;
+        private final int customerId;
+        private final String deliveryAddress;
+        private final Map<String, OrderLine> lines = new ConcurrentHashMap<>();
+        private volatile String status = STATUS_CREATED;
+
+        private Order(String id, int customerId, String deliveryAddress) {
+            this.id = id;
+            this.customerId = customerId;
+            this.deliveryAddress = deliveryAddress;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public int getCustomerId() {
+            return customerId;
+        }
+
+        public String getDeliveryAddress() {
+            return deliveryAddress;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        /**
+         * Метод получения копии позиций заказа
+         *
+         * @return позиции заказа
+         */
+        public List<OrderLine> getLines() {
+            return new ArrayList<>(lines.values());
+        }
+    }
+
+    /**
+     * Позиция заказа с ценой продукта на момент заказа
+     */
+    public static final class OrderLine {
+
+        private final String productId;
+        private final String name;
+        private final BigDecimal price;
+        private final int qty;
+
+        private OrderLine(String productId, String name, BigDecimal price, int qty) {
+            this.productId = productId;
+            this.name = name;
+            this.price = price;
+            this.qty = qty;
+        }
+
+        public String getProductId() {
+            return productId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        public int getQty() {
+            return qty;
+        }
+    }
+}
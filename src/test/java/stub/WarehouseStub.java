@@ -0,0 +1,454 @@
+package stub;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import config.BaseConfig;
+import dto.order.OrderCreateRequest;
+import dto.order.OrderCreateResponse;
+import dto.order.OrderGetResponse;
+import dto.order.OrderUpdateRequest;
+import dto.product.ProductCreateRequest;
+import dto.product.ProductCreateResponse;
+import dto.product.ProductGetByIdResponse;
+import dto.product.ProductUpdateRequest;
+import dto.product.ProductUpdateResponse;
+import helpers.JsonMapper;
+import org.aeonbits.owner.ConfigCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Встроенная HTTP-заглушка сервиса склада, работающая в той же JVM, что и тесты.
+ * Реализует эндпоинты из config.properties (product, order с заголовком customer_id) с той же логикой остатков,
+ * что и сервис, поверх WarehouseStore в памяти. Включается профилем stub (./gradlew test -Pprofile=stub),
+ * тогда тесты не требуют docker-compose. Задержка ответа настраивается (stubLatencyMs, stubLatencyJitterMs),
+ * поэтому заглушка служит и управляемой целью для замеров накладных расходов самого тестового стенда
+ */
+public final class WarehouseStub implements AutoCloseable {
+
+    /**
+     * Экземпляр конфигурации
+     */
+    private static final BaseConfig config = ConfigCache.getOrCreate(BaseConfig.class, System.getenv());
+
+    /**
+     * Заголовок с id customer в запросах заказа
+     */
+    private static final String CUSTOMER_ID_HEADER = "customer_id";
+
+    /**
+     * Коды ответов
+     */
+    private static final int STATUS_OK = 200;
+    private static final int STATUS_CREATED = 201;
+    private static final int STATUS_NO_CONTENT = 204;
+    private static final int STATUS_BAD_REQUEST = 400;
+    private static final int STATUS_NOT_FOUND = 404;
+    private static final int STATUS_METHOD_NOT_ALLOWED = 405;
+    private static final int STATUS_SERVER_ERROR = 500;
+
+    /**
+     * Заглушка, общая для тестов JVM
+     */
+    private static volatile WarehouseStub shared;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final WarehouseStore store;
+    private final ObjectMapper mapper = JsonMapper.get();
+    private final List<Route> routes = new ArrayList<>();
+
+    /**
+     * Задержка ответа и ее случайная добавка, мс
+     */
+    private volatile long latencyMs;
+    private volatile long latencyJitterMs;
+
+    /**
+     * Конструктор с запуском заглушки на loopback-интерфейсе
+     *
+     * @param port  порт, 0 - свободный порт
+     * @param store хранилище данных
+     * @throws IOException если порт занят
+     */
+    public WarehouseStub(int port, WarehouseStore store) throws IOException {
+        this.store = store;
+        this.latencyMs = config.stubLatencyMs();
+        this.latencyJitterMs = config.stubLatencyJitterMs();
+        registerRoutes();
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "warehouse-stub-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Метод получения адреса API для тестов и нагрузки: встроенная заглушка в профиле stub, иначе сервис из apiUrl
+     *
+     * @return адрес API
+     */
+    public static String apiUrl() {
+        return config.warehouseStub() ? shared().getBaseUrl() : config.apiUrl();
+    }
+
+    /**
+     * Метод получения заглушки, общей для тестов JVM. При первом вызове заглушка запускается на порту stubPort
+     * и останавливается при завершении JVM
+     *
+     * @return запущенная заглушка
+     */
+    public static WarehouseStub shared() {
+        WarehouseStub result = shared;
+        if (result == null) {
+            synchronized (WarehouseStub.class) {
+                result = shared;
+                if (result == null) {
+                    try {
+                        result = new WarehouseStub(config.stubPort(), new WarehouseStore());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Failed to start warehouse stub", e);
+                    }
+                    Runtime.getRuntime().addShutdownHook(new Thread(result::close, "warehouse-stub-shutdown"));
+                    shared = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Метод получения базового адреса заглушки
+     *
+     * @return адрес вида http://127.0.0.1:port/
+     */
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getAddress().getHostAddress() + ":" + server.getAddress().getPort() + "/";
+    }
+
+    /**
+     * Метод получения хранилища данных заглушки
+     *
+     * @return хранилище
+     */
+    public WarehouseStore getStore() {
+        return store;
+    }
+
+    /**
+     * Метод изменения задержки ответа
+     *
+     * @param latencyMs       задержка, мс
+     * @param latencyJitterMs верхняя граница случайной добавки к задержке, мс
+     */
+    public void setLatency(long latencyMs, long latencyJitterMs) {
+        this.latencyMs = latencyMs;
+        this.latencyJitterMs = latencyJitterMs;
+    }
+
+    /**
+     * Метод остановки заглушки
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Метод регистрации обработчиков эндпоинтов из конфигурации
+     */
+    private void registerRoutes() {
+        routes.add(new Route("POST", config.createProductEndpoint(), false, (exchange, id) -> createProduct(exchange)));
+        routes.add(new Route("GET", config.allProductsEndpoint(), false, (exchange, id) -> allProducts(exchange)));
+        routes.add(new Route("PATCH", config.updateProductEndpoint(), false, (exchange, id) -> updateProduct(exchange)));
+        routes.add(new Route("GET", config.getProductByIdEndpoint(), true, this::getProduct));
+        routes.add(new Route("DELETE", config.deleteProductEndpoint(), true, this::deleteProduct));
+        routes.add(new Route("POST", config.createOrderEndpoint(), false, (exchange, id) -> createOrder(exchange)));
+        routes.add(new Route("GET", config.getOrderByIdEndpoint(), true, this::getOrder));
+        routes.add(new Route("PATCH", config.updateOrderEndpoint(), true, this::updateOrder));
+        routes.add(new Route("DELETE", config.deleteOrderEndpoint(), true, this::deleteOrder));
+    }
+
+    /**
+     * Метод обработки запроса: задержка, выбор обработчика по методу и пути, преобразование ошибок в ответ
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readAllBytes();
+            }
+            // Атрибуты HttpExchange хранятся в общем HttpContext, поэтому прочитанное тело передается через поток запроса
+            exchange.setStreams(new ByteArrayInputStream(body), null);
+            delay();
+            try {
+                route(exchange);
+            } catch (StubException e) {
+                sendJson(exchange, e.getStatus(), Collections.singletonMap("message", e.getMessage()));
+            } catch (IOException | RuntimeException e) {
+                sendJson(exchange, STATUS_SERVER_ERROR, Collections.singletonMap("message", String.valueOf(e.getMessage())));
+            }
+        }
+    }
+
+    /**
+     * Метод выбора обработчика по методу и пути запроса
+     *
+     * @throws IOException если ошибки при записи ответа
+     */
+    private void route(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath().replaceFirst("^/+", "");
+        boolean pathMatched = false;
+        for (Route route : routes) {
+            String id = route.match(path);
+            if (id == null) {
+                continue;
+            }
+            pathMatched = true;
+            if (route.method.equals(exchange.getRequestMethod())) {
+                route.handler.handle(exchange, id);
+                return;
+            }
+        }
+        throw new StubException(pathMatched ? STATUS_METHOD_NOT_ALLOWED : STATUS_NOT_FOUND,
+                exchange.getRequestMethod() + " /" + path + " is not supported");
+    }
+
+    private void createProduct(HttpExchange exchange) throws IOException {
+        ProductCreateRequest request = readBody(exchange, ProductCreateRequest.class);
+        WarehouseStore.Product product = store.createProduct(request.getName(), request.getArticle(), request.getCategory(),
+                request.getDictionary(), request.getPrice(), request.getQty());
+        sendJson(exchange, STATUS_CREATED, ProductCreateResponse.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .article(product.getArticle())
+                .category(product.getCategory())
+                .dictionary(product.getDictionary())
+                .price(product.getPrice())
+                .qty(BigDecimal.valueOf(product.getQty()))
+                .insertedAt(product.getInsertedAt())
+                .last_qty_changed(product.getLastQtyChanged())
+                .build());
+    }
+
+    private void allProducts(HttpExchange exchange) throws IOException {
+        List<ProductGetByIdResponse> products = new ArrayList<>();
+        for (WarehouseStore.Product product : store.allProducts()) {
+            products.add(toGetByIdResponse(product));
+        }
+        sendJson(exchange, STATUS_OK, products);
+    }
+
+    private void updateProduct(HttpExchange exchange) throws IOException {
+        ProductUpdateRequest request = readBody(exchange, ProductUpdateRequest.class);
+        WarehouseStore.Product product = store.updateProduct(request.getId(), request.getName(), request.getArticle(),
+                request.getCategory(), request.getDictionary(), request.getPrice(), request.getQty());
+        sendJson(exchange, STATUS_OK, ProductUpdateResponse.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .article(product.getArticle())
+                .category(product.getCategory())
+                .dictionary(product.getDictionary())
+                .price(product.getPrice())
+                .qty(BigDecimal.valueOf(product.getQty()))
+                .insertedAt(product.getInsertedAt())
+                .last_qty_changed(product.getLastQtyChanged())
+                .build());
+    }
+
+    private void getProduct(HttpExchange exchange, String id) throws IOException {
+        WarehouseStore.Product product = store.findProduct(id);
+        if (product == null) {
+            throw new StubException(STATUS_NOT_FOUND, "Product " + id + " not found");
+        }
+        sendJson(exchange, STATUS_OK, toGetByIdResponse(product));
+    }
+
+    private void deleteProduct(HttpExchange exchange, String id) throws IOException {
+        store.deleteProduct(id);
+        sendEmpty(exchange, STATUS_OK);
+    }
+
+    private void createOrder(HttpExchange exchange) throws IOException {
+        int customerId = customerId(exchange);
+        OrderCreateRequest request = readBody(exchange, OrderCreateRequest.class);
+        Map<String, Integer> lines = new LinkedHashMap<>();
+        if (request.getProducts() != null) {
+            for (OrderCreateRequest.Products product : request.getProducts()) {
+                lines.merge(product.getId(), product.getQty(), Integer::sum);
+            }
+        }
+        WarehouseStore.Order order = store.createOrder(null, customerId, request.getDeliveryAddress(), lines);
+        sendJson(exchange, STATUS_OK, OrderCreateResponse.builder().id(order.getId()).build());
+    }
+
+    private void getOrder(HttpExchange exchange, String id) throws IOException {
+        WarehouseStore.Order order = store.findOrder(id, customerId(exchange));
+        List<OrderGetResponse.Products> products = new ArrayList<>();
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        for (WarehouseStore.OrderLine line : order.getLines()) {
+            products.add(OrderGetResponse.Products.builder()
+                    .id(line.getProductId())
+                    .name(line.getName())
+                    .price(line.getPrice())
+                    .qty(line.getQty())
+                    .build());
+            // Как в сервисе: totalPrice - сумма цен позиций ordered_product без умножения на количество
+            totalPrice = totalPrice.add(line.getPrice());
+        }
+        sendJson(exchange, STATUS_OK, OrderGetResponse.builder()
+                .orderId(order.getId())
+                .products(products)
+                .totalPrice(totalPrice)
+                .build());
+    }
+
+    private void updateOrder(HttpExchange exchange, String id) throws IOException {
+        int customerId = customerId(exchange);
+        OrderUpdateRequest request = readBody(exchange, OrderUpdateRequest.class);
+        Map<String, Integer> lines = new LinkedHashMap<>();
+        if (request.getProducts() != null) {
+            for (OrderUpdateRequest.Products product : request.getProducts()) {
+                lines.merge(product.getId(), product.getQty(), Integer::sum);
+            }
+        }
+        store.updateOrder(id, customerId, lines);
+        sendEmpty(exchange, STATUS_NO_CONTENT);
+    }
+
+    private void deleteOrder(HttpExchange exchange, String id) throws IOException {
+        store.cancelOrder(id, customerId(exchange));
+        sendEmpty(exchange, STATUS_OK);
+    }
+
+    private static ProductGetByIdResponse toGetByIdResponse(WarehouseStore.Product product) {
+        return ProductGetByIdResponse.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .article(product.getArticle())
+                .category(product.getCategory())
+                .dictionary(product.getDictionary())
+                .price(product.getPrice())
+                .qty(BigDecimal.valueOf(product.getQty()))
+                .insertedAt(product.getInsertedAt())
+                .last_qty_changed(product.getLastQtyChanged())
+                .build();
+    }
+
+    /**
+     * Метод получения id customer из заголовка запроса
+     *
+     * @return id customer
+     */
+    private static int customerId(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst(CUSTOMER_ID_HEADER);
+        try {
+            return Integer.parseInt(header);
+        } catch (NumberFormatException e) {
+            throw new StubException(STATUS_BAD_REQUEST, "Header " + CUSTOMER_ID_HEADER + " is required");
+        }
+    }
+
+    private <T> T readBody(HttpExchange exchange, Class<T> type) {
+        try (InputStream body = exchange.getRequestBody()) {
+            return mapper.readValue(body, type);
+        } catch (IOException e) {
+            throw new StubException(STATUS_BAD_REQUEST, "Invalid body: " + e.getMessage());
+        }
+    }
+
+    private void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = mapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sendEmpty(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+    /**
+     * Метод задержки ответа
+     */
+    private void delay() {
+        long delay = latencyMs + (latencyJitterMs > 0 ? ThreadLocalRandom.current().nextLong(latencyJitterMs + 1) : 0);
+        if (delay > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Обработчик эндпоинта
+     */
+    @FunctionalInterface
+    private interface Handler {
+
+        void handle(HttpExchange exchange, String id) throws IOException;
+    }
+
+    /**
+     * Эндпоинт заглушки: метод и путь из конфигурации, для эндпоинтов с id путь - префикс перед id
+     */
+    private static final class Route {
+
+        private final String method;
+        private final String path;
+        private final boolean withId;
+        private final Handler handler;
+
+        private Route(String method, String endpoint, boolean withId, Handler handler) {
+            this.method = method;
+            this.path = endpoint.replaceFirst("^/+", "");
+            this.withId = withId;
+            this.handler = handler;
+        }
+
+        /**
+         * Метод сопоставления пути запроса
+         *
+         * @return id из пути, пустая строка для эндпоинта без id или null, если путь не подходит
+         */
+        private String match(String requestPath) {
+            if (!withId) {
+                return path.equals(requestPath) ? "" : null;
+            }
+            String prefix = path.endsWith("/") ? path : path + "/";
+            if (!requestPath.startsWith(prefix)) {
+                return null;
+            }
+            String id = requestPath.substring(prefix.length());
+            return id.isEmpty() || id.contains("/") ? null : id;
+        }
+    }
+}
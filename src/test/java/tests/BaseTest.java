@@ -1,43 +1,94 @@
 package tests;
 
 import config.BaseConfig;
+import database.CleanupRegistry;
 import helpers.BaseRequests;
+import helpers.StartupProfiler;
 import io.restassured.specification.RequestSpecification;
-import org.aeonbits.owner.ConfigFactory;
+import org.aeonbits.owner.ConfigCache;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInfo;
+import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 
 /**
  * Общий класс с настройками для всех тестов
  */
+@ExtendWith({DatabaseSnapshotExtension.class, TestDataSweepExtension.class, StockAuditExtension.class})
 public class BaseTest {
 
     /**
      * Экземпляр конфигурации
      */
-    protected static final BaseConfig config = ConfigFactory.create(BaseConfig.class, System.getenv());
+    protected static final BaseConfig config = ConfigCache.getOrCreate(BaseConfig.class, System.getenv());
 
     /**
      * Экземпляр класса BaseRequests с инициализированным RestAssured
      */
-    private static BaseRequests baseRequests;
+    private static final BaseRequests baseRequests = StartupProfiler.bootstrap(() -> new BaseRequests(config));
 
     /**
-     * Экземпляр спецификации RestAssured
+     * Спецификация RestAssured, своя для каждого потока выполнения тестов
      */
-    protected static RequestSpecification requestSpecification;
+    private static final ThreadLocal<RequestSpecification> requestSpecification =
+            ThreadLocal.withInitial(BaseTest::initRequestSpecification);
 
     /**
-     * Метод инициализации объекта BaseRequests и спецификации запроса перед каждым тестом
+     * Спецификация RestAssured без фильтров для чтения тела ответа потоком, своя для каждого потока выполнения тестов
+     */
+    private static final ThreadLocal<RequestSpecification> streamingRequestSpecification =
+            ThreadLocal.withInitial(baseRequests::initStreamingRequestSpecification);
+
+    /**
+     * Метод регистрации тестового класса перед его запуском (все классы выполняются в одной JVM)
      *
-     * @throws IOException если ошибки при формировании спецификации
+     * @param testInfo информация о тестовом классе
      */
     @BeforeAll
-    public static void setup() throws IOException {
-        if (baseRequests == null) {
-            baseRequests = new BaseRequests(config);
+    public static void registerTestClass(TestInfo testInfo) {
+        testInfo.getTestClass().ifPresent(StartupProfiler::testClass);
+    }
+
+    /**
+     * Метод удаления тестовых данных класса после его завершения, чтобы они не влияли на следующие классы в той же JVM
+     */
+    @AfterAll
+    public static void cleanupAfterClass() {
+        CleanupRegistry.flush();
+    }
+
+    /**
+     * Метод получения спецификации запроса текущего потока. Спецификация создается один раз на поток
+     *
+     * @return экземпляр спецификации RestAssured
+     */
+    protected static RequestSpecification requestSpecification() {
+        return requestSpecification.get();
+    }
+
+    /**
+     * Метод получения спецификации запроса текущего потока, тело ответа которого читается потоком через asInputStream()
+     * и не буферизуется. Поток тела ответа нужно закрыть, чтобы подключение вернулось в пул
+     *
+     * @return экземпляр спецификации RestAssured без фильтров
+     */
+    protected static RequestSpecification streamingRequestSpecification() {
+        return streamingRequestSpecification.get();
+    }
+
+    /**
+     * Метод создания спецификации запроса для нового потока
+     *
+     * @return экземпляр спецификации RestAssured
+     */
+    private static RequestSpecification initRequestSpecification() {
+        try {
+            return baseRequests.initRequestSpecification();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to init request specification", e);
         }
-        requestSpecification = baseRequests.initRequestSpecification();
     }
-}
\ No newline at end of file
+}
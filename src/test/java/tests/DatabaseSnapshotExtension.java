@@ -0,0 +1,78 @@
+package tests;
+
+import config.BaseConfig;
+import database.DatabaseSnapshot;
+import database.Repositories;
+import org.aeonbits.owner.ConfigCache;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Расширение JUnit, восстанавливающее БД из базового снимка один раз за прогон, до первого тестового класса.
+ * Восстановление очищает таблицы (TRUNCATE) или пересоздает базу (TEMPLATE), поэтому выполняется только по явному запросу:
+ * ./gradlew test -PdbRestore[=truncate|template] или dbSnapshotMode в config.properties (по умолчанию OFF).
+ * Результат хранится в корневом контексте JUnit, поэтому восстановление не повторяется для следующих классов,
+ * в том числе при параллельном запуске. Если запрошенное восстановление не выполнено, падают все тестовые классы
+ */
+public class DatabaseSnapshotExtension implements BeforeAllCallback {
+
+    /**
+     * Системное свойство явного запроса восстановления, значение - способ восстановления (по умолчанию TRUNCATE)
+     */
+    public static final String RESTORE_PROPERTY = "dbRestore";
+
+    /**
+     * Экземпляр конфигурации
+     */
+    private static final BaseConfig config = ConfigCache.getOrCreate(BaseConfig.class, System.getenv());
+
+    /**
+     * Пространство хранения результата восстановления
+     */
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(DatabaseSnapshotExtension.class);
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        DatabaseSnapshot.Mode mode = restoreMode();
+        if (mode == DatabaseSnapshot.Mode.OFF || Repositories.inMemory()) {
+            return;
+        }
+        String failure = context.getRoot().getStore(NAMESPACE).getOrComputeIfAbsent(DatabaseSnapshot.Mode.class,
+                key -> restore(mode), String.class);
+        if (!failure.isEmpty()) {
+            throw new IllegalStateException(failure);
+        }
+    }
+
+    /**
+     * Метод получения способа восстановления: системное свойство dbRestore, иначе dbSnapshotMode
+     *
+     * @return способ восстановления, OFF если восстановление не запрошено
+     */
+    private static DatabaseSnapshot.Mode restoreMode() {
+        String requested = System.getProperty(RESTORE_PROPERTY);
+        if (requested == null) {
+            return config.dbSnapshotMode();
+        }
+        return requested.isEmpty() || Boolean.parseBoolean(requested)
+                ? DatabaseSnapshot.Mode.TRUNCATE
+                : DatabaseSnapshot.Mode.valueOf(requested.toUpperCase());
+    }
+
+    /**
+     * Метод восстановления БД
+     *
+     * @param mode способ восстановления
+     * @return пустая строка при успехе, иначе описание ошибки
+     */
+    private static String restore(DatabaseSnapshot.Mode mode) {
+        try {
+            return DatabaseSnapshot.restore(mode) < 0
+                    ? "DB snapshot: baseline (" + mode + ") not found. Capture it with ./gradlew dbSnapshot"
+                    : "";
+        } catch (RuntimeException e) {
+            return "Ошибка при восстановлении БД из снимка: " + e.getMessage()
+                    + (e.getCause() == null ? "" : " (" + e.getCause().getMessage() + ")");
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package tests;
+
+import database.CleanupRegistry;
+import database.StockLedger;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.List;
+
+/**
+ * Расширение JUnit, проверяющее сохранение остатков продуктов один раз за прогон, после последнего тестового класса.
+ * Нарушения находит StockLedger при удалении данных, но продукты пула и данные параллельно выполняемых классов
+ * не принадлежат одному классу, поэтому нарушения не приписываются классу, в @AfterAll которого они найдены.
+ * После всех классов выполняется финальная очистка, и при нарушениях прогон падает с их списком
+ */
+public class StockAuditExtension implements BeforeAllCallback {
+
+    /**
+     * Пространство хранения проверки
+     */
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(StockAuditExtension.class);
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        context.getRoot().getStore(NAMESPACE).getOrComputeIfAbsent(StockAudit.class, key -> new StockAudit(), StockAudit.class);
+    }
+
+    /**
+     * Проверка, выполняемая при закрытии корневого контекста JUnit, то есть после всех тестовых классов
+     */
+    private static final class StockAudit implements ExtensionContext.Store.CloseableResource {
+
+        @Override
+        public void close() {
+            CleanupRegistry.drain();
+            List<String> violations = StockLedger.takeViolations();
+            if (!violations.isEmpty()) {
+                throw new AssertionError("Нарушено сохранение остатков продуктов:\n" + String.join("\n", violations));
+            }
+        }
+    }
+}
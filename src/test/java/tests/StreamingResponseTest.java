@@ -0,0 +1,104 @@
+package tests;
+
+import com.sun.net.httpserver.HttpServer;
+import config.BaseConfig;
+import helpers.BaseRequests;
+import helpers.ProductsResponseScanner;
+import io.qameta.allure.Description;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.restassured.response.Response;
+import org.aeonbits.owner.ConfigCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для проверки потокового чтения тела ответа по спецификации BaseRequests.initStreamingRequestSpecification().
+ * Локальный сервер отдает начало тела chunked-ответа и ждет, пока тест не разрешит отдать остаток:
+ * если RestAssured буферизует тело, get() не вернется раньше, чем сервер закончит ответ
+ */
+@Epic("Product Management")
+@Feature("Product Get All")
+public class StreamingResponseTest {
+
+    /**
+     * Время, которое сервер ждет разрешения отдать остаток тела, с
+     */
+    private static final long BODY_HOLD_SECONDS = 5;
+
+    private static final String FIRST_ID = "first";
+    private static final String LAST_ID = "last";
+
+    private final BaseRequests baseRequests = new BaseRequests(ConfigCache.getOrCreate(BaseConfig.class, System.getenv()));
+    private final CountDownLatch releaseBody = new CountDownLatch(1);
+    private final AtomicBoolean bodyCompleted = new AtomicBoolean();
+    private HttpServer server;
+
+    /**
+     * Подготовительный метод: запуск сервера, отдающего тело ответа в два приема
+     */
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/products", exchange -> {
+            try (exchange) {
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, 0);
+                OutputStream out = exchange.getResponseBody();
+                out.write(("[{\"id\":\"" + FIRST_ID + "\"},").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                releaseBody.await(BODY_HOLD_SECONDS, TimeUnit.SECONDS);
+                out.write(("{\"id\":\"" + LAST_ID + "\"}]").getBytes(StandardCharsets.UTF_8));
+                bodyCompleted.set(true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+    }
+
+    /**
+     * Тест проверяет, что ответ возвращается до получения всего тела и тело читается из потока
+     */
+    @Test
+    @Description("Тест потокового чтения тела ответа: get() возвращается до окончания тела")
+    public void streamingBodyIsNotBufferedTest() {
+        Response response = given()
+                .spec(baseRequests.initStreamingRequestSpecification())
+                .baseUri("http://" + server.getAddress().getAddress().getHostAddress() + ":" + server.getAddress().getPort())
+                .when()
+                .get("products");
+        assertFalse(bodyCompleted.get(), "Тело ответа прочитано целиком до возврата из get()");
+        assertEquals(200, response.getStatusCode(), "Код ответа невалидный");
+
+        releaseBody.countDown();
+        List<String> wanted = Arrays.asList(FIRST_ID, LAST_ID);
+        Set<String> found = ProductsResponseScanner.findIds(response.asInputStream(), wanted);
+        assertTrue(found.containsAll(wanted), "Не все id найдены в теле ответа");
+    }
+
+    /**
+     * Метод остановки сервера
+     */
+    @AfterEach
+    public void stopServer() {
+        releaseBody.countDown();
+        server.stop(0);
+    }
+}
@@ -0,0 +1,72 @@
+package tests;
+
+import config.BaseConfig;
+import database.DataBasePool;
+import database.TestDataSweeper;
+import org.aeonbits.owner.ConfigCache;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Расширение JUnit, запускающее очистку данных старых прогонов один раз за прогон, до первого тестового класса.
+ * Очистка выполняется в фоновом потоке параллельно с тестами: она не затрагивает данные текущего прогона
+ * и ограничивает нагрузку на БД паузами между пакетами. При завершении JVM незаконченная очистка прерывается
+ */
+public class TestDataSweepExtension implements BeforeAllCallback {
+
+    /**
+     * Экземпляр конфигурации
+     */
+    private static final BaseConfig config = ConfigCache.getOrCreate(BaseConfig.class, System.getenv());
+
+    /**
+     * Пространство хранения признака запуска очистки
+     */
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(TestDataSweepExtension.class);
+
+    /**
+     * Время ожидания завершения текущего пакета очистки при завершении JVM, мс
+     */
+    private static final long STOP_TIMEOUT_MS = 5000;
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        if (!config.sweepOnStart()) {
+            return;
+        }
+        context.getRoot().getStore(NAMESPACE).getOrComputeIfAbsent(Thread.class, key -> start(), Thread.class);
+    }
+
+    /**
+     * Метод запуска очистки в фоновом потоке
+     *
+     * @return поток очистки
+     */
+    private static Thread start() {
+        Thread sweeper = new Thread(TestDataSweepExtension::sweepQuietly, "test-data-sweeper");
+        sweeper.setDaemon(true);
+        DataBasePool.beforeShutdown(() -> {
+            sweeper.interrupt();
+            try {
+                sweeper.join(STOP_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        sweeper.start();
+        return sweeper;
+    }
+
+    /**
+     * Метод очистки: ошибки не должны влиять на прогон тестов
+     */
+    private static void sweepQuietly() {
+        try {
+            TestDataSweeper.sweep();
+        } catch (InterruptedException e) {
+            System.err.println("Очистка данных старых прогонов прервана");
+        } catch (RuntimeException e) {
+            System.err.println("Ошибка при очистке данных старых прогонов: " + e.getMessage());
+        }
+    }
+}
@@ -1,14 +1,15 @@
 package tests.order;
 
-import database.OrderSqlSteps;
-import database.ProductSqlSteps;
+import database.CleanupRegistry;
+import database.Repositories;
 import dto.order.OrderCreateRequest;
 import dto.order.OrderCreateResponse;
-import dto.product.ProductCreateRequest;
-import dto.product.ProductCreateResponse;
+import fixtures.CustomerFixture;
+import fixtures.ProductFixture;
+import fixtures.WithCustomer;
+import fixtures.WithProducts;
 import io.qameta.allure.*;
 import org.junit.jupiter.api.AfterEach;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import tests.BaseTest;
 
@@ -26,76 +27,13 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
  */
 @Epic("Order Management")
 @Feature("Order Creation")
+@WithProducts(count = 2)
+@WithCustomer
 public class CreateOrderTest extends BaseTest {
 
-    /** ID клиента для тестов */
-    public int customerID;
-
-    /** Запрос на создание первого продукта */
-    private ProductCreateRequest firstProductCreateRequest;
-
-    /** Запрос на создание второго продукта */
-    private ProductCreateRequest secondProductCreateRequest;
-
-    /** Ответ на создание первого продукта */
-    private ProductCreateResponse firstProductCreateResponse;
-
-    /** Ответ на создание второго продукта */
-    private ProductCreateResponse secondProductCreateResponse;
-
-    /** Запрос на создание заказа */
-    private OrderCreateRequest orderCreateRequest;
-
     /** Ответ на создание заказа */
     private OrderCreateResponse orderCreateResponse;
 
-    /**
-     * Подготовительный метод, выполняемый перед каждым тестом.
-     * Создает тестового клиента и два продукта для использования в тестах заказов.
-     */
-    @BeforeEach
-    @Description("Подготовка тестовых данных: создание клиента и продуктов")
-    public void createCustomerAndProductForOrder() {
-
-        customerID = new OrderSqlSteps().createCustomer(getCustomerRandomNickName(), getCustomerRandomEmail());
-
-        firstProductCreateRequest = ProductCreateRequest.builder()
-                .name(getNameProduct())
-                .article(String.valueOf(getUUID()))
-                .category(getCategoryProduct())
-                .dictionary(getDictionaryProduct())
-                .price(generateRandomPrice())
-                .qty(generateRandomQty())
-                .build();
-
-        firstProductCreateResponse = given()
-                .spec(requestSpecification)
-                .body(firstProductCreateRequest)
-                .when()
-                .post(config.createProductEndpoint())
-                .then()
-                .statusCode(STATUS_CODE_CREATED)
-                .extract().as(ProductCreateResponse.class);
-
-        secondProductCreateRequest = ProductCreateRequest.builder()
-                .name(getNameProduct())
-                .article(String.valueOf(getUUID()))
-                .category(getCategoryProduct())
-                .dictionary(getDictionaryProduct())
-                .price(generateRandomPrice())
-                .qty(generateRandomQty())
-                .build();
-
-        secondProductCreateResponse = given()
-                .spec(requestSpecification)
-                .body(secondProductCreateRequest)
-                .when()
-                .post(config.createProductEndpoint())
-                .then()
-                .statusCode(STATUS_CODE_CREATED)
-                .extract().as(ProductCreateResponse.class);
-    }
-
     /**
      * Тест создания заказа и проверки корректности данных.
      * Проверяет:
@@ -103,29 +41,33 @@ public class CreateOrderTest extends BaseTest {
      * - Корректность статуса заказа в БД
      * - Соответствие данных в API ответе и БД
      * - Корректность обновления количества продуктов после резервирования
+     *
+     * @param firstProduct  первый продукт из пула фикстур
+     * @param secondProduct второй продукт из пула фикстур
+     * @param customer      клиент из пула фикстур
      */
     @Test
     @Description("Тест создания заказа и проверки корректности данных в API и БД")
-    public void orderCreateTest() {
+    public void orderCreateTest(ProductFixture firstProduct, ProductFixture secondProduct, CustomerFixture customer) {
         List<OrderCreateRequest.Products> productsList = new ArrayList<>();
         productsList.add(OrderCreateRequest.Products.builder()
-                .id(firstProductCreateResponse.getId())
-                .qty(generateRandomQtyForOrderCreateTest(firstProductCreateRequest.getQty()))
+                .id(firstProduct.getId())
+                .qty(generateRandomQtyForOrderCreateTest(firstProduct.getQty()))
                 .build());
 
         productsList.add(OrderCreateRequest.Products.builder()
-                .id(secondProductCreateResponse.getId())
-                .qty(generateRandomQtyForOrderCreateTest(secondProductCreateRequest.getQty()))
+                .id(secondProduct.getId())
+                .qty(generateRandomQtyForOrderCreateTest(secondProduct.getQty()))
                 .build());
 
-        orderCreateRequest = OrderCreateRequest.builder()
+        OrderCreateRequest orderCreateRequest = OrderCreateRequest.builder()
                 .deliveryAddress(generateSimpleAddress())
                 .products(productsList)
                 .build();
 
         orderCreateResponse = given()
-                .spec(requestSpecification)
-                .header(CUSTOMER_ID, customerID)
+                .spec(requestSpecification())
+                .header(CUSTOMER_ID, customer.getId())
                 .body(orderCreateRequest)
                 .when()
                 .post(config.createOrderEndpoint())
@@ -133,36 +75,28 @@ public class CreateOrderTest extends BaseTest {
                 .statusCode(STATUS_CODE_OK)
                 .extract().as(OrderCreateResponse.class);
 
-        assertEquals(STATUS_ORDER_CREATED, new OrderSqlSteps().getStatusOrder(orderCreateResponse.getId()), "Статус заказа невалидный");
-        assertCreateOrderFieldsEqual(new OrderSqlSteps().getOrderBDModel((orderCreateResponse.getId())), orderCreateRequest, orderCreateResponse, customerID);
+        assertEquals(STATUS_ORDER_CREATED, Repositories.orders().getStatusOrder(orderCreateResponse.getId()), "Статус заказа невалидный");
+        assertCreateOrderFieldsEqual(Repositories.orders().getOrderBDModel((orderCreateResponse.getId())), orderCreateRequest, orderCreateResponse, customer.getId());
 
-        assertEquals(firstProductCreateRequest.getQty() - new OrderSqlSteps().getQtyProductOrder(orderCreateResponse.getId(), firstProductCreateResponse.getId()),
-                new ProductSqlSteps().getProductBDModel(firstProductCreateResponse.getId()).getQty().intValue(),
+        assertEquals(firstProduct.getQty() - Repositories.orders().getQtyProductOrder(orderCreateResponse.getId(), firstProduct.getId()),
+                Repositories.products().getProductBDModel(firstProduct.getId()).getQty().intValue(),
                 "Подсчет количества продуктов после создания заказа некорректен");
 
-        assertEquals(secondProductCreateRequest.getQty() -
-                        new OrderSqlSteps().getQtyProductOrder(orderCreateResponse.getId(), secondProductCreateResponse.getId()),
-                new ProductSqlSteps().getProductBDModel(secondProductCreateResponse.getId()).getQty().intValue(),
+        assertEquals(secondProduct.getQty() -
+                        Repositories.orders().getQtyProductOrder(orderCreateResponse.getId(), secondProduct.getId()),
+                Repositories.products().getProductBDModel(secondProduct.getId()).getQty().intValue(),
                 "Подсчет количества продуктов после создания заказа некорректен");
     }
 
     /**
      * Метод очистки тестовых данных после выполнения каждого теста.
-     * Удаляет созданные заказы, продукты и клиентов из базы данных.
-     * В случае ошибок при удалении логирует сообщение об ошибке.
+     * Передает созданный тестом заказ на удаление, продукты и клиента возвращает в пулы расширение фикстур.
      */
     @AfterEach
-    @Description("Очистка тестовых данных: удаление заказа, продуктов и клиента")
+    @Description("Очистка тестовых данных: удаление заказа")
     public void deleteOrderInDataBase() {
         if (orderCreateResponse != null) {
-            try {
-                new OrderSqlSteps().deleteOrder((orderCreateResponse.getId()));
-                new OrderSqlSteps().deleteCustomer(customerID);
-                new ProductSqlSteps().deleteProduct(firstProductCreateResponse.getId());
-                new ProductSqlSteps().deleteProduct(secondProductCreateResponse.getId());
-            } catch (Exception e) {
-                System.err.println("Ошибка при удалении заказа: " + e.getMessage());
-            }
+            CleanupRegistry.registerOrder(orderCreateResponse.getId());
         }
     }
 }
\ No newline at end of file
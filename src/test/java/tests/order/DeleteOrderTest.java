@@ -1,22 +1,17 @@
 package tests.order;
 
-import database.OrderSqlSteps;
-import database.ProductSqlSteps;
-import dto.order.OrderCreateRequest;
-import dto.order.OrderCreateResponse;
-import dto.product.ProductCreateRequest;
-import dto.product.ProductCreateResponse;
+import database.Repositories;
+import fixtures.FixtureSeeding;
+import fixtures.OrderFixture;
+import fixtures.ProductFixture;
+import fixtures.WithOrder;
 import io.qameta.allure.Description;
 import io.qameta.allure.Epic;
 import io.qameta.allure.Feature;
-import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import tests.BaseTest;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import static helpers.AssertsHelper.*;
 import static helpers.DataHelper.*;
 import static io.restassured.RestAssured.given;
@@ -27,102 +22,20 @@ import static io.restassured.RestAssured.given;
  */
 @Epic("Order Management")
 @Feature("Order Deletion")
+@FixtureSeeding(FixtureSeeding.Mode.DB)
+@WithOrder(lines = 2)
 public class DeleteOrderTest extends BaseTest {
 
-    /** ID клиента для тестов */
-    public int customerID;
-
-    /** Запрос на создание первого продукта */
-    private ProductCreateRequest firstProductCreateRequest;
-
-    /** Запрос на создание второго продукта */
-    private ProductCreateRequest secondProductCreateRequest;
-
-    /** Ответ на создание первого продукта */
-    private ProductCreateResponse firstProductCreateResponse;
-
-    /** Ответ на создание второго продукта */
-    private ProductCreateResponse secondProductCreateResponse;
-
-    /** Запрос на создание заказа */
-    private OrderCreateRequest orderCreateRequest;
-
-    /** Ответ на создание заказа */
-    private OrderCreateResponse orderCreateResponse;
-
     /**
-     * Подготовительный метод, выполняемый перед каждым тестом.
-     * Создает тестового клиента, продукты и заказ для использования в тестах удаления заказа.
+     * Проверочный метод, выполняемый перед каждым тестом.
+     * Проверяет, что заказ, подготовленный расширением фикстур, корректно сохранен в БД.
+     *
+     * @param order заказ с клиентом и двумя продуктами из пулов
      */
     @BeforeEach
-    @Description("Подготовка тестовых данных: создание клиента, продуктов и заказа")
-    public void createCustomerAndProductForOrder() {
-
-        customerID = new OrderSqlSteps().createCustomer(getCustomerRandomNickName(), getCustomerRandomEmail());
-
-        firstProductCreateRequest = ProductCreateRequest.builder()
-                .name(getNameProduct())
-                .article(String.valueOf(getUUID()))
-                .category(getCategoryProduct())
-                .dictionary(getDictionaryProduct())
-                .price(generateRandomPrice())
-                .qty(generateRandomQty())
-                .build();
-
-        firstProductCreateResponse = given()
-                .spec(requestSpecification)
-                .body(firstProductCreateRequest)
-                .when()
-                .post(config.createProductEndpoint())
-                .then()
-                .statusCode(STATUS_CODE_CREATED)
-                .extract().as(ProductCreateResponse.class);
-
-        secondProductCreateRequest = ProductCreateRequest.builder()
-                .name(getNameProduct())
-                .article(String.valueOf(getUUID()))
-                .category(getCategoryProduct())
-                .dictionary(getDictionaryProduct())
-                .price(generateRandomPrice())
-                .qty(generateRandomQty())
-                .build();
-
-        secondProductCreateResponse = given()
-                .spec(requestSpecification)
-                .body(secondProductCreateRequest)
-                .when()
-                .post(config.createProductEndpoint())
-                .then()
-                .statusCode(STATUS_CODE_CREATED)
-                .extract().as(ProductCreateResponse.class);
-
-        List<OrderCreateRequest.Products> productsList = new ArrayList<>();
-        productsList.add(OrderCreateRequest.Products.builder()
-                .id(firstProductCreateResponse.getId())
-                .qty(generateRandomQtyForOrderCreateTest(firstProductCreateRequest.getQty()))
-                .build());
-
-        productsList.add(OrderCreateRequest.Products.builder()
-                .id(secondProductCreateResponse.getId())
-                .qty(generateRandomQtyForOrderCreateTest(secondProductCreateRequest.getQty()))
-                .build());
-
-        orderCreateRequest = OrderCreateRequest.builder()
-                .deliveryAddress(generateSimpleAddress())
-                .products(productsList)
-                .build();
-
-        orderCreateResponse = given()
-                .spec(requestSpecification)
-                .header(CUSTOMER_ID, customerID)
-                .body(orderCreateRequest)
-                .when()
-                .post(config.createOrderEndpoint())
-                .then()
-                .statusCode(STATUS_CODE_OK)
-                .extract().as(OrderCreateResponse.class);
-        assertCreateOrderFieldsEqual(new OrderSqlSteps().getOrderBDModel((orderCreateResponse.getId())), orderCreateRequest, orderCreateResponse, customerID);
-
+    @Description("Проверка подготовленного заказа в БД")
+    public void checkCreatedOrder(OrderFixture order) {
+        assertCreateOrderFieldsEqual(Repositories.orders().getOrderBDModel((order.getId())), order.getRequest(), order.getResponse(), order.getCustomerId());
     }
 
     /**
@@ -135,41 +48,24 @@ public class DeleteOrderTest extends BaseTest {
      */
     @Test
     @Description("Тест удаления заказа: проверка изменения статуса и восстановления количества продуктов")
-    public void orderDeleteTest() {
+    public void orderDeleteTest(OrderFixture order) {
         given()
+                .spec(requestSpecification())
                 .when()
-                .header(CUSTOMER_ID, customerID)
-                .delete(config.deleteOrderEndpoint() + orderCreateResponse.getId())
+                .header(CUSTOMER_ID, order.getCustomerId())
+                .delete(config.deleteOrderEndpoint() + order.getId())
                 .then()
                 .statusCode(STATUS_CODE_OK);
 
-        assertEquals(STATUS_ORDER_CANCELLED, new OrderSqlSteps().getStatusOrder(orderCreateResponse.getId()), "Статус невалидный");
+        assertEquals(STATUS_ORDER_CANCELLED, Repositories.orders().getStatusOrder(order.getId()), "Статус невалидный");
 
-        assertOrderDeletedBD(new OrderSqlSteps().availabilityCheckOrder(orderCreateResponse.getId()));
+        assertOrderDeletedBD(Repositories.orders().availabilityCheckOrder(order.getId()));
 
-        assertEquals(firstProductCreateRequest.getQty(), new ProductSqlSteps().getProductBDModel(firstProductCreateResponse.getId()).getQty().intValue(),
+        ProductFixture firstProduct = order.getProducts().get(0);
+        ProductFixture secondProduct = order.getProducts().get(1);
+        assertEquals(firstProduct.getQty(), Repositories.products().getProductBDModel(firstProduct.getId()).getQty().intValue(),
                 "Подсчет количества продуктов после удаления заказа некорректен");
-        assertEquals(secondProductCreateRequest.getQty(), new ProductSqlSteps().getProductBDModel(secondProductCreateResponse.getId()).getQty().intValue(),
+        assertEquals(secondProduct.getQty(), Repositories.products().getProductBDModel(secondProduct.getId()).getQty().intValue(),
                 "Подсчет количества продуктов после удаления заказа некорректен");
     }
-
-    /**
-     * Метод очистки, выполняемый после каждого теста.
-     * Удаляет созданные тестовые данные: заказ, клиента и продукты из базы данных.
-     * Обрабатывает возможные исключения при удалении.
-     */
-    @AfterEach
-    @Description("Удаление order, product и customer после завершения тестов")
-    public void deleteOrderInDataBase() {
-        if (orderCreateResponse != null) {
-            try {
-                new OrderSqlSteps().deleteOrder((orderCreateResponse.getId()));
-                new OrderSqlSteps().deleteCustomer(customerID);
-                new ProductSqlSteps().deleteProduct(firstProductCreateResponse.getId());
-                new ProductSqlSteps().deleteProduct(secondProductCreateResponse.getId());
-            } catch (Exception e) {
-                System.err.println("Ошибка при удалении заказа: " + e.getMessage());
-            }
-        }
-    }
-}
\ No newline at end of file
+}
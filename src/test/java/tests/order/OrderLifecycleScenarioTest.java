@@ -0,0 +1,113 @@
+package tests.order;
+
+import database.CleanupRegistry;
+import database.Repositories;
+import dto.order.OrderCreateRequest;
+import dto.order.OrderUpdateRequest;
+import fixtures.CustomerFixture;
+import fixtures.ProductFixture;
+import fixtures.WithCustomer;
+import fixtures.WithProducts;
+import io.qameta.allure.Description;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import scenario.OrderScenarios;
+import scenario.Scenario;
+import scenario.ScenarioPlan;
+import scenario.Session;
+import tests.BaseTest;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static helpers.DataHelper.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Тестовый класс для проверки жизненного цикла заказа сценарием OrderScenarios.orderLifecycle -
+ * тем же планом, который выполняет нагрузка виртуальными пользователями
+ */
+@Epic("Order Management")
+@Feature("Order Lifecycle")
+@WithProducts(count = 3)
+@WithCustomer
+public class OrderLifecycleScenarioTest extends BaseTest {
+
+    /**
+     * План сценария, собирается один раз на класс
+     */
+    private static final ScenarioPlan plan = OrderScenarios.orderLifecycle(Scenario.named("order lifecycle")).build();
+
+    /**
+     * HTTP-клиент сценария
+     */
+    private static final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(config.httpConnectTimeoutMs()))
+            .build();
+
+    /** Сессия сценария с id созданного заказа */
+    private Session session;
+
+    /**
+     * Тест создает заказ из первых двух продуктов, получает его, заменяет состав на третий продукт и отменяет.
+     * После отмены проверяет статус заказа в БД и восстановление остатков всех трех продуктов
+     *
+     * @param firstProduct  первый продукт заказа
+     * @param secondProduct второй продукт заказа
+     * @param thirdProduct  продукт, на который заменяется состав
+     * @param customer      клиент из пула фикстур
+     */
+    @Test
+    @Description("Тест жизненного цикла заказа: создание, получение, изменение и отмена одним сценарием")
+    public void orderLifecycleTest(ProductFixture firstProduct, ProductFixture secondProduct, ProductFixture thirdProduct,
+                                   CustomerFixture customer) throws InterruptedException {
+        OrderCreateRequest createRequest = OrderCreateRequest.builder()
+                .deliveryAddress(generateSimpleAddress())
+                .products(Arrays.asList(
+                        OrderCreateRequest.Products.builder()
+                                .id(firstProduct.getId())
+                                .qty(generateRandomQtyForOrderCreateTest(firstProduct.getQty()))
+                                .build(),
+                        OrderCreateRequest.Products.builder()
+                                .id(secondProduct.getId())
+                                .qty(generateRandomQtyForOrderCreateTest(secondProduct.getQty()))
+                                .build()))
+                .build();
+        OrderUpdateRequest updateRequest = OrderUpdateRequest.builder()
+                .products(List.of(OrderUpdateRequest.Products.builder()
+                        .id(thirdProduct.getId())
+                        .qty(generateRandomQtyForOrderCreateTest(thirdProduct.getQty()))
+                        .build()))
+                .build();
+
+        session = plan.newSession(client, new Random())
+                .set(OrderScenarios.CUSTOMER, customer.getId())
+                .set(OrderScenarios.CREATE_REQUEST, createRequest)
+                .set(OrderScenarios.UPDATE_REQUEST, updateRequest);
+        plan.runOnce(session);
+
+        String orderId = session.get(OrderScenarios.ORDER);
+        assertEquals(STATUS_ORDER_CANCELLED, Repositories.orders().getStatusOrder(orderId), "Статус невалидный");
+        for (ProductFixture product : Arrays.asList(firstProduct, secondProduct, thirdProduct)) {
+            assertEquals(product.getQty(), Repositories.products().getProductBDModel(product.getId()).getQty().intValue(),
+                    "Подсчет количества продуктов после отмены заказа некорректен");
+        }
+    }
+
+    /**
+     * Метод передачи созданного сценарием заказа на удаление
+     */
+    @AfterEach
+    @Description("Очистка тестовых данных: удаление заказа")
+    public void deleteOrderInDataBase() {
+        if (session != null) {
+            CleanupRegistry.registerOrder(session.get(OrderScenarios.ORDER));
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package tests.product;
 
-import database.ProductSqlSteps;
+import database.CleanupRegistry;
+import database.Repositories;
 import dto.product.ProductCreateRequest;
 import dto.product.ProductCreateResponse;
 import io.qameta.allure.Description;
@@ -45,7 +46,7 @@ public class CreateProductTest extends BaseTest {
 
         productCreateRequest = ProductCreateRequest.builder()
                 .name(getNameProduct())
-                .article(String.valueOf(getUUID()))
+                .article(getArticle())
                 .category(getCategoryProduct())
                 .dictionary(getDictionaryProduct())
                 .price(generateRandomPrice())
@@ -53,7 +54,7 @@ public class CreateProductTest extends BaseTest {
                 .build();
 
         productCreateResponse = given()
-                .spec(requestSpecification)
+                .spec(requestSpecification())
                 .body(productCreateRequest)
                 .when()
                 .post(config.createProductEndpoint())
@@ -61,23 +62,18 @@ public class CreateProductTest extends BaseTest {
                 .statusCode(STATUS_CODE_CREATED)
                 .extract().as(ProductCreateResponse.class);
 
-        assertCreateProductFieldsEqual(new ProductSqlSteps().getProductBDModel((productCreateResponse.getId())), productCreateResponse);
+        assertCreateProductFieldsEqual(Repositories.products().getProductBDModel((productCreateResponse.getId())), productCreateResponse);
     }
 
     /**
      * Метод очистки, выполняемый после каждого теста.
-     * Удаляет созданный тестовый продукт из базы данных.
-     * Обрабатывает возможные исключения при удалении.
+     * Передает созданный тестовый продукт на удаление в CleanupRegistry.
      */
     @AfterEach
     @Description("Удаление Product после завершения тестов")
     public void deleteProductInDataBase() {
         if (productCreateResponse != null) {
-            try {
-                new ProductSqlSteps().deleteProduct((productCreateResponse.getId()));
-            } catch (Exception e) {
-                System.err.println("Ошибка при удалении продукта: " + e.getMessage());
-            }
+            CleanupRegistry.registerProduct(productCreateResponse.getId());
         }
     }
 }
\ No newline at end of file
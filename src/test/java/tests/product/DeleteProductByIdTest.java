@@ -1,6 +1,6 @@
 package tests.product;
 
-import database.ProductSqlSteps;
+import database.Repositories;
 import dto.product.ProductCreateRequest;
 import dto.product.ProductCreateResponse;
 import io.qameta.allure.Description;
@@ -42,7 +42,7 @@ public class DeleteProductByIdTest extends BaseTest {
     public void createProduct() {
         productCreateRequest = ProductCreateRequest.builder()
                 .name(getNameProduct())
-                .article(String.valueOf(getUUID()))
+                .article(getArticle())
                 .category(getCategoryProduct())
                 .dictionary(getDictionaryProduct())
                 .price(generateRandomPrice())
@@ -50,7 +50,7 @@ public class DeleteProductByIdTest extends BaseTest {
                 .build();
 
         productCreateResponse = given()
-                .spec(requestSpecification)
+                .spec(requestSpecification())
                 .body(productCreateRequest)
                 .when()
                 .post(config.createProductEndpoint())
@@ -70,12 +70,13 @@ public class DeleteProductByIdTest extends BaseTest {
     public void productDeleteTest() {
 
         given()
+                .spec(requestSpecification())
                 //.body(usersDeleteRequest)
                 .when()
                 .delete(config.deleteProductEndpoint() + productCreateResponse.getId())
                 .then()
                 .statusCode(STATUS_CODE_OK);
 
-        assertProductDeletedBD(new ProductSqlSteps().getProductBDModel((productCreateResponse.getId())));
+        assertProductDeletedBD(Repositories.products().getProductBDModel((productCreateResponse.getId())));
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package tests.product;
 
-import database.ProductSqlSteps;
+import database.CleanupRegistry;
+import database.Repositories;
 import dto.product.ProductCreateRequest;
 import dto.product.ProductCreateResponse;
 import dto.product.ProductUpdateRequest;
@@ -56,7 +57,7 @@ public class UpdateProductTest extends BaseTest {
     public void createProduct() {
         productCreateRequest = ProductCreateRequest.builder()
                 .name(getNameProduct())
-                .article(String.valueOf(getUUID()))
+                .article(getArticle())
                 .category(getCategoryProduct())
                 .dictionary(getDictionaryProduct())
                 .price(generateRandomPrice())
@@ -64,7 +65,7 @@ public class UpdateProductTest extends BaseTest {
                 .build();
 
         productCreateResponse = given()
-                .spec(requestSpecification)
+                .spec(requestSpecification())
                 .body(productCreateRequest)
                 .when()
                 .post(config.createProductEndpoint())
@@ -83,7 +84,7 @@ public class UpdateProductTest extends BaseTest {
         productUpdateRequest = ProductUpdateRequest.builder()
                 .name(getNameProduct())
                 .id(productCreateResponse.getId())
-                .article(String.valueOf(getUUID()))
+                .article(getArticle())
                 .category(getCategoryProduct())
                 .dictionary(getDictionaryProduct())
                 .price(generateRandomPrice())
@@ -91,7 +92,7 @@ public class UpdateProductTest extends BaseTest {
                 .build();
 
         productUpdateResponse = given()
-                .spec(requestSpecification)
+                .spec(requestSpecification())
                 .body(productUpdateRequest)
                 .when()
                 .patch(config.updateProductEndpoint())
@@ -99,25 +100,20 @@ public class UpdateProductTest extends BaseTest {
                 .statusCode(STATUS_CODE_OK)
                 .extract().as(ProductUpdateResponse.class);
 
-        assertUpdateProductFieldsEqual(new ProductSqlSteps().getProductBDModel((productCreateResponse.getId())), productUpdateResponse);
+        assertUpdateProductFieldsEqual(Repositories.products().getProductBDModel((productCreateResponse.getId())), productUpdateResponse);
 
         assertNotEquals(productCreateResponse.getLast_qty_changed(), productUpdateResponse.getLast_qty_changed(), "Поля не должны совпадать");
     }
 
     /**
      * Метод очистки, выполняемый после каждого теста.
-     * Удаляет созданный тестовый продукт из базы данных.
-     * Обрабатывает возможные исключения при удалении.
+     * Передает созданный тестовый продукт на удаление в CleanupRegistry.
      */
     @AfterEach
     @Description("Удаление Product после завершения тестов")
     public void deleteProductInDataBase() {
         if (productCreateResponse != null) {
-            try {
-                new ProductSqlSteps().deleteProduct((productCreateResponse.getId()));
-            } catch (Exception e) {
-                System.err.println("Ошибка при удалении продукта: " + e.getMessage());
-            }
+            CleanupRegistry.registerProduct(productCreateResponse.getId());
         }
     }
 }
\ No newline at end of file